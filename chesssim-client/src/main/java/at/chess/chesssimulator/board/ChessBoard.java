@@ -1,20 +1,42 @@
 package at.chess.chesssimulator.board;
 
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
 import at.chess.chesssimulator.piece.ChessPiece;
 import at.chess.chesssimulator.piece.enums.PieceColor;
 import at.chess.chesssimulator.piece.enums.PieceType;
+import at.chess.chesssimulator.rules.DrawDetector;
+import at.chess.chesssimulator.rules.DrawReason;
 import at.chess.chesssimulator.utils.FenNotation;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
 import static at.chess.chesssimulator.board.config.ChessBoardConfig.*;
 import static at.chess.chesssimulator.board.utils.PositionUtils.isInBounds;
 
 
+/**
+ * The chessboard used by the game logic and the JavaFX layer.
+ * <p>
+ * The authoritative piece placement lives in a {@link BitboardPosition}; occupancy and king lookups are answered
+ * from its bitboards. The {@code Position[][]} grid is kept as a thin adapter on top of it, holding the
+ * {@link ChessPiece} objects (and their images) as well as UI state like selection and indicators.
+ * Every mutation goes through this class so both representations stay in sync.
+ * </p>
+ * <p>
+ * Game moves are played with {@link #makeMove(int)} and taken back with {@link #unmakeMove()}; both delegate to the
+ * core and afterwards only refresh the handful of grid squares the move touched.
+ * </p>
+ */
 @Setter
 public class ChessBoard {
 
@@ -28,6 +50,23 @@ public class ChessBoard {
      */
     private Position[][] board;
 
+    /**
+     * The bitboard core holding the authoritative piece placement and game state.
+     */
+    @Getter
+    private final BitboardPosition core;
+
+    /**
+     * One shared {@code ChessPiece} per piece code, used when the grid is refreshed from the core.
+     * Pieces are immutable, so the same instance can stand on any number of squares.
+     */
+    private final ChessPiece[] pieceCache = new ChessPiece[Pieces.PIECE_COUNT];
+
+    /**
+     * Reusable buffer for looking up encoded moves.
+     */
+    private final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+
     /**
      * The currently selected position on the board, if any.
      */
@@ -45,11 +84,6 @@ public class ChessBoard {
     @Getter
     private PieceColor turn;
 
-    /**
-     * Singleton instance of the chessboard.
-     */
-    private static ChessBoard instance;
-
     /**
      * Flag indicating whether the current player is in check.
      */
@@ -57,14 +91,18 @@ public class ChessBoard {
     private boolean inCheck;
 
     /**
-     * Private constructor for initializing the chessboard with default dimensions.
+     * Creates a chessboard with default dimensions.
      * The board is initialized with empty positions.
+     * <p>
+     * Boards are independent of each other; every game (or analysis) owns its own instance.
+     * </p>
      */
-    private ChessBoard() {
+    public ChessBoard() {
         board = new Position[getRows()][getCols()];
         this.selectedPosition = null;
         this.indicatedPositions = new Stack<>();
         this.inCheck = false;
+        this.core = new BitboardPosition();
 
         for (int i = 0; i < board.length; i++) {
             for (int j = 0; j < board[i].length; j++) {
@@ -75,19 +113,16 @@ public class ChessBoard {
         logger.info("Created ChessBoard with {} rows and {} columns", getRows(), getCols());
     }
 
-    /**
-     * Resets the singleton instance of the chessboard, allowing a new one to be created.
-     */
-    public static void resetInstance() {
-        instance = null;
-    }
-
     /**
      * Loads the board state from the given FEN notation.
      *
      * @param fen The {@code FenNotation} object representing the board configuration.
      */
     public void loadBoard(FenNotation fen) {
+        if (fen.getFen() != null) {
+            core.loadFen(fen.getFen());
+        }
+
         var boardConfig = fen.getBoard();
         for (int i = 0; i < boardConfig.length; i++) {
             for (int j = 0; j < boardConfig[i].length; j++) {
@@ -97,19 +132,19 @@ public class ChessBoard {
                 }
             }
         }
-        turn = fen.getTurn();
+        setTurn(fen.getTurn());
     }
 
     /**
-     * Retrieves the singleton instance of the chessboard.
+     * Sets the color of the player whose turn it is and mirrors it into the bitboard core.
      *
-     * @return The singleton {@code ChessBoard} instance.
+     * @param turn The {@code PieceColor} to move.
      */
-    public static ChessBoard getInstance() {
-        if (instance == null) {
-            instance = new ChessBoard();
+    public void setTurn(PieceColor turn) {
+        this.turn = turn;
+        if (turn != null) {
+            core.setSideToMove(turn.toBitboardColor());
         }
-        return instance;
     }
 
     /**
@@ -123,6 +158,12 @@ public class ChessBoard {
         if (isInBounds(row, col)) {
             board[row][col].setPiece(piece);
             board[row][col].setOccupied(true);
+
+            int square = square(row, col);
+            core.removePiece(square);
+            if (piece != null) {
+                core.putPiece(piece.getPieceCode(), square);
+            }
         }
     }
 
@@ -144,7 +185,7 @@ public class ChessBoard {
      * @return {@code true} if the position is occupied, {@code false} otherwise.
      */
     public boolean isOccupied(int row, int col) {
-        return isInBounds(row, col) && board[row][col].isOccupied();
+        return isInBounds(row, col) && core.isOccupied(square(row, col));
     }
 
     /**
@@ -155,7 +196,7 @@ public class ChessBoard {
      * @return {@code true} if the position is occupied by a piece of the given color, {@code false} otherwise.
      */
     public boolean isOccupiedByColor(Position pos, PieceColor color) {
-        return isOccupied(pos) && getPieceAt(pos) != null && getPieceAt(pos).getColor() == color;
+        return isInBounds(pos) && core.isOccupiedBy(square(pos.getRow(), pos.getCol()), color.toBitboardColor());
     }
 
     /**
@@ -179,10 +220,6 @@ public class ChessBoard {
             ChessPiece piece = getPieceAt(originalPosition);
             clearPosition(originalPosition);
             placePiece(newPosition, piece);
-
-            if (piece.isFirstMove()) {
-                piece.setFirstMove(false);
-            }
         }
     }
 
@@ -198,13 +235,211 @@ public class ChessBoard {
             clearPosition(originalPosition);
             clearPosition(capturePosition);
             placePiece(capturePosition, piece);
+        }
+    }
+
+    /**
+     * Plays an encoded move on the core and refreshes the affected squares of the grid.
+     *
+     * @param move The encoded move, as returned by {@link #findMove(Position, Position)}.
+     */
+    public void makeMove(int move) {
+        core.makeMove(move);
+        syncSquares(move);
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(int)} and refreshes the affected squares of the grid.
+     */
+    public void unmakeMove() {
+        int move = core.lastMove();
+        core.unmakeMove();
+        syncSquares(move);
+    }
+
+    /**
+     * Returns the Zobrist key of the current position.
+     * <p>
+     * The key is maintained incrementally by the core, so this is a field read and suitable for keying caches,
+     * repetition checks and transposition tables.
+     * </p>
+     *
+     * @return The 64-bit position key.
+     */
+    public long getPositionKey() {
+        return core.getKey();
+    }
+
+    /**
+     * Checks whether a legal move would put the opponent in check.
+     * <p>
+     * The move is played and taken back on the core only; the grid is not touched. With the core's incrementally
+     * maintained attack maps the check test itself is a single mask operation.
+     * </p>
+     *
+     * @param move The encoded move, as returned by {@link #findMove(Position, Position)}.
+     * @return {@code true} if the opponent's king is attacked after the move.
+     */
+    public boolean givesCheck(int move) {
+        core.makeMove(move);
+        boolean check = core.inCheck();
+        core.unmakeMove();
+        return check;
+    }
 
-            if (piece.isFirstMove()) {
-                piece.setFirstMove(false);
+    /**
+     * Checks whether a legal move would checkmate the opponent.
+     *
+     * @param move The encoded move, as returned by {@link #findMove(Position, Position)}.
+     * @return {@code true} if the opponent is in check after the move and has no legal reply.
+     */
+    public boolean givesCheckmate(int move) {
+        core.makeMove(move);
+        boolean checkmate = core.inCheck() && !MoveGenerator.hasLegalMove(core, moveBuffer);
+        core.unmakeMove();
+        return checkmate;
+    }
+
+    /**
+     * Checks whether the game is drawn in the current position by stalemate, threefold repetition, the fifty-move
+     * rule or insufficient material.
+     * <p>
+     * Repetitions are counted over the moves played on the core since the board was loaded.
+     * </p>
+     *
+     * @return The reason of the draw, or {@code null} if the game goes on.
+     */
+    public DrawReason getDrawReason() {
+        return DrawDetector.check(core, moveBuffer);
+    }
+
+    /**
+     * Looks up the encoded move that moves the piece on one position to another.
+     * <p>
+     * Castling is entered in the UI by moving the king onto its own rook, this is translated to the corresponding
+     * castling move. Promotions resolve to the queen promotion; the promotion piece can be changed afterwards with
+     * {@link Moves#promotionFlags(int, boolean)}.
+     * </p>
+     *
+     * @param originalPosition The {@code Position} the piece moves from.
+     * @param newPosition      The {@code Position} the piece moves to.
+     * @return The encoded legal move, or {@link Moves#NONE} if there is no such legal move.
+     */
+    public int findMove(Position originalPosition, Position newPosition) {
+        int from = square(originalPosition.getRow(), originalPosition.getCol());
+        int to = square(newPosition.getRow(), newPosition.getCol());
+
+        int piece = core.pieceAt(from);
+        int target = core.pieceAt(to);
+        boolean castling = piece != Pieces.NONE && Pieces.type(piece) == Pieces.KING
+                && target == Pieces.make(Pieces.color(piece), Pieces.ROOK);
+
+        int count = MoveGenerator.generateLegal(core, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (Moves.from(move) != from) {
+                continue;
+            }
+            if (castling) {
+                if (Moves.flags(move) == (to > from ? Moves.KING_CASTLE : Moves.QUEEN_CASTLE)) {
+                    return move;
+                }
+            } else if (Moves.to(move) == to) {
+                return move;
+            }
+        }
+        return Moves.NONE;
+    }
+
+    /**
+     * Returns the positions the piece on a position can legally move to.
+     * <p>
+     * Castling moves are reported as the position of the castling rook, matching how castling is entered in the UI.
+     * </p>
+     *
+     * @param position The {@code Position} of the piece.
+     * @return The target positions of the board; empty if the piece has no legal move or it is not its turn.
+     */
+    public List<Position> getLegalTargets(Position position) {
+        int from = square(position.getRow(), position.getCol());
+        List<Position> targets = new ArrayList<>();
+
+        int count = MoveGenerator.generateLegal(core, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (Moves.from(move) != from) {
+                continue;
             }
+            int to = switch (Moves.flags(move)) {
+                case Moves.KING_CASTLE -> from + 3;
+                case Moves.QUEEN_CASTLE -> from - 4;
+                default -> Moves.to(move);
+            };
+            Position target = getPosition(row(to), col(to));
+            if (!targets.contains(target)) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Copies the core's content of every square touched by a move into the grid.
+     *
+     * @param move The encoded move.
+     */
+    private void syncSquares(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        syncSquare(from);
+        syncSquare(to);
+
+        int flags = Moves.flags(move);
+        if (flags == Moves.EN_PASSANT) {
+            syncSquare(to ^ 8);
+        } else if (flags == Moves.KING_CASTLE) {
+            syncSquare(to + 1);
+            syncSquare(to - 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            syncSquare(to - 2);
+            syncSquare(to + 1);
+        }
+    }
+
+    /**
+     * Copies the core's content of one square into the grid.
+     *
+     * @param square The square index.
+     */
+    private void syncSquare(int square) {
+        Position position = board[row(square)][col(square)];
+        int piece = core.pieceAt(square);
+        if (piece == Pieces.NONE) {
+            position.setPiece(null);
+            position.setOccupied(false);
+            position.setSelected(false);
+            position.setIndicator(false);
+        } else if (position.getPiece() == null || position.getPiece().getPieceCode() != piece) {
+            position.setPiece(getCachedPiece(piece));
+            position.setOccupied(true);
         }
     }
 
+    /**
+     * Returns the shared {@code ChessPiece} instance for a piece code, creating it on first use.
+     *
+     * @param piece The piece code.
+     * @return The chess piece.
+     */
+    private ChessPiece getCachedPiece(int piece) {
+        if (pieceCache[piece] == null) {
+            pieceCache[piece] = ChessPiece.generateChessPiece(
+                    PieceColor.fromBitboardColor(Pieces.color(piece)),
+                    PieceType.fromBitboardType(Pieces.type(piece)));
+        }
+        return pieceCache[piece];
+    }
+
 
     /**
      * Retrieves the position of the king for the specified color.
@@ -213,16 +448,11 @@ public class ChessBoard {
      * @return The {@code Position} of the king, or {@code null} if no king is found.
      */
     public Position getKingPosition(PieceColor turn) {
-        for (int i = 0; i < getRows(); i++) {
-            for (int j = 0; j < getCols(); j++) {
-                var position = getPosition(i, j);
-                var piece = position.getPiece();
-                if (piece != null && piece.getType() == PieceType.KING && piece.getColor() == turn) {
-                    return position;
-                }
-            }
+        int kingSquare = core.kingSquare(turn.toBitboardColor());
+        if (kingSquare == NO_SQUARE) {
+            return null;
         }
-        return null;
+        return board[row(kingSquare)][col(kingSquare)];
     }
 
     /**
@@ -285,6 +515,7 @@ public class ChessBoard {
             board[row][col].setOccupied(false);
             board[row][col].setSelected(false);
             board[row][col].setIndicator(false);
+            core.removePiece(square(row, col));
         }
     }
 
@@ -1,6 +1,7 @@
 package at.chess.chesssimulator.board;
 
 import at.chess.chesssimulator.board.enums.MoveType;
+import at.chess.chesssimulator.movegen.Moves;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -18,6 +19,7 @@ import static at.chess.chesssimulator.piece.enums.PieceType.PAWN;
  *   <li>The original position where the piece is before the move.</li>
  *   <li>The new position where the piece is after the move.</li>
  *   <li>The type of move being made, as described by {@link MoveType}.</li>
+ *   <li>The primitive encoding of the move as played on the board core, see {@link Moves}.</li>
  * </ul>
  * </p>
  */
@@ -37,6 +39,9 @@ public class Move implements Serializable {
     /** Extra data for the move (e.g., promotion piece for pawn promotion). */
     String extraData;
 
+    /** The encoded move played on the board core, {@link Moves#NONE} until it has been resolved. */
+    int encodedMove;
+
     /**
      * Constructs a new move with the specified original position, new position, and move type.
      * The extra data is set to an empty string by default.
@@ -50,6 +55,7 @@ public class Move implements Serializable {
         this.originalPosition = originalPosition;
         this.newPosition = newPosition;
         this.moveType = moveType;
+        this.encodedMove = Moves.NONE;
     }
 
     /**
@@ -2,6 +2,7 @@ package at.chess.chesssimulator.board.utils;
 
 import at.chess.chesssimulator.board.ChessBoard;
 import at.chess.chesssimulator.board.Position;
+import at.chess.chesssimulator.board.bitboard.Bitboards;
 import at.chess.chesssimulator.board.config.ChessBoardConfig;
 import javafx.scene.paint.Color;
 
@@ -68,14 +69,14 @@ public class PositionUtils {
      * If it hits a out of bound square it moves back one square and returns the last valid position.
      * </p>
      *
-     * @param direction The direction in which to move.
-     * @param position  The starting position.
+     * @param chessBoard The chessboard to look at.
+     * @param direction  The direction in which to move.
+     * @param position   The starting position.
      * @return The last valid {@link Position} before going out of bounds or encountering an occupied square.
      */
-    public static Position getBound(Directions direction, Position position) {
+    public static Position getBound(ChessBoard chessBoard, Directions direction, Position position) {
         Position bound = new Position(position.getRow(), position.getCol());
         Position dirVector = direction.getVector();
-        ChessBoard chessBoard = ChessBoard.getInstance();
 
         boolean inBounds;
         boolean isOccupied;
@@ -133,26 +134,23 @@ public class PositionUtils {
     }
 
     /**
-     * Loads a position from the chessboard and creates a deep copy of it.
+     * Loads a position from the chessboard and creates a copy of it.
+     * <p>
+     * Chess pieces are immutable, so the copy refers to the same piece instance instead of cloning it.
+     * </p>
      *
-     * @param position The position to load and copy.
-     * @return A deep copy of the loaded position, or {@code null} if the position is not valid.
+     * @param chessBoard The chessboard to load the position from.
+     * @param position   The position to load and copy.
+     * @return A copy of the loaded position, or {@code null} if the position is not valid.
      */
-    public static Position loadAndCopyPosition(Position position) {
-        ChessBoard chessBoard = ChessBoard.getInstance();
+    public static Position loadAndCopyPosition(ChessBoard chessBoard, Position position) {
         Position originalPosition = chessBoard.getPosition(position);
 
         if (originalPosition == null) {
             return null;
         }
 
-        // Create a deep copy of the position
-        Position copiedPosition = new Position(originalPosition.getRow(), originalPosition.getCol());
-        if (originalPosition.containsPiece()) {
-            copiedPosition.setPiece(originalPosition.getPiece().clone());
-        }
-
-        return copiedPosition;
+        return new Position(originalPosition.getRow(), originalPosition.getCol(), originalPosition.getPiece());
     }
 
     /**
@@ -182,4 +180,42 @@ public class PositionUtils {
 
         return positions;
     }
-}
\ No newline at end of file
+
+    /**
+     * Converts a position to the square index used by the bitboard core.
+     *
+     * @param position The position to convert.
+     * @return The square index (0-63).
+     */
+    public static int toSquare(Position position) {
+        return Bitboards.square(position.getRow(), position.getCol());
+    }
+
+    /**
+     * Converts a square index of the bitboard core to a new (empty) position.
+     *
+     * @param square The square index (0-63).
+     * @return A new {@link Position} for the square.
+     */
+    public static Position toPosition(int square) {
+        return new Position(Bitboards.row(square), Bitboards.col(square));
+    }
+
+    /**
+     * Converts all squares of a bitboard to a list of positions.
+     * <p>
+     * This is the bridge between the allocation-free bitboard core and the {@link Position} based API of the UI.
+     * </p>
+     *
+     * @param bitboard The bitboard to convert.
+     * @return A list containing one new {@link Position} per set bit.
+     */
+    public static List<Position> toPositions(long bitboard) {
+        List<Position> positions = new ArrayList<>(Long.bitCount(bitboard));
+        while (bitboard != 0) {
+            positions.add(toPosition(Long.numberOfTrailingZeros(bitboard)));
+            bitboard &= bitboard - 1;
+        }
+        return positions;
+    }
+}
@@ -9,6 +9,7 @@ import at.chess.chesssimulator.controller.popup.WinPopup;
 import at.chess.chesssimulator.gamelogic.GameMaster;
 import at.chess.chesssimulator.gamelogic.Player;
 import at.chess.chesssimulator.piece.enums.PieceColor;
+import at.chess.chesssimulator.rules.DrawReason;
 import at.chess.chesssimulator.sound.SoundManager;
 import at.chess.chesssimulator.sound.SoundType;
 import at.chess.chesssimulator.utils.FxmlFiles;
@@ -25,9 +26,7 @@ import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static at.chess.chesssimulator.board.ChessBoard.resetInstance;
 import static at.chess.chesssimulator.board.config.ChessBoardConfig.*;
-import static at.chess.chesssimulator.piece.movement.MovementStrategyRegistry.reloadChessBoard;
 
 public class BoardController implements Player {
 
@@ -73,8 +72,6 @@ public class BoardController implements Player {
     }
 
     public void handleQuit(ActionEvent event) {
-        resetInstance();
-        reloadChessBoard();
         MainController.loadStage(FxmlFiles.MAIN);
         this.stage.close();
     }
@@ -105,23 +102,30 @@ public class BoardController implements Player {
 
         logger.info("Move result: {}", move.getMoveType());
 
-        if(move.getMoveType() == MoveType.CHECKMATE) {
+        DrawReason drawReason = gameMaster.getDrawReason();
+        // A promotion keeps its move type, so a mate by promotion is only seen on the board
+        boolean checkmate = move.getMoveType() == MoveType.CHECKMATE
+                || move.getMoveType() == MoveType.PROMOTE && drawReason == null && gameMaster.isGameOver();
+        if(checkmate || drawReason != null) {
 
-            soundManager.playSound(SoundType.getSound(move.getMoveType()));
-            gameMaster.endTurn();
+            // After a draw by the other player, any attempt to move ends up here as an invalid move
+            if (move.getMoveType() != MoveType.INVALID) {
+                soundManager.playSound(SoundType.getSound(move.getMoveType()));
+                gameMaster.endTurn();
+            }
             this.updateBoard();
             waitForConfirmation = false;
             this.mouseInputHandler.resetDrag();
-            resetInstance();
-            reloadChessBoard();
 
             WinPopup winPopup = new WinPopup();
-            WinPopup.ButtonChoice choice = winPopup.showWinPopup(turn, gameMaster.getCommandHistory());
+            WinPopup.ButtonChoice choice = drawReason != null
+                    ? winPopup.showDrawPopup(drawReason, gameMaster.getCommandHistory())
+                    : winPopup.showWinPopup(turn, gameMaster.getCommandHistory());
 
             switch (choice) {
                 case REMATCH:
                     MainController.loadStage(FxmlFiles.BOARD);
-                    gameMaster.setChessBoard(ChessBoard.getInstance());
+                    gameMaster.setChessBoard(new ChessBoard());
                     gameMaster.startGame();
                     this.updateBoard();
                     break;
@@ -204,13 +208,6 @@ public class BoardController implements Player {
 
             if (gameMaster.isOccupiedByColor(clickedPosition, turn)) {
 
-                if(gameMaster.amIInCheck(turn)) {
-                    if(!gameMaster.isMyKing(clickedPosition)) {
-                        ignoreInput = true;
-                        return;
-                    }
-                }
-
                 selectedPosition = clickedPosition;
                 prepareDragImage(clickedPosition, pressed);
                 gameMaster.selectTile(clickedPosition);
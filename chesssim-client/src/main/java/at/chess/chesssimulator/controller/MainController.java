@@ -1,5 +1,7 @@
 package at.chess.chesssimulator.controller;
 
+import at.chess.chesssimulator.engine.SearchLimits;
+import at.chess.chesssimulator.gamelogic.EnginePlayer;
 import at.chess.chesssimulator.gamelogic.GameMaster;
 import at.chess.chesssimulator.network.NetworkPlayer;
 import at.chess.chesssimulator.piece.enums.PieceColor;
@@ -24,13 +26,16 @@ import static at.chess.chesssimulator.utils.AlertUtil.showError;
 
 /**
  * The {@code MainController} class handles the main menu logic of the Chess Simulator application.
- * It manages the actions for buttons like Local Play, Online Play, Replay, Settings, and Exit.
+ * It manages the actions for buttons like Local Play, Online Play, Play vs Computer, Replay, Settings, and Exit.
  * Additionally, it establishes a connection to a server for online play functionality.
  */
 public class MainController {
 
     protected static final Logger logger = LoggerFactory.getLogger(MainController.class);
 
+    /** Thinking time of the computer opponent per move. */
+    private static final long ENGINE_MOVE_TIME_MILLIS = 2000;
+
     @FXML
     private TextField usernameTextField;
 
@@ -40,6 +45,9 @@ public class MainController {
     @FXML
     private Button onlinePlay;
 
+    @FXML
+    private Button computerPlay;
+
     @FXML
     private Button replay;
 
@@ -57,6 +65,7 @@ public class MainController {
 
         localPlay.setOnAction(this::handleLocalPlay);
         onlinePlay.setOnAction(this::handleOnlinePlay);
+        computerPlay.setOnAction(this::handleComputerPlay);
         replay.setOnAction(this::watchReplay);
         settings.setOnAction(this::handleSettings);
         exit.setOnAction(this::handleExit);
@@ -93,6 +102,45 @@ public class MainController {
         }
     }
 
+    /**
+     * Handles the action for starting a game against the computer.
+     * The user plays white, the engine answers with black within a fixed time per move and ponders on the user's
+     * time.
+     *
+     * @param event The event triggered by clicking the Play vs Computer button.
+     */
+    private void handleComputerPlay(ActionEvent event) {
+
+        try {
+            FXMLLoader loader = new FXMLLoader(FxmlFiles.BOARD.getFile());
+            Parent newRoot = loader.load();
+
+            Stage stage = (Stage) ((javafx.scene.Node) event.getSource()).getScene().getWindow();
+            Scene scene = new Scene(newRoot);
+            stage.setScene(scene);
+            stage.setTitle("Play vs Computer");
+
+            BoardController boardController = loader.getController();
+            EnginePlayer enginePlayer = new EnginePlayer(PieceColor.BLACK, SearchLimits.moveTime(ENGINE_MOVE_TIME_MILLIS));
+            enginePlayer.setPondering(true);
+            // Pondering keeps the engine busy between moves; stop it together with the window
+            stage.setOnHidden(hidden -> enginePlayer.shutdown());
+            GameMaster gameMaster = new GameMaster(enginePlayer, boardController);
+            enginePlayer.setGameMaster(gameMaster);
+            boardController.setGameMaster(gameMaster);
+            boardController.setOnlyOnePlayer(true);
+            boardController.setMyTurn(PieceColor.WHITE);
+            boardController.setStage(stage);
+            gameMaster.startGame();
+
+            stage.show();
+
+        } catch (IOException e) {
+            logger.error("Error loading the board: {}", e.getMessage());
+            showError("Error", "Failed to load the chessboard.");
+        }
+    }
+
     private void handleOnlinePlay(ActionEvent event) {
         String username = usernameTextField.getText().trim();
         if (username.isEmpty()) {
@@ -125,7 +173,10 @@ public class MainController {
                         stage.setTitle("Online Play - " + username);
 
                         BoardController boardController = loader.getController();
-                        GameMaster gameMaster = new GameMaster(boardController, networkPlayer);
+                        // The network player stands in for the opponent on the other color
+                        GameMaster gameMaster = assignedColor == PieceColor.WHITE
+                                ? new GameMaster(networkPlayer, boardController)
+                                : new GameMaster(boardController, networkPlayer);
                         boardController.setGameMaster(gameMaster);
                         boardController.setOnlyOnePlayer(true);
                         boardController.setStage(stage);
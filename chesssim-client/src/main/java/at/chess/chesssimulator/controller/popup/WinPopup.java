@@ -2,6 +2,7 @@ package at.chess.chesssimulator.controller.popup;
 
 import at.chess.chesssimulator.gamelogic.command.Command;
 import at.chess.chesssimulator.piece.enums.PieceColor;
+import at.chess.chesssimulator.rules.DrawReason;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -18,7 +19,8 @@ import java.util.Stack;
 
 /**
  * The {@code WinPopup} class is responsible for displaying a popup window
- * when a player wins the game. The popup provides options to rematch, save the move history, or close the application.
+ * when a player wins the game or the game is drawn. The popup provides options to rematch, save the move history, or
+ * close the application.
  */
 public class WinPopup {
 
@@ -41,6 +43,23 @@ public class WinPopup {
      * @return The {@link ButtonChoice} selected by the user.
      */
     public ButtonChoice showWinPopup(PieceColor winner, Stack<Command> moveHistory) {
+        String color = winner.toString();
+        return showPopup(color.substring(0, 1).toUpperCase() + color.substring(1).toLowerCase() + " wins!",
+                moveHistory);
+    }
+
+    /**
+     * Displays the popup of a drawn game with the rule that ended it and the move history.
+     *
+     * @param reason      The {@link DrawReason} that ended the game.
+     * @param moveHistory A {@link Stack} of {@link Command} objects representing the move history.
+     * @return The {@link ButtonChoice} selected by the user.
+     */
+    public ButtonChoice showDrawPopup(DrawReason reason, Stack<Command> moveHistory) {
+        return showPopup("Draw by " + reason.getDescription() + "!", moveHistory);
+    }
+
+    private ButtonChoice showPopup(String text, Stack<Command> moveHistory) {
 
         Stage popup = new Stage();
         popup.setTitle("Game Complete");
@@ -49,10 +68,7 @@ public class WinPopup {
         VBox vbox = new VBox(20);
         vbox.setStyle("-fx-padding: 20; -fx-alignment: center;");
 
-        String color = winner.toString();
-        String winnerMsg = color.substring(0, 1).toUpperCase() + color.substring(1).toLowerCase() + " wins!";
-
-        Label message = new Label(winnerMsg);
+        Label message = new Label(text);
         message.setStyle("-fx-font-size: 20px;");
 
         Button rematchButton = new Button("Rematch");
@@ -0,0 +1,339 @@
+package at.chess.chesssimulator.gamelogic;
+
+import at.chess.chesssimulator.board.Move;
+import at.chess.chesssimulator.board.Position;
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+import at.chess.chesssimulator.board.enums.MoveType;
+import at.chess.chesssimulator.book.OpeningBook;
+import at.chess.chesssimulator.engine.ClassicalEvaluator;
+import at.chess.chesssimulator.engine.LazySmpSearch;
+import at.chess.chesssimulator.engine.SearchLimits;
+import at.chess.chesssimulator.engine.SearchResult;
+import at.chess.chesssimulator.engine.TimeManager;
+import at.chess.chesssimulator.engine.TranspositionTable;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import at.chess.chesssimulator.piece.enums.PieceColor;
+import at.chess.chesssimulator.tablebase.Tablebases;
+import javafx.application.Platform;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static at.chess.chesssimulator.board.utils.PositionUtils.toPosition;
+
+/**
+ * A computer opponent backed by the core's {@link LazySmpSearch}.
+ * <p>
+ * When it is notified about its turn, the player copies the current position and searches it on a dedicated
+ * background thread (plus the search's helper threads), so the JavaFX application thread stays responsive. The
+ * best move is then handed back on the application thread through
+ * {@link GameMaster#processInput(Position, Position, String)}, exactly like a move made on the board;
+ * {@link #receiveMoveResult(Move)} ends the turn and refreshes the other player's board.
+ * </p>
+ * <p>
+ * With {@linkplain SearchLimits#clock(long, long, int) clock limits} the player keeps its own clock: the time of
+ * every search is deducted from the remaining time and the increment added, and a {@link TimeManager} spreads the
+ * rest over the game. With {@link #setPondering(boolean) pondering} enabled, the player keeps searching while the
+ * other player is on turn, on the position after the reply it expects. If that reply is played, the running
+ * search is switched to the engine's own time and its result is used; otherwise it is aborted and a new search
+ * starts.
+ * </p>
+ * <p>
+ * Positions found in the {@link #setBook(OpeningBook) opening book} are answered with a weighted random book move
+ * without searching, and so are endings covered by the {@link #setTablebases(Tablebases) endgame tables}, with the
+ * move of the shortest mate or the longest resistance. The tables also cut the search short in endings that are
+ * only a few captures away.
+ * </p>
+ */
+public class EnginePlayer implements Player {
+
+    protected static final Logger logger = LoggerFactory.getLogger(EnginePlayer.class);
+
+    /** Size of the transposition table; it is kept across moves, so later searches profit from earlier ones. */
+    private static final int HASH_MB = 64;
+
+    @Getter
+    private final PieceColor color;
+
+    @Getter
+    private SearchLimits limits;
+
+    /** Whether to search on the other player's time. */
+    @Getter
+    @Setter
+    private boolean pondering;
+
+    @Setter
+    private GameMaster gameMaster;
+
+    /** The opening book consulted before searching, or {@code null}. */
+    @Getter
+    @Setter
+    private OpeningBook book;
+
+    /** The endgame tables consulted at the root and during the search, or {@code null}. */
+    @Getter
+    private Tablebases tablebases;
+
+    /** The time left on the engine's clock, for clock limits. */
+    private volatile long remainingMillis;
+
+    /** Counts the calls of {@link #stopThinking()}; a search started before the last call is stale. */
+    private volatile int generation;
+
+    /** The time manager of the running or last search, which {@link #stopThinking()} aborts. */
+    private volatile TimeManager searchTime;
+
+    /** The running ponder search, or {@code null}; only accessed on the application thread. */
+    private Future<SearchResult> ponderSearch;
+
+    private TimeManager ponderTime;
+
+    /** The key of the position the ponder search expects. */
+    private long ponderKey;
+
+    private final LazySmpSearch search = new LazySmpSearch(ClassicalEvaluator::new,
+            Runtime.getRuntime().availableProcessors(), new TranspositionTable(HASH_MB));
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a computer player.
+     *
+     * @param color  The color the engine plays.
+     * @param limits The depth and time limits of every search.
+     */
+    public EnginePlayer(PieceColor color, SearchLimits limits) {
+        this.color = color;
+        setLimits(limits);
+    }
+
+    /**
+     * Changes the limits of the following searches; clock limits reset the engine's clock.
+     *
+     * @param limits The new limits.
+     */
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
+        this.remainingMillis = limits.getRemainingMillis();
+    }
+
+    /**
+     * Sets the endgame tables of the following moves and searches.
+     *
+     * @param tablebases The tables, or {@code null} to play endings by searching.
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+        search.setTablebases(tablebases);
+    }
+
+    @Override
+    public void notifyTurn(PieceColor turn) {
+        if (turn != color) {
+            return;
+        }
+
+        BitboardPosition position = gameMaster.getChessBoard().getCore().copy();
+        int searched = generation;
+        if (ponderSearch != null) {
+            Future<SearchResult> pondered = ponderSearch;
+            TimeManager timeManager = ponderTime;
+            ponderSearch = null;
+            ponderTime = null;
+            if (position.getKey() == ponderKey) {
+                logger.info("Engine ({}) ponder hit", color);
+                timeManager.ponderhit();
+                searchTime = timeManager;
+                // Queued behind the ponder search, so the result is ready when this runs
+                executor.execute(() -> finish(position, awaitPonder(pondered), timeManager, searched));
+                return;
+            }
+            timeManager.abort();
+        }
+
+        int bookMove = book == null ? Moves.NONE : book.pick(position, ThreadLocalRandom.current());
+        int tableMove = bookMove != Moves.NONE || tablebases == null ? Moves.NONE : tablebases.bestMove(position);
+        if (bookMove != Moves.NONE || tableMove != Moves.NONE) {
+            int move = bookMove != Moves.NONE ? bookMove : tableMove;
+            logger.info("Engine ({}) plays {} from the {}", color, Moves.toUci(move),
+                    bookMove != Moves.NONE ? "book" : "endgame tables");
+            if (limits.hasClock()) {
+                remainingMillis += limits.getIncrementMillis();
+            }
+            Platform.runLater(() -> {
+                if (searched == generation) {
+                    play(gameMaster, color, move);
+                }
+            });
+            return;
+        }
+
+        executor.execute(() -> {
+            SearchLimits current = currentLimits();
+            TimeManager timeManager = new TimeManager(current);
+            // Published before the check, so a later stopThinking() either is seen here or aborts this search
+            searchTime = timeManager;
+            if (searched != generation) {
+                return;
+            }
+            finish(position, search.search(position, current, timeManager), timeManager, searched);
+        });
+    }
+
+    @Override
+    public void receiveMoveResult(Move move) {
+        if (move.getMoveType() == MoveType.INVALID) {
+            logger.error("Engine move {} was rejected", move);
+            return;
+        }
+
+        logger.info("Engine ({}) played {}", color, move);
+        gameMaster.endTurn();
+        gameMaster.updatePlayers();
+    }
+
+    @Override
+    public void updateBoard() {
+    }
+
+    @Override
+    public void sendMove(Position origin, Position target) {
+        gameMaster.processInput(origin, target);
+    }
+
+    /**
+     * Aborts the running and the ponder search and discards their results, whose positions can no longer come up.
+     */
+    @Override
+    public void stopThinking() {
+        generation++;
+        TimeManager running = searchTime;
+        if (running != null) {
+            running.abort();
+        }
+        if (ponderTime != null) {
+            logger.debug("Engine ({}) stops pondering", color);
+            ponderTime.abort();
+        }
+        ponderSearch = null;
+        ponderTime = null;
+    }
+
+    /**
+     * Aborts a running search and releases the search thread. The player must not be used afterwards.
+     */
+    public void shutdown() {
+        stopThinking();
+        search.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Books the time of a search on the engine's clock and hands its move to the application thread, unless the
+     * search was {@linkplain #stopThinking() stopped} in the meantime. Runs on the search thread.
+     */
+    private void finish(BitboardPosition position, SearchResult result, TimeManager timeManager, int searched) {
+        if (searched != generation) {
+            logger.info("Engine ({}) discards its search of a position that was left", color);
+            return;
+        }
+        if (limits.hasClock()) {
+            remainingMillis += limits.getIncrementMillis() - timeManager.getElapsedNanos() / 1_000_000;
+        }
+        logger.info("Engine ({}) searched {}", color, result);
+        Platform.runLater(() -> {
+            if (searched != generation) {
+                return;
+            }
+            play(gameMaster, color, result.getBestMove());
+            // Nobody will move after a game-ending move, so a ponder search would only hold the threads
+            if (pondering && !gameMaster.isGameOver()) {
+                startPondering(position, result);
+            }
+        });
+    }
+
+    /**
+     * Searches the position after the best move and its expected reply until the other player has moved.
+     */
+    private void startPondering(BitboardPosition position, SearchResult result) {
+        int ponderMove = result.getPonderMove();
+        if (result.getBestMove() == Moves.NONE || ponderMove == Moves.NONE) {
+            return;
+        }
+        BitboardPosition expected = position.copy();
+        expected.makeMove(result.getBestMove());
+        if (!MoveGenerator.isLegal(expected, ponderMove)) {
+            return;
+        }
+        expected.makeMove(ponderMove);
+
+        SearchLimits ponderLimits = currentLimits().toPonder();
+        TimeManager timeManager = new TimeManager(ponderLimits);
+        ponderKey = expected.getKey();
+        ponderTime = timeManager;
+        ponderSearch = executor.submit(() -> search.search(expected, ponderLimits, timeManager));
+        logger.debug("Engine ({}) ponders on {}", color, Moves.toUci(ponderMove));
+    }
+
+    private SearchResult awaitPonder(Future<SearchResult> pondered) {
+        try {
+            return pondered.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ponder search was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ponder search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the limits of the next search, with the engine's current clock for clock limits.
+     */
+    private SearchLimits currentLimits() {
+        return limits.hasClock()
+                ? SearchLimits.clock(Math.max(1, remainingMillis), limits.getIncrementMillis(), limits.getMovesToGo())
+                : limits;
+    }
+
+    /**
+     * Translates an encoded move to the board's input convention and plays it; shared with {@link MctsPlayer} and the
+     * network player.
+     *
+     * @param gameMaster The game to play the move in.
+     * @param color      The color of the player, for logging.
+     * @param move       The encoded move, or {@link Moves#NONE} if there is none.
+     */
+    public static void play(GameMaster gameMaster, PieceColor color, int move) {
+        if (move == Moves.NONE) {
+            logger.info("Engine ({}) has no legal move", color);
+            return;
+        }
+
+        int from = Moves.from(move);
+        // Castling is entered as the king moving onto its own rook
+        int to = switch (Moves.flags(move)) {
+            case Moves.KING_CASTLE -> from + 3;
+            case Moves.QUEEN_CASTLE -> from - 4;
+            default -> Moves.to(move);
+        };
+        String promotion = Moves.isPromotion(move)
+                ? String.valueOf(Character.toLowerCase(Pieces.toFenChar(Moves.promotionType(move))))
+                : "";
+        gameMaster.processInput(toPosition(from), toPosition(to), promotion);
+    }
+}
@@ -6,27 +6,32 @@ import at.chess.chesssimulator.board.Position;
 import at.chess.chesssimulator.board.enums.MoveType;
 import at.chess.chesssimulator.board.utils.PositionUtils;
 import at.chess.chesssimulator.gamelogic.command.*;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
 import at.chess.chesssimulator.piece.ChessPiece;
 import at.chess.chesssimulator.piece.enums.PieceColor;
 import at.chess.chesssimulator.piece.enums.PieceType;
 import at.chess.chesssimulator.piece.movement.KingMovementStrategy;
 import at.chess.chesssimulator.piece.movement.PawnMovementStrategy;
+import at.chess.chesssimulator.rules.DrawReason;
 import at.chess.chesssimulator.utils.FenNotation;
 import javafx.scene.image.Image;
 import lombok.Getter;
 import lombok.Setter;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Stack;
 
 import static at.chess.chesssimulator.board.enums.MoveType.CHECK;
-import static at.chess.chesssimulator.board.utils.PositionUtils.sameCoordinates;
 import static at.chess.chesssimulator.piece.enums.PieceType.KING;
-import static at.chess.chesssimulator.piece.enums.PieceType.ROOK;
 import static at.chess.chesssimulator.piece.movement.MovementStrategyRegistry.getStrategy;
 
 public class GameMaster {
 
+    protected static final Logger logger = LoggerFactory.getLogger(GameMaster.class);
+
+    @Getter
     @Setter
     private ChessBoard chessBoard;
     private Player blackPlayer;
@@ -35,25 +40,29 @@ public class GameMaster {
     private PieceColor turn = PieceColor.WHITE;
     @Getter
     private Stack<Command> commandHistory = new Stack<>();
-    private boolean inCheck;
+
+    /** Why the game ended in a draw, or {@code null} while it goes on; no moves are accepted after a draw. */
+    @Getter
+    private DrawReason drawReason;
 
     public GameMaster(Player blackPlayer, Player whitePlayer) {
         this(new FenNotation(), blackPlayer, whitePlayer);
     }
 
     public GameMaster(FenNotation gameState, Player blackPlayer, Player whitePlayer) {
-        this.chessBoard = ChessBoard.getInstance();
+        this.chessBoard = new ChessBoard();
         this.blackPlayer = blackPlayer;
         this.whitePlayer = whitePlayer;
         this.chessBoard.loadBoard(gameState);
-        this.inCheck = false;
     }
 
     public void startGame() {
 
+        stopPlayers();
         this.blackPlayer.updateBoard();
         this.whitePlayer.updateBoard();
         this.turn = chessBoard.getTurn();
+        this.drawReason = null;
 
         if (turn == PieceColor.WHITE) {
             whitePlayer.notifyTurn(PieceColor.WHITE);
@@ -62,13 +71,20 @@ public class GameMaster {
         }
     }
 
+    /**
+     * Checks whether moving the piece on {@code originalPosition} to {@code newPosition} is legal for the side to move.
+     * <p>
+     * Legality is decided by the core's legal move generator, so moves that block a check or capture the checking
+     * piece are accepted, while moves of pinned pieces off their pin line and moves into check are rejected.
+     * </p>
+     *
+     * @param originalPosition The {@code Position} the piece moves from.
+     * @param newPosition      The {@code Position} the piece moves to; the own rook for castling.
+     * @return {@code true} if the move is legal and the game is not drawn.
+     */
     public boolean validateMove(Position originalPosition, Position newPosition) {
 
-        if ( this.inCheck && chessBoard.getPieceAt(originalPosition).getType() != KING ) {
-            return false;
-        }
-
-        if (!chessBoard.isOccupied(originalPosition)) {
+        if (drawReason != null || !chessBoard.isOccupied(originalPosition)) {
             return false;
         }
 
@@ -78,23 +94,7 @@ public class GameMaster {
             return false;
         }
 
-        if(newPosition.containsPiece()) {
-            if (chessBoard.getPieceAt(originalPosition).getType() == KING
-                && chessBoard.getPieceAt(newPosition).getType() == ROOK) {
-
-                KingMovementStrategy strategy = (KingMovementStrategy) getStrategy(KING);
-
-                if (strategy.canQueenSideCastle(newPosition)) {
-                    return true;
-                } else if (strategy.canKingSideCastle(newPosition)) {
-                    return true;
-                }
-            }
-        }
-
-
-        return  getStrategy(piece.getType()).canCapture(piecePosition, newPosition) ||
-                getStrategy(piece.getType()).canMove(piecePosition, newPosition);
+        return chessBoard.findMove(piecePosition, newPosition) != Moves.NONE;
     }
 
     public void makeMove(Move move) {
@@ -106,6 +106,10 @@ public class GameMaster {
             return;
         }
 
+        if (move.getEncodedMove() == Moves.NONE) {
+            move.setEncodedMove(chessBoard.findMove(originalPosition, move.getNewPosition()));
+        }
+
         Command command = switch (move.getMoveType()) {
             case MOVE -> new MoveCommand(chessBoard, move);
             case CAPTURE -> new CaptureCommand(chessBoard, move);
@@ -123,6 +127,9 @@ public class GameMaster {
         }
 
         command.execute();
+        if (move.getMoveType() == MoveType.PROMOTE) {
+            chessBoard.setCheck(chessBoard.getCore().inCheck());
+        }
         commandHistory.push(command);
     }
 
@@ -144,8 +151,21 @@ public class GameMaster {
         return piece != null ? piece.getImage() : null;
     }
 
+    /**
+     * Redraws the boards of both players, e.g. after a move that was not entered on a board.
+     */
+    public void updatePlayers() {
+        blackPlayer.updateBoard();
+        whitePlayer.updateBoard();
+    }
+
     public void endTurn() {
         turn = PieceColor.getOppositeColor(turn);
+        if (drawReason != null) {
+            // The game is over, nobody is asked to move any more
+            chessBoard.setTurn(turn);
+            return;
+        }
         if (turn == PieceColor.WHITE) {
             whitePlayer.notifyTurn(PieceColor.WHITE);
         } else {
@@ -155,9 +175,21 @@ public class GameMaster {
     }
 
     public void processInput(Position originalPosition, Position newPosition) {
+        processInput(originalPosition, newPosition, "");
+    }
+
+    /**
+     * Validates and plays a move of the active player and reports the result back to that player.
+     *
+     * @param originalPosition The {@code Position} the piece moves from.
+     * @param newPosition      The {@code Position} the piece moves to; the own rook for castling.
+     * @param promotion        The promotion piece as lower case letter (e.g. {@code "q"}), or an empty string to let
+     *                         the player choose when the move turns out to be a promotion.
+     */
+    public void processInput(Position originalPosition, Position newPosition, String promotion) {
 
-        originalPosition = PositionUtils.loadAndCopyPosition(originalPosition);
-        newPosition = PositionUtils.loadAndCopyPosition(newPosition);
+        originalPosition = PositionUtils.loadAndCopyPosition(chessBoard, originalPosition);
+        newPosition = PositionUtils.loadAndCopyPosition(chessBoard, newPosition);
 
         if (!validateMove(originalPosition, newPosition)) {
             Move move = new Move(originalPosition, newPosition, MoveType.INVALID);
@@ -172,18 +204,18 @@ public class GameMaster {
             return;
         }
 
-        Move move = null;
-
+        int encodedMove = chessBoard.findMove(originalPosition, newPosition);
+        MoveType type;
         if (piece.getType() == KING) {
 
             KingMovementStrategy kingStrategy = (KingMovementStrategy) getStrategy(KING);
 
-            if (kingStrategy.canQueenSideCastle(newPosition)) {
-                move = new Move(originalPosition, newPosition, MoveType.QCASTLING);
-            } else if (kingStrategy.canKingSideCastle(newPosition)) {
-                move = new Move(originalPosition, newPosition, MoveType.KCASTLING);
+            if (kingStrategy.canQueenSideCastle(chessBoard, newPosition)) {
+                type = MoveType.QCASTLING;
+            } else if (kingStrategy.canKingSideCastle(chessBoard, newPosition)) {
+                type = MoveType.KCASTLING;
             } else {
-                move = new Move(originalPosition, newPosition, MoveType.MOVE);
+                type = MoveType.MOVE;
             }
 
         } else if (piece.getType() == PieceType.PAWN) {
@@ -191,57 +223,76 @@ public class GameMaster {
             PawnMovementStrategy pawnStrategy = (PawnMovementStrategy) getStrategy(piece.getType());
 
             // Check for pawn promotion first
-            if (pawnStrategy.canPromote(originalPosition, newPosition)) {
-                move = new Move(originalPosition, newPosition, MoveType.PROMOTE);
-            } else if (getStrategy(piece.getType()).canCapture(originalPosition, newPosition)) {
-                move = new Move(originalPosition, newPosition, MoveType.CAPTURE);
-
-                // Check if the capture results in a check
-                if (isCheck(piece, newPosition)) {
-                    move = new Move(originalPosition, newPosition, MoveType.CHECK);
-                }
-
-            } else if (getStrategy(piece.getType()).canMove(originalPosition, newPosition)) {
-
-                // Check if the pawn is moving diagonally and checking the king
-                if (isCheck(piece, newPosition)) {
-                    move = new Move(originalPosition, newPosition, MoveType.CHECK);
-                } else {
-                    move = new Move(originalPosition, newPosition, MoveType.MOVE);
-                }
-            }
-
-        } else if (getStrategy(piece.getType()).canCapture(originalPosition, newPosition)) {
-            move = new Move(originalPosition, newPosition, MoveType.CAPTURE);
-        } else if (getStrategy(piece.getType()).canMove(originalPosition, newPosition)) {
-
-            if (isCheckmate(originalPosition.getPiece(), newPosition)) {
-                move = new Move(originalPosition, newPosition, MoveType.CHECKMATE);
-            } else if (isCheck(originalPosition.getPiece(), newPosition)) {
-                move = new Move(originalPosition, newPosition, MoveType.CHECK);
+            if (pawnStrategy.canPromote(chessBoard, originalPosition, newPosition)) {
+                type = MoveType.PROMOTE;
+            } else if (getStrategy(piece.getType()).canCapture(chessBoard, originalPosition, newPosition)) {
+                type = MoveType.CAPTURE;
+            } else if (getStrategy(piece.getType()).canMove(chessBoard, originalPosition, newPosition)) {
+                type = MoveType.MOVE;
             } else {
-                move = new Move(originalPosition, newPosition, MoveType.MOVE);
+                // A legal diagonal move onto an empty square is an en-passant capture
+                type = MoveType.CAPTURE;
             }
 
+        } else if (getStrategy(piece.getType()).canCapture(chessBoard, originalPosition, newPosition)) {
+            type = MoveType.CAPTURE;
+        } else if (getStrategy(piece.getType()).canMove(chessBoard, originalPosition, newPosition)) {
+            type = MoveType.MOVE;
         } else {
-            move = new Move(originalPosition, newPosition, MoveType.INVALID);
+            type = MoveType.INVALID;
         }
 
+        // Any move can check or mate; the piece of a promotion is only chosen when it is played, see makeMove
+        if (type != MoveType.INVALID && type != MoveType.PROMOTE) {
+            if (isCheckmate(encodedMove)) {
+                type = MoveType.CHECKMATE;
+            } else if (isCheck(encodedMove)) {
+                type = MoveType.CHECK;
+            }
+        }
+        Move move = new Move(originalPosition, newPosition, type);
 
         if (move.getMoveType() != MoveType.INVALID) {
+
+            move.setEncodedMove(encodedMove);
+            if (move.getMoveType() == MoveType.PROMOTE) {
+                move.setExtraData(promotion);
+            }
             makeMove(move);
+            if (move.getMoveType() != MoveType.CHECKMATE) {
+                drawReason = chessBoard.getDrawReason();
+                if (drawReason != null) {
+                    logger.info("Game drawn by {}", drawReason.getDescription());
+                }
+            }
+            if (isGameOver()) {
+                stopPlayers();
+            }
             getActivePlayer().receiveMoveResult(move);
        }
     }
 
-    private boolean isCheckmate(ChessPiece piece, Position piecePosition) {
-        PieceType kingType = chessBoard.getKingPosition(turn).getPiece().getType();
-        return ((KingMovementStrategy) getStrategy(kingType)).isCheckmate(piece, piecePosition);
+    /**
+     * Checks whether the game has ended by checkmate or a draw.
+     *
+     * @return {@code true} if the side to move can no longer move or the game is drawn.
+     */
+    public boolean isGameOver() {
+        return drawReason != null
+                || !MoveGenerator.hasLegalMove(chessBoard.getCore(), new int[MoveGenerator.MAX_MOVES]);
     }
 
-    private boolean isCheck(ChessPiece piece, Position piecePosition) {
-        PieceType kingType = chessBoard.getKingPosition(turn).getPiece().getType();
-        return ((KingMovementStrategy) getStrategy(kingType)).isCheck(piece, piecePosition);
+    private void stopPlayers() {
+        whitePlayer.stopThinking();
+        blackPlayer.stopThinking();
+    }
+
+    private boolean isCheckmate(int encodedMove) {
+        return chessBoard.givesCheckmate(encodedMove);
+    }
+
+    private boolean isCheck(int encodedMove) {
+        return chessBoard.givesCheck(encodedMove);
     }
 
     public boolean isTileIndicator(Position pos) {
@@ -256,9 +307,7 @@ public class GameMaster {
 
         Position pos = chessBoard.getPosition(selectedPosition);
         chessBoard.selectPosition(pos);
-        getStrategy(pos.getPiece().getType())
-            .getPossibleMoves(pos)
-            .forEach(p -> chessBoard.toggleIndicator(p));
+        chessBoard.getLegalTargets(pos).forEach(p -> chessBoard.toggleIndicator(p));
     }
 
     public void resetTile() {
@@ -269,24 +318,17 @@ public class GameMaster {
         return chessBoard.getPosition(pos).isInCheck();
     }
 
-    public boolean amIInCheck(PieceColor turn) {
-        return chessBoard.isInCheck() && chessBoard.getTurn() == turn;
-    }
-
-    public boolean isMyKing(Position clickedPosition) {
-        return sameCoordinates(chessBoard.getKingPosition(turn), clickedPosition);
-    }
-
     public void undoMove() {
         if (commandHistory.isEmpty()) {
             return;
         }
 
+        stopPlayers();
         Command command = commandHistory.pop();
         command.undo();
+        drawReason = null;
 
         if (command instanceof CheckCommand) {
-            this.inCheck = false;
             chessBoard.setInCheck(false);
         }
         getActivePlayer().updateBoard();
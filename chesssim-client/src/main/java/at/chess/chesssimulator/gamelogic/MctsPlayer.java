@@ -0,0 +1,156 @@
+package at.chess.chesssimulator.gamelogic;
+
+import at.chess.chesssimulator.board.Move;
+import at.chess.chesssimulator.board.Position;
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.enums.MoveType;
+import at.chess.chesssimulator.engine.ClassicalEvaluator;
+import at.chess.chesssimulator.engine.MctsSearch;
+import at.chess.chesssimulator.engine.SearchLimits;
+import at.chess.chesssimulator.engine.SearchResult;
+import at.chess.chesssimulator.engine.TimeManager;
+import at.chess.chesssimulator.piece.enums.PieceColor;
+import javafx.application.Platform;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A computer opponent backed by the core's {@link MctsSearch}, the Monte-Carlo counterpart of
+ * {@link EnginePlayer}.
+ * <p>
+ * The search is started from a virtual thread and runs its workers on virtual threads as well, so the JavaFX
+ * application thread stays responsive. The most visited move is played on the application thread like a move
+ * made on the board, unless the game was rewound or restarted while searching.
+ * </p>
+ * <p>
+ * The search does not iterate by depth, so every search needs a time or node budget.
+ * </p>
+ */
+public class MctsPlayer implements Player {
+
+    protected static final Logger logger = LoggerFactory.getLogger(MctsPlayer.class);
+
+    @Getter
+    private final PieceColor color;
+
+    @Getter
+    private SearchLimits limits;
+
+    @Setter
+    private GameMaster gameMaster;
+
+    private final MctsSearch search = new MctsSearch(ClassicalEvaluator::new,
+            Runtime.getRuntime().availableProcessors(), MctsSearch.DEFAULT_BATCH);
+
+    /** Counts the calls of {@link #stopThinking()}; a search started before the last call is stale. */
+    private volatile int generation;
+
+    /** The time manager of the running or last search, which {@link #stopThinking()} aborts. */
+    private volatile TimeManager searchTime;
+
+    /** Runs one search at a time, since the search object keeps the state of the running search. */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().factory());
+
+    /**
+     * Creates a computer player.
+     *
+     * @param color  The color the engine plays.
+     * @param limits The time and node limits of every search.
+     * @throws IllegalArgumentException if the limits have neither a time nor a node budget.
+     */
+    public MctsPlayer(PieceColor color, SearchLimits limits) {
+        this.color = color;
+        setLimits(limits);
+    }
+
+    /**
+     * Changes the limits of the following searches.
+     *
+     * @param limits The new limits; a depth limit alone would let the search run forever.
+     * @throws IllegalArgumentException if the limits have neither a time nor a node budget.
+     */
+    public void setLimits(SearchLimits limits) {
+        if (!limits.hasClock() && limits.getMoveTimeMillis() == SearchLimits.UNLIMITED
+                && limits.getNodes() == SearchLimits.UNLIMITED) {
+            throw new IllegalArgumentException("MCTS needs a time or node budget: " + limits);
+        }
+        this.limits = limits;
+    }
+
+    @Override
+    public void notifyTurn(PieceColor turn) {
+        if (turn != color) {
+            return;
+        }
+
+        BitboardPosition position = gameMaster.getChessBoard().getCore().copy();
+        int searched = generation;
+        executor.execute(() -> {
+            SearchLimits current = limits;
+            TimeManager timeManager = new TimeManager(current);
+            // Published before the check, so a later stopThinking() either is seen here or aborts this search
+            searchTime = timeManager;
+            if (searched != generation) {
+                return;
+            }
+            SearchResult result = search.search(position, current, timeManager);
+            if (searched != generation) {
+                logger.info("MCTS engine ({}) discards its search of a position that was left", color);
+                return;
+            }
+            logger.info("MCTS engine ({}) searched {}", color, result);
+            Platform.runLater(() -> {
+                if (searched == generation) {
+                    EnginePlayer.play(gameMaster, color, result.getBestMove());
+                }
+            });
+        });
+    }
+
+    @Override
+    public void receiveMoveResult(Move move) {
+        if (move.getMoveType() == MoveType.INVALID) {
+            logger.error("MCTS engine move {} was rejected", move);
+            return;
+        }
+
+        logger.info("MCTS engine ({}) played {}", color, move);
+        gameMaster.endTurn();
+        gameMaster.updatePlayers();
+    }
+
+    @Override
+    public void updateBoard() {
+    }
+
+    @Override
+    public void sendMove(Position origin, Position target) {
+        gameMaster.processInput(origin, target);
+    }
+
+    /**
+     * Aborts the running search and discards its result, whose position can no longer come up.
+     */
+    @Override
+    public void stopThinking() {
+        generation++;
+        TimeManager running = searchTime;
+        if (running != null) {
+            running.abort();
+        }
+        search.stop();
+    }
+
+    /**
+     * Aborts a running search. The player must not be used afterwards.
+     */
+    public void shutdown() {
+        stopThinking();
+        executor.shutdownNow();
+    }
+}
@@ -9,4 +9,12 @@ public interface Player {
     void receiveMoveResult(Move move);
     void updateBoard();
     void sendMove(Position origin, Position target);
+
+    /**
+     * Called when the game ends, a move is taken back or the game restarts, so a player thinking ahead on the
+     * other player's time can stop; the player is notified again with {@link #notifyTurn(PieceColor)} if the game
+     * goes on.
+     */
+    default void stopThinking() {
+    }
 }
\ No newline at end of file
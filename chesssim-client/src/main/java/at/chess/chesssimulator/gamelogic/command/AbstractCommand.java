@@ -8,7 +8,11 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@code AbstractCommand} class serves as a base class for specific commands in the chess game.
  * It implements the {@code Command} interface and provides a base implementation for executing and undoing commands.
- * The actual logic for executing and undoing commands should be provided by subclasses.
+ * <p>
+ * Executing plays the encoded move of the {@link Move} on the chessboard, undoing takes back the last move.
+ * The board keeps the state needed for that on its own undo stack, so commands do not copy any pieces.
+ * Subclasses only add side effects like check markers or the promotion dialog.
+ * </p>
  */
 public class AbstractCommand implements Command {
 
@@ -33,21 +37,19 @@ public class AbstractCommand implements Command {
     }
 
     /**
-     * Executes the command. This method should be overridden in subclasses to define the action.
-     * In this base class, it is a stub and does nothing.
+     * Executes the command by playing the encoded move on the chessboard.
      */
     @Override
     public void execute() {
-        // stub, overwrite this in implementation
+        chessBoard.makeMove(move.getEncodedMove());
     }
 
     /**
-     * Undoes the command. This method should be overridden in subclasses to define the undo action.
-     * In this base class, it is a stub and does nothing.
+     * Undoes the command by taking back the last move played on the chessboard.
      */
     @Override
     public void undo() {
-        // stub, overwrite this in implementation
+        chessBoard.unmakeMove();
     }
 
     /**
@@ -12,19 +12,13 @@ public class CheckCommand extends AbstractCommand{
 
     @Override
     public void execute() {
-        chessBoard.movePiece(move.getOriginalPosition(), move.getNewPosition());
+        super.execute();
         chessBoard.setCheck(true);
     }
 
     @Override
     public void undo() {
-
-        chessBoard.movePiece(move.getNewPosition(), move.getOriginalPosition());
-
-        // it is possible to capture when placing a check so we need to check for that as well
-        if(move.getNewPosition().getPiece() != null) {
-            chessBoard.placePiece(move.getNewPosition(), move.getNewPosition().getPiece());
-        }
+        super.undo();
         PieceColor turn = chessBoard.getTurn();
         chessBoard.getPosition(chessBoard.getKingPosition(turn)).setInCheck(false);
     }
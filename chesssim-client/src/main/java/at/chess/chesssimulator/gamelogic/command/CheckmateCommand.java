@@ -13,7 +13,7 @@ public class CheckmateCommand extends AbstractCommand {
     @Override
     public void execute() {
         PieceColor loser = PieceColor.getOppositeColor(chessBoard.getTurn());
-        chessBoard.movePiece(move.getOriginalPosition(), move.getNewPosition());
+        super.execute();
         chessBoard.getKingPosition(loser).setInCheck(true);
 
         logger.info("Checkmate! Player {} wins!", move.getOriginalPosition().getPiece().getColor());
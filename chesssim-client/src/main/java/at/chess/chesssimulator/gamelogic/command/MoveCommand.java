@@ -8,15 +8,4 @@ public class MoveCommand extends AbstractCommand {
     public MoveCommand(ChessBoard chessBoard, Move move) {
         super(chessBoard, move);
     }
-
-    @Override
-    public void execute() {
-        chessBoard.movePiece(move.getOriginalPosition(), move.getNewPosition());
-    }
-
-    @Override
-    public void undo() {
-        chessBoard.clearPosition(move.getNewPosition());
-        chessBoard.placePiece(move.getOriginalPosition(), move.getOriginalPosition().getPiece());
-    }
-}
\ No newline at end of file
+}
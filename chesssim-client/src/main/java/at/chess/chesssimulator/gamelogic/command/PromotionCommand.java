@@ -3,6 +3,7 @@ package at.chess.chesssimulator.gamelogic.command;
 import at.chess.chesssimulator.board.ChessBoard;
 import at.chess.chesssimulator.board.Move;
 import at.chess.chesssimulator.controller.popup.PromotionPopup;
+import at.chess.chesssimulator.movegen.Moves;
 import at.chess.chesssimulator.piece.ChessPiece;
 import at.chess.chesssimulator.piece.enums.PieceType;
 
@@ -15,24 +16,23 @@ public class PromotionCommand extends AbstractCommand {
     @Override
     public void execute() {
 
-        ChessPiece pawn = move.getOriginalPosition().getPiece();
+        // Only ask for the piece if the move does not carry it already (e.g. a move received from the network)
+        String extraData = move.getExtraData();
+        if (extraData == null || extraData.isEmpty()) {
+            ChessPiece pawn = move.getOriginalPosition().getPiece();
 
-        PromotionPopup promotionPopup = new PromotionPopup();
-        promotionPopup.setInitialState(pawn.getColor());
-        String selectedPiece = promotionPopup.showPromotionPopup();
+            PromotionPopup promotionPopup = new PromotionPopup();
+            promotionPopup.setInitialState(pawn.getColor());
+            String selectedPiece = promotionPopup.showPromotionPopup();
 
-        char pieceType = selectedPiece.equals("Knight") ? selectedPiece.toLowerCase().charAt(1) : selectedPiece.toLowerCase().charAt(0);
-        ChessPiece piece = ChessPiece.generateChessPiece(pawn.getColor(), PieceType.getPieceType(pieceType));
-        chessBoard.clearPosition(move.getOriginalPosition());
-        chessBoard.placePiece(move.getNewPosition(), piece);
+            char pieceType = selectedPiece.equals("Knight") ? selectedPiece.toLowerCase().charAt(1) : selectedPiece.toLowerCase().charAt(0);
+            move.setExtraData("" + pieceType);
+        }
 
-        move.setExtraData("" + pieceType);
-    }
-
-    @Override
-    public void undo() {
-        chessBoard.clearPosition(move.getNewPosition());
-        chessBoard.placePiece(move.getNewPosition(), move.getNewPosition().getPiece());
-        chessBoard.placePiece(move.getOriginalPosition(), move.getOriginalPosition().getPiece());
+        int type = PieceType.getPieceType(move.getExtraData().charAt(0)).toBitboardType();
+        int encodedMove = move.getEncodedMove();
+        move.setEncodedMove(Moves.encode(Moves.from(encodedMove), Moves.to(encodedMove),
+                                         Moves.promotionFlags(type, Moves.isCapture(encodedMove))));
+        super.execute();
     }
 }
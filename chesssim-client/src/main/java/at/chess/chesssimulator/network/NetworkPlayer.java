@@ -2,9 +2,13 @@ package at.chess.chesssimulator.network;
 
 import at.chess.chesssimulator.board.Move;
 import at.chess.chesssimulator.board.Position;
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
 import at.chess.chesssimulator.board.enums.MoveType;
+import at.chess.chesssimulator.gamelogic.EnginePlayer;
 import at.chess.chesssimulator.gamelogic.GameMaster;
 import at.chess.chesssimulator.gamelogic.Player;
+import at.chess.chesssimulator.movegen.Moves;
+import at.chess.chesssimulator.notation.Notation;
 import at.chess.chesssimulator.piece.enums.PieceColor;
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
@@ -19,16 +23,34 @@ import java.util.function.Consumer;
 
 import static at.chess.chesssimulator.utils.AlertUtil.showError;
 
+/**
+ * The opponent of an online game, playing on another client behind the server.
+ * <p>
+ * Moves are exchanged as text lines: when the opponent is on turn, the moves played on this board since the last
+ * exchange are sent as {@code MAKE_MOVE <uci>}. The server checks legality and turn, forwards the line to the
+ * opponent's client and answers an illegal move with {@code RECIEVE_MOVE_RESULT INVALID}. The opponent's moves
+ * arrive the same way and are played on the board through {@link GameMaster#processInput}.
+ * </p>
+ */
 public class NetworkPlayer implements Player {
 
     private static final Logger logger = LoggerFactory.getLogger(NetworkPlayer.class);
 
+    private static final String MAKE_MOVE = "MAKE_MOVE";
+
+    private static final String MOVE_RESULT = "RECIEVE_MOVE_RESULT";
+
     private Socket socket;
     private PrintWriter writer;
     private BufferedReader reader;
     @Setter
     private GameMaster gameMaster;
 
+    /** The plies of the game both clients know about; only accessed on the application thread. */
+    private int syncedPlies;
+
+    private Thread listener;
+
     public boolean connectToServer(String host, int port, int timeoutMillis, String username) {
         try {
             socket = new Socket();
@@ -48,40 +70,57 @@ public class NetworkPlayer implements Player {
     public void sendCommand(String command) {
         if (writer != null) {
             writer.println(command);
-            listenForResponse();
         }
     }
 
-    public void sendMove(Move move) {
-        try {
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(socket.getOutputStream());
-            objectOutputStream.writeObject(move);
-            objectOutputStream.flush();
-            logger.info("Sent move: {}", move);
-        } catch (IOException e) {
-            logger.error("Error sending move object: {}", e.getMessage());
+    /**
+     * Sends the moves played on this board that the server does not know yet.
+     */
+    private void sendPendingMoves() {
+        BitboardPosition core = gameMaster.getChessBoard().getCore();
+        while (syncedPlies < core.getHistoryLength()) {
+            String uci = Moves.toUci(core.moveAt(syncedPlies++));
+            sendCommand(MAKE_MOVE + " " + uci);
+            logger.info("Sent move: {}", uci);
         }
     }
 
-    public void listenForResponse() {
-        new Thread(() -> {
-            try {
-
-                ObjectInputStream objectInputStream = new ObjectInputStream(socket.getInputStream());
-                Move move = (Move) objectInputStream.readObject();
-
-                logger.info("Received move: {}", move);
-
-                if (move.getMoveType() != null) {
-                    logger.info("Move Type: {}", move.getMoveType());
+    /**
+     * Reads the opponent's moves and the server's answers until the connection closes.
+     */
+    private void listenForMoves() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                logger.info("Received from server: {}", line);
+                String[] parts = line.trim().split(" ");
+                if (parts[0].equals(MAKE_MOVE) && parts.length > 1) {
+                    String uci = parts[1];
+                    Platform.runLater(() -> playMove(uci));
+                } else if (parts[0].equals(MOVE_RESULT)) {
+                    Platform.runLater(() -> showError("Move rejected", "The server rejected the last move."));
                 }
-
-                Platform.runLater(() -> this.receiveMoveResult(move));
-
-            } catch (IOException | ClassNotFoundException e) {
-                logger.error("Error receiving move object: {}", e.getMessage());
             }
-        }).start();
+        } catch (IOException e) {
+            logger.error("Error receiving moves: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Plays a move of the opponent on the board; runs on the application thread.
+     */
+    private void playMove(String uci) {
+        BitboardPosition core = gameMaster.getChessBoard().getCore();
+        int move;
+        try {
+            move = Notation.parseUci(core, uci);
+        } catch (IllegalArgumentException e) {
+            logger.error("Received illegal move {}: {}", uci, e.getMessage());
+            return;
+        }
+        // The server knows the move already; a move that ends the game must not be sent back from stopThinking
+        syncedPlies = core.getHistoryLength() + 1;
+        EnginePlayer.play(gameMaster, gameMaster.getTurn(), move);
     }
 
     public void waitingForGameStart(Alert waitingAlert, Consumer<PieceColor> onGameStartWithColor) {
@@ -123,15 +162,32 @@ public class NetworkPlayer implements Player {
 
     @Override
     public void notifyTurn(PieceColor turn) {
-        this.sendCommand("NOTIFY_TURN " + turn);
-        listenForResponse();
+        if (listener == null) {
+            listener = new Thread(this::listenForMoves, "network-player");
+            listener.setDaemon(true);
+            listener.start();
+        }
+        sendPendingMoves();
     }
 
     @Override
     public void receiveMoveResult(Move move) {
-        if (move.getMoveType() != MoveType.INVALID) {
-            this.sendMove(move);
-            gameMaster.endTurn();
+        syncedPlies = gameMaster.getChessBoard().getCore().getHistoryLength();
+        if (move.getMoveType() == MoveType.INVALID) {
+            logger.error("Opponent move {} was rejected", move);
+            return;
+        }
+        gameMaster.endTurn();
+        gameMaster.updatePlayers();
+    }
+
+    /**
+     * Sends the move that ended the game, since nobody is notified of a turn after it.
+     */
+    @Override
+    public void stopThinking() {
+        if (gameMaster != null && gameMaster.isGameOver()) {
+            sendPendingMoves();
         }
     }
 
@@ -1,11 +1,11 @@
 package at.chess.chesssimulator.piece;
 
+import at.chess.chesssimulator.board.bitboard.Pieces;
 import at.chess.chesssimulator.piece.enums.PieceColor;
 import at.chess.chesssimulator.piece.enums.PieceType;
 import at.chess.chesssimulator.utils.PngLoader;
 import javafx.scene.image.Image;
 import lombok.Getter;
-import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,9 +15,13 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The class provides methods for generating a chess piece and determining its possible movements based on its type.
  * </p>
+ * <p>
+ * Pieces are immutable; whether a piece has moved is tracked by the board core (castling rights, pawn ranks),
+ * so instances can be shared between squares and positions.
+ * </p>
  */
 @Getter
-public class ChessPiece implements Cloneable {
+public class ChessPiece {
 
     protected static final Logger logger = LoggerFactory.getLogger(ChessPiece.class);
 
@@ -30,10 +34,6 @@ public class ChessPiece implements Cloneable {
     /** The type of the chess piece (e.g., pawn, rook, etc.). */
     private final PieceType type;
 
-    /** Defines if a piece has taken a move (needed for castling / pawn double move). */
-    @Setter
-    private boolean firstMove;
-
     /**
      * Constructs a chess piece with the specified properties.
      *
@@ -45,7 +45,6 @@ public class ChessPiece implements Cloneable {
         this.image = image;
         this.color = color;
         this.type = type;
-        this.firstMove = true;
     }
 
     /**
@@ -69,21 +68,11 @@ public class ChessPiece implements Cloneable {
 
 
     /**
-     * Creates and returns a copy of this chess piece.
-     * <p>
-     * The method performs a shallow copy of the chess piece, meaning that the piece's fields are copied as-is.
-     * This includes the image, movement strategy, color, and type.
-     * </p>
+     * Returns the primitive piece code of this piece as used by the bitboard core.
      *
-     * @return A clone of this chess piece.
-     * @throws AssertionError If the cloning operation is not supported.
+     * @return The piece code, see {@link Pieces}.
      */
-    @Override
-    public ChessPiece clone() {
-        try {
-            return (ChessPiece) super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new AssertionError(); // Can't happen
-        }
+    public int getPieceCode() {
+        return Pieces.make(color.toBitboardColor(), type.toBitboardType());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package at.chess.chesssimulator.piece.enums;
 
+import at.chess.chesssimulator.board.bitboard.Pieces;
+
 /**
  * Enum representing the color of a chess piece, either {@link #BLACK} or {@link #WHITE}.
  */
@@ -57,4 +59,23 @@ public enum PieceColor {
             default -> throw new IllegalStateException("Unexpected value: " + colorName);
         };
     }
+
+    /**
+     * Returns the color index used by the bitboard core ({@link Pieces#WHITE} / {@link Pieces#BLACK}).
+     *
+     * @return The bitboard color index.
+     */
+    public int toBitboardColor() {
+        return this == WHITE ? Pieces.WHITE : Pieces.BLACK;
+    }
+
+    /**
+     * Returns the {@code PieceColor} for a color index of the bitboard core.
+     *
+     * @param color {@link Pieces#WHITE} or {@link Pieces#BLACK}.
+     * @return The corresponding {@code PieceColor}.
+     */
+    public static PieceColor fromBitboardColor(int color) {
+        return color == Pieces.WHITE ? WHITE : BLACK;
+    }
 }
@@ -1,5 +1,7 @@
 package at.chess.chesssimulator.piece.enums;
 
+import at.chess.chesssimulator.board.bitboard.Pieces;
+
 /**
  * Enum representing the different types of chess pieces.
  * <p>
@@ -63,4 +65,39 @@ public enum PieceType {
             default -> throw new IllegalStateException("Unexpected value: " + type);
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the piece type index used by the bitboard core (see {@link Pieces}).
+     *
+     * @return The bitboard piece type index.
+     */
+    public int toBitboardType() {
+        return switch(this) {
+            case PAWN -> Pieces.PAWN;
+            case KNIGHT -> Pieces.KNIGHT;
+            case BISHOP -> Pieces.BISHOP;
+            case ROOK -> Pieces.ROOK;
+            case QUEEN -> Pieces.QUEEN;
+            case KING -> Pieces.KING;
+        };
+    }
+
+    /**
+     * Returns the {@code PieceType} for a piece type index of the bitboard core.
+     *
+     * @param type The bitboard piece type index.
+     * @return The corresponding {@code PieceType}.
+     * @throws IllegalStateException if the index does not denote a piece type.
+     */
+    public static PieceType fromBitboardType(int type) {
+        return switch(type) {
+            case Pieces.PAWN -> PAWN;
+            case Pieces.KNIGHT -> KNIGHT;
+            case Pieces.BISHOP -> BISHOP;
+            case Pieces.ROOK -> ROOK;
+            case Pieces.QUEEN -> QUEEN;
+            case Pieces.KING -> KING;
+            default -> throw new IllegalStateException("Unexpected value: " + type);
+        };
+    }
+}
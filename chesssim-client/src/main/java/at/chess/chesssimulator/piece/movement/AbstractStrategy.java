@@ -6,35 +6,29 @@ import at.chess.chesssimulator.piece.enums.PieceColor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static at.chess.chesssimulator.board.utils.PositionUtils.sameCoordinates;
+import static at.chess.chesssimulator.board.utils.PositionUtils.toSquare;
 
 /**
  * The {@code AbstractStrategy} class provides a base implementation for the movement strategies of chess pieces.
  * It implements common logic for determining whether a piece can move or capture on the chessboard.
  * Concrete piece movement strategies should extend this class and define their specific movement logic.
+ * Strategies hold no board reference; the board is a parameter of every method.
  */
 public abstract class AbstractStrategy implements MovementStrategy {
 
     protected static final Logger logger = LoggerFactory.getLogger(AbstractStrategy.class);
-    protected final ChessBoard chessBoard;
-
-    /**
-     * Constructor to initialize the chess board instance.
-     */
-    public AbstractStrategy() {
-        this.chessBoard = ChessBoard.getInstance();
-    }
 
     /**
      * Checks if a piece can move from its current position to a new position.
      * A move is valid if the new position is not occupied by another piece.
      *
+     * @param chessBoard The chessboard the piece stands on
      * @param piecePosition The current position of the piece on the chessboard
      * @param newPosition The target position where the piece is attempting to move
      * @return {@code true} if the piece can move to the new position, {@code false} otherwise
      */
     @Override
-    public boolean canMove(Position piecePosition, Position newPosition) {
+    public boolean canMove(ChessBoard chessBoard, Position piecePosition, Position newPosition) {
 
         if (chessBoard.isOccupied(newPosition)) {
             return false;
@@ -42,19 +36,20 @@ public abstract class AbstractStrategy implements MovementStrategy {
 
         Position boardPiece = chessBoard.getPosition(piecePosition);
 
-        return getPossibleMoves(boardPiece).stream().anyMatch(pos -> sameCoordinates(pos, newPosition));
+        return (getTargets(chessBoard, boardPiece) & (1L << toSquare(newPosition))) != 0;
     }
 
     /**
      * Checks if a piece can capture an opponent's piece at a given position.
      * A capture is valid if the target position is occupied by an opponent's piece.
      *
+     * @param chessBoard The chessboard the piece stands on
      * @param piecePosition The current position of the piece on the chessboard
      * @param capturePosition The position where the opponent's piece is located
      * @return {@code true} if the piece can capture the opponent's piece, {@code false} otherwise
      */
     @Override
-    public boolean canCapture(Position piecePosition, Position capturePosition) {
+    public boolean canCapture(ChessBoard chessBoard, Position piecePosition, Position capturePosition) {
 
         if (!chessBoard.isOccupied(capturePosition)) {
             return false;
@@ -67,6 +62,26 @@ public abstract class AbstractStrategy implements MovementStrategy {
             return false;
         }
 
-        return getPossibleMoves(piecePosition).stream().anyMatch(pos -> sameCoordinates(pos, capturePosition));
+        return (getTargets(chessBoard, piecePosition) & (1L << toSquare(capturePosition))) != 0;
+    }
+
+    /**
+     * Returns the squares reachable from the given position as a bitboard.
+     * <p>
+     * The default implementation converts the result of {@link #getPossibleMoves(ChessBoard, Position)}. Strategies backed by
+     * the precomputed attack tables override this method and build their {@code Position} list from it instead,
+     * so move checks for those pieces are a single mask test.
+     * </p>
+     *
+     * @param chessBoard The chessboard the piece stands on
+     * @param position The current position of the piece on the chessboard
+     * @return A bitboard of all target squares
+     */
+    protected long getTargets(ChessBoard chessBoard, Position position) {
+        long targets = 0L;
+        for (Position target : getPossibleMoves(chessBoard, position)) {
+            targets |= 1L << toSquare(target);
+        }
+        return targets;
     }
 }
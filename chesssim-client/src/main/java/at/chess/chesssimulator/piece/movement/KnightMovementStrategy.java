@@ -1,36 +1,26 @@
 package at.chess.chesssimulator.piece.movement;
 
+import at.chess.chesssimulator.board.ChessBoard;
 import at.chess.chesssimulator.board.Position;
-import java.util.ArrayList;
+import at.chess.chesssimulator.board.bitboard.AttackTables;
+
 import java.util.List;
 
-import static at.chess.chesssimulator.board.utils.Directions.*;
 import static at.chess.chesssimulator.board.utils.PositionUtils.*;
 
 public class KnightMovementStrategy extends AbstractStrategy {
 
-    private static final Position[] KNIGHT_MOVES = {
-            addVector(UP.getVector(), UP_LEFT.getVector()),
-            addVector(UP.getVector(), UP_RIGHT.getVector()),
-            addVector(DOWN.getVector(), DOWN_LEFT.getVector()),
-            addVector(DOWN.getVector(), DOWN_RIGHT.getVector()),
-            addVector(LEFT.getVector(), UP_LEFT.getVector()),
-            addVector(LEFT.getVector(), DOWN_LEFT.getVector()),
-            addVector(RIGHT.getVector(), UP_RIGHT.getVector()),
-            addVector(RIGHT.getVector(), DOWN_RIGHT.getVector())
-    };
-
     @Override
-    public List<Position> getPossibleMoves(Position curPos) {
-
-        List<Position> possiblePositions = new ArrayList<>();
-        for (Position move : KNIGHT_MOVES) {
-            Position newPos = addVector(curPos, move);
-            if (isInBounds(newPos)) {
-                possiblePositions.add(newPos);
-            }
-        }
+    public List<Position> getPossibleMoves(ChessBoard chessBoard, Position curPos) {
+
+        List<Position> possiblePositions = toPositions(getTargets(chessBoard, curPos));
+
         logger.debug("Knight movement - found the following possible moves: {}", possiblePositions);
         return possiblePositions;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected long getTargets(ChessBoard chessBoard, Position curPos) {
+        return AttackTables.knightAttacks(toSquare(curPos));
+    }
+}
@@ -1,5 +1,6 @@
 package at.chess.chesssimulator.piece.movement;
 
+import at.chess.chesssimulator.board.ChessBoard;
 import at.chess.chesssimulator.board.Position;
 
 import java.util.List;
@@ -8,32 +9,39 @@ import java.util.List;
  * The {@code MovementStrategy} interface defines the contract for different movement strategies
  * for chess pieces. Each piece in chess has a unique way of moving and capturing, and this interface
  * provides the necessary methods to calculate possible moves and validate movement and capture actions.
+ * <p>
+ * Strategies are stateless; the board to work on is passed into every call, so one strategy instance serves any
+ * number of boards and threads at the same time.
+ * </p>
  */
 public interface MovementStrategy {
 
     /**
      * Returns a list of all possible moves for a piece from a given position.
      *
+     * @param chessBoard The chessboard the piece stands on
      * @param position The current position of the piece on the chessboard
      * @return A list of {@code Position} objects representing the possible moves for the piece
      */
-    List<Position> getPossibleMoves(Position position);
+    List<Position> getPossibleMoves(ChessBoard chessBoard, Position position);
 
     /**
      * Determines if a piece can move from its current position to a new position.
      *
+     * @param chessBoard The chessboard the piece stands on
      * @param piecePosition The current position of the piece
      * @param newPosition The target position where the piece is attempting to move
      * @return {@code true} if the move is valid, {@code false} otherwise
      */
-    boolean canMove(Position piecePosition, Position newPosition);
+    boolean canMove(ChessBoard chessBoard, Position piecePosition, Position newPosition);
 
     /**
      * Determines if a piece can capture an opponent's piece at a given position.
      *
+     * @param chessBoard The chessboard the piece stands on
      * @param piecePosition The current position of the piece
      * @param capturePosition The position of the opponent's piece to be captured
      * @return {@code true} if the capture is valid, {@code false} otherwise
      */
-    boolean canCapture(Position piecePosition, Position capturePosition);
+    boolean canCapture(ChessBoard chessBoard, Position piecePosition, Position capturePosition);
 }
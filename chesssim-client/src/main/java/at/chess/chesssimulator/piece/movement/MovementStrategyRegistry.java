@@ -11,6 +11,9 @@ import java.util.Map;
  * The {@code MovementStrategyRegistry} class is responsible for managing and providing the appropriate movement strategy
  * for each type of chess piece. It stores a registry of strategies and provides methods to retrieve them.
  * The strategies define the movement rules for different piece types in the game of chess.
+ * <p>
+ * Strategies are stateless and receive the board with every call, so the registry is shared by all games.
+ * </p>
  */
 public class MovementStrategyRegistry {
 
@@ -47,13 +50,4 @@ public class MovementStrategyRegistry {
     public static MovementStrategy getStrategy(PieceType type) {
         return strategies.get(type);
     }
-
-    /**
-     * Reloads the chessboard by clearing and re-registering the movement strategies.
-     * This method is useful when resetting or reloading the game state.
-     */
-    public static void reloadChessBoard() {
-        strategies.clear();
-        registerStrategies();
-    }
 }
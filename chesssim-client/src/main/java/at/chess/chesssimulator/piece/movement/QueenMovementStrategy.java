@@ -1,33 +1,27 @@
 package at.chess.chesssimulator.piece.movement;
 
+import at.chess.chesssimulator.board.ChessBoard;
 import at.chess.chesssimulator.board.Position;
+import at.chess.chesssimulator.board.bitboard.AttackTables;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import static at.chess.chesssimulator.board.utils.Directions.*;
+import static at.chess.chesssimulator.board.utils.PositionUtils.*;
 
 public class QueenMovementStrategy extends AbstractStrategy {
 
     @Override
-    public List<Position> getPossibleMoves(Position curPos) {
-        List<Position> possiblePositions = new ArrayList<>();
+    public List<Position> getPossibleMoves(ChessBoard chessBoard, Position curPos) {
 
-        // Add straight-line moves
-        // choosing either left / up or down and right is fine, it will check each direction anyway with 1 call
-        RookMovementStrategy.addStraightLineMoves(possiblePositions, curPos, LEFT);
-        RookMovementStrategy.addStraightLineMoves(possiblePositions, curPos, UP);
-
-        // Add diagonal moves
-        // choosing either up_left / down_right or down_left and up_right is fine, it will check each direction anyway with 1 call
-        BishopMovementStrategy.addDiagonalMoves(possiblePositions, curPos, UP_LEFT);
-        BishopMovementStrategy.addDiagonalMoves(possiblePositions, curPos, UP_RIGHT);
-
-        // Removing the place where the queen is standing
-        possiblePositions.removeIf(toCheck -> toCheck.getRow() == curPos.getRow()
-                && toCheck.getCol() == curPos.getCol());
+        List<Position> possiblePositions = toPositions(getTargets(chessBoard, curPos));
 
         logger.debug("Queen movement - found the following possible moves: {}", possiblePositions);
         return possiblePositions;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected long getTargets(ChessBoard chessBoard, Position curPos) {
+        // Union of the rook and bishop lookups, each including the first blocker
+        return AttackTables.queenAttacks(toSquare(curPos), chessBoard.getCore().getOccupied());
+    }
+}
@@ -31,6 +31,11 @@ public class FenNotation {
      */
     private PieceColor turn;
 
+    /**
+     * The raw FEN string this notation was loaded from, including castling and en-passant fields.
+     */
+    private String fen;
+
     /**
      * Default constructor that initializes the chessboard using the FEN file located at the default path.
      */
@@ -51,6 +56,7 @@ public class FenNotation {
         try (BufferedReader br = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(fenFilePath)))) {
 
             String fen = br.readLine();
+            this.fen = fen;
             logger.info("Reading from FEN: {}", fen);
             String[] boardConfig = fen.split(" ");
             int currentRow = 0;
@@ -1,4 +1,5 @@
 module at.chess.chesssimulator {
+        requires at.chess.chesssimulator.core;
         requires org.slf4j;
         requires javafx.controls;
         requires javafx.fxml;
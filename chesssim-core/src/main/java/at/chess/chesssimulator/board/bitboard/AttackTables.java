@@ -0,0 +1,385 @@
+package at.chess.chesssimulator.board.bitboard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Precomputed attack tables for all piece types.
+ * <p>
+ * Knight, king and pawn attacks only depend on the origin square and are stored in plain {@code long[64]} tables.
+ * Sliding pieces use "fancy" magic bitboards: the relevant blockers of a square are multiplied with a magic number
+ * and shifted to obtain an index into a shared attack table. The magic numbers below were found with the fixed-seed
+ * search implemented in {@link #findMagic}; during class initialization every magic is verified while the tables
+ * are filled, and a replacement is searched should one ever collide.
+ * </p>
+ * <p>
+ * After initialization every lookup is a handful of arithmetic operations and array reads without any allocation.
+ * </p>
+ */
+public final class AttackTables {
+
+    protected static final Logger logger = LoggerFactory.getLogger(AttackTables.class);
+
+    /** Knight attacks per square. */
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+
+    /** King attacks per square. */
+    private static final long[] KING_ATTACKS = new long[64];
+
+    /** Pawn capture targets per color and square. */
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    /** Relevant blocker masks for rooks. */
+    private static final long[] ROOK_MASKS = new long[64];
+
+    /** Relevant blocker masks for bishops. */
+    private static final long[] BISHOP_MASKS = new long[64];
+
+    private static final long[] ROOK_MAGICS = {
+            0x0A80004000801220L, 0x8040004010002008L, 0x2080200010008008L, 0x1100100008210004L,
+            0xC200209084020008L, 0x2100010004000208L, 0x0400081000822421L, 0x0200010422048844L,
+            0x0800800080400024L, 0x0001402000401000L, 0x3000801000802001L, 0x4400800800100083L,
+            0x0904802402480080L, 0x4040800400020080L, 0x0018808042000100L, 0x4040800080004100L,
+            0x0040048001458024L, 0x00A0004000205000L, 0x3100808010002000L, 0x4825010010000820L,
+            0x5004808008000401L, 0x2024818004000A00L, 0x0005808002000100L, 0x2100060004806104L,
+            0x0080400880008421L, 0x4062220600410280L, 0x010A004A00108022L, 0x0000100080080080L,
+            0x0021000500080010L, 0x0044000202001008L, 0x0000100400080102L, 0xC020128200040545L,
+            0x0080002000400040L, 0x0000804000802004L, 0x0000120022004080L, 0x010A386103001001L,
+            0x9010080080800400L, 0x8440020080800400L, 0x0004228824001001L, 0x000000490A000084L,
+            0x0080002000504000L, 0x200020005000C000L, 0x0012088020420010L, 0x0010010080080800L,
+            0x0085001008010004L, 0x0002000204008080L, 0x0040413002040008L, 0x0000304081020004L,
+            0x0080204000800080L, 0x3008804000290100L, 0x1010100080200080L, 0x2008100208028080L,
+            0x5000850800910100L, 0x8402019004680200L, 0x0120911028020400L, 0x0000008044010200L,
+            0x0020850200244012L, 0x0020850200244012L, 0x0000102001040841L, 0x140900040A100021L,
+            0x000200282410A102L, 0x000200282410A102L, 0x000200282410A102L, 0x4048240043802106L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x40106000A1160020L, 0x0020010250810120L, 0x2010010220280081L, 0x002806004050C040L,
+            0x0002021018000000L, 0x2001112010000400L, 0x0881010120218080L, 0x1030820110010500L,
+            0x0000120222042400L, 0x2000020404040044L, 0x8000480094208000L, 0x0003422A02000001L,
+            0x000A220210100040L, 0x8004820202226000L, 0x0018234854100800L, 0x0100004042101040L,
+            0x0004001004082820L, 0x0010000810010048L, 0x1014004208081300L, 0x2080818802044202L,
+            0x0040880C00A00100L, 0x0080400200522010L, 0x0001000188180B04L, 0x0080249202020204L,
+            0x1004400004100410L, 0x00013100A0022206L, 0x2148500001040080L, 0x4241080011004300L,
+            0x4020848004002000L, 0x10101380D1004100L, 0x0008004422020284L, 0x01010A1041008080L,
+            0x0808080400082121L, 0x0808080400082121L, 0x0091128200100C00L, 0x0202200802010104L,
+            0x8C0A020200440085L, 0x01A0008080B10040L, 0x0889520080122800L, 0x100902022202010AL,
+            0x04081A0816002000L, 0x0000681208005000L, 0x8170840041008802L, 0x0A00004200810805L,
+            0x0830404408210100L, 0x2602208106006102L, 0x1048300680802628L, 0x2602208106006102L,
+            0x0602010120110040L, 0x0941010801043000L, 0x000040440A210428L, 0x0008240020880021L,
+            0x0400002012048200L, 0x00AC102001210220L, 0x0220021002009900L, 0x84440C080A013080L,
+            0x0001008044200440L, 0x0004C04410841000L, 0x2000500104011130L, 0x1A0C010011C20229L,
+            0x0044800112202200L, 0x0434804908100424L, 0x0300404822C08200L, 0x48081010008A2A80L
+    };
+
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+
+    /** Shared rook attack table addressed by {@code ROOK_OFFSETS[sq] + magic index}. */
+    private static final long[] ROOK_TABLE = new long[102400];
+
+    /** Shared bishop attack table addressed by {@code BISHOP_OFFSETS[sq] + magic index}. */
+    private static final long[] BISHOP_TABLE = new long[5248];
+
+    /** Squares strictly between two squares on a common line, empty if they are not aligned. */
+    private static final long[][] BETWEEN = new long[64][64];
+
+    /** The full line through two aligned squares (edge to edge), empty if they are not aligned. */
+    private static final long[][] LINE = new long[64][64];
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_STEPS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+
+    /** Per-rank seeds for the magic search; chosen so that a magic is found after few attempts. */
+    private static final long[] MAGIC_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    static {
+        long start = System.nanoTime();
+        initLeaperTables();
+        initMagics(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        initMagics(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+        initLines();
+        logger.info("Initialized attack tables in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private AttackTables() {
+    }
+
+    /**
+     * Returns the squares attacked by a knight.
+     *
+     * @param square The knight's square.
+     * @return The attacked squares.
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * Returns the squares attacked by a king.
+     *
+     * @param square The king's square.
+     * @return The attacked squares.
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Returns the squares attacked (diagonally) by a pawn.
+     *
+     * @param color  The pawn's color.
+     * @param square The pawn's square.
+     * @return The attacked squares.
+     */
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    /**
+     * Returns the squares attacked by a rook, including the first blocker in each direction.
+     *
+     * @param square   The rook's square.
+     * @param occupied The occupancy of the board.
+     * @return The attacked squares.
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    /**
+     * Returns the squares attacked by a bishop, including the first blocker in each direction.
+     *
+     * @param square   The bishop's square.
+     * @param occupied The occupancy of the board.
+     * @return The attacked squares.
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    /**
+     * Returns the squares attacked by a queen, including the first blocker in each direction.
+     *
+     * @param square   The queen's square.
+     * @param occupied The occupancy of the board.
+     * @return The attacked squares.
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Returns the squares attacked by a piece of the given type.
+     *
+     * @param type     The piece type index.
+     * @param color    The piece color (only relevant for pawns).
+     * @param square   The piece's square.
+     * @param occupied The occupancy of the board.
+     * @return The attacked squares.
+     */
+    public static long attacks(int type, int color, int square, long occupied) {
+        return switch (type) {
+            case PAWN -> PAWN_ATTACKS[color][square];
+            case KNIGHT -> KNIGHT_ATTACKS[square];
+            case BISHOP -> bishopAttacks(square, occupied);
+            case ROOK -> rookAttacks(square, occupied);
+            case QUEEN -> queenAttacks(square, occupied);
+            case KING -> KING_ATTACKS[square];
+            default -> throw new IllegalStateException("Unexpected value: " + type);
+        };
+    }
+
+    /**
+     * Returns the squares strictly between two squares if they share a rank, file or diagonal.
+     *
+     * @param from The first square.
+     * @param to   The second square.
+     * @return The squares in between, or {@link Bitboards#EMPTY} if the squares are not aligned.
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Returns the full line (edge to edge) through two aligned squares.
+     *
+     * @param from The first square.
+     * @param to   The second square.
+     * @return The line through both squares, or {@link Bitboards#EMPTY} if they are not aligned.
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    private static void initLeaperTables() {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = leaperAttacks(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = leaperAttacks(square, KING_STEPS);
+
+            long pawn = bit(square);
+            PAWN_ATTACKS[WHITE][square] = ((pawn & ~FILE_A) << 7) | ((pawn & ~FILE_H) << 9);
+            PAWN_ATTACKS[BLACK][square] = ((pawn & ~FILE_H) >>> 7) | ((pawn & ~FILE_A) >>> 9);
+        }
+    }
+
+    private static long leaperAttacks(int square, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int file = file(square) + step[0];
+            int rank = rank(square) + step[1];
+            if (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                attacks |= bit(squareOf(file, rank));
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Computes slider attacks by walking the rays. Only used while building the tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int file = file(square) + direction[0];
+            int rank = rank(square) + direction[1];
+            while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                long target = bit(squareOf(file, rank));
+                attacks |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Computes the relevant blocker mask: the rays without the final edge square in each direction.
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int file = file(square) + direction[0];
+            int rank = rank(square) + direction[1];
+            while (file + direction[0] >= 0 && file + direction[0] < 8
+                    && rank + direction[1] >= 0 && rank + direction[1] < 8) {
+                mask |= bit(squareOf(file, rank));
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initMagics(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets,
+                                   long[] table) {
+        long[] occupancies = new long[4096];
+        long[] references = new long[4096];
+        int offset = 0;
+
+        for (int square = 0; square < 64; square++) {
+            long mask = relevantMask(square, directions);
+            masks[square] = mask;
+            shifts[square] = 64 - count(mask);
+            offsets[square] = offset;
+
+            // Enumerate all subsets of the mask (Carry-Rippler) together with their attack sets
+            long subset = 0L;
+            int size = 0;
+            do {
+                occupancies[size] = subset;
+                references[size] = slidingAttacks(square, subset, directions);
+                size++;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+
+            if (!fillTable(magics[square], shifts[square], occupancies, references, size, table, offset)) {
+                logger.warn("Magic for square {} does not verify, searching a replacement", squareName(square));
+                magics[square] = findMagic(square, mask, shifts[square], occupancies, references, size, table, offset);
+            }
+            offset += size;
+        }
+    }
+
+    /**
+     * Fills the table segment of one square using the given magic.
+     *
+     * @return {@code false} if two occupancies with different attack sets map to the same index.
+     */
+    private static boolean fillTable(long magic, int shift, long[] occupancies, long[] references, int size,
+                                     long[] table, int offset) {
+        Arrays.fill(table, offset, offset + size, 0L);
+        for (int i = 0; i < size; i++) {
+            int index = offset + (int) ((occupancies[i] * magic) >>> shift);
+            // Every attack set contains at least one square, so 0 marks a free slot
+            if (table[index] == 0L) {
+                table[index] = references[i];
+            } else if (table[index] != references[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches a magic number for a square with a fixed-seed sparse random generator.
+     */
+    private static long findMagic(int square, long mask, int shift, long[] occupancies, long[] references, int size,
+                                  long[] table, int offset) {
+        long[] seed = {MAGIC_SEEDS[rank(square)]};
+        while (true) {
+            long magic = sparseRandom(seed);
+            if (count((mask * magic) >>> 56) >= 6
+                    && fillTable(magic, shift, occupancies, references, size, table, offset)) {
+                return magic;
+            }
+        }
+    }
+
+    private static long sparseRandom(long[] seed) {
+        return xorshift(seed) & xorshift(seed) & xorshift(seed);
+    }
+
+    private static long xorshift(long[] seed) {
+        long x = seed[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        seed[0] = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    private static void initLines() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                if (from == to) {
+                    continue;
+                }
+                long fromBit = bit(from);
+                long toBit = bit(to);
+                if ((rookAttacks(from, 0L) & toBit) != 0) {
+                    BETWEEN[from][to] = rookAttacks(from, toBit) & rookAttacks(to, fromBit);
+                    LINE[from][to] = (rookAttacks(from, 0L) & rookAttacks(to, 0L)) | fromBit | toBit;
+                } else if ((bishopAttacks(from, 0L) & toBit) != 0) {
+                    BETWEEN[from][to] = bishopAttacks(from, toBit) & bishopAttacks(to, fromBit);
+                    LINE[from][to] = (bishopAttacks(from, 0L) & bishopAttacks(to, 0L)) | fromBit | toBit;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,921 @@
+package at.chess.chesssimulator.board.bitboard;
+
+import at.chess.chesssimulator.movegen.Moves;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Bitboard based representation of a chess position.
+ * <p>
+ * The position is stored as twelve piece bitboards (one per colored piece), one occupancy mask per color
+ * and a combined occupancy mask. A {@code byte[64]} mailbox mirrors the bitboards so that
+ * "which piece stands on square X" is a single array read as well.
+ * </p>
+ * <p>
+ * All queries are plain mask operations on primitive fields; nothing in this class allocates after construction.
+ * The class is deliberately free of any UI dependencies so it can back {@code ChessBoard} as well as headless
+ * consumers such as bots or analysis tools.
+ * </p>
+ * <p>
+ * Moves are applied in place with {@link #makeMove(int)} and reverted with {@link #unmakeMove()}. The state that
+ * cannot be recomputed from the move itself (captured piece, castling rights, en-passant square, half move clock,
+ * Zobrist key) is kept on an undo stack made of parallel primitive arrays, so walking a search tree or replaying
+ * a game does not create any objects.
+ * </p>
+ * <p>
+ * The position's {@link Zobrist} key is updated incrementally by every mutation, so {@link #getKey()} is always
+ * current and never requires a rescan of the board. The same goes for {@link #getPawnKey()}, which hashes the
+ * pawns only and identifies the pawn structure for pawn evaluation caches.
+ * </p>
+ * <p>
+ * The same holds for the attack maps: the squares attacked by every single piece and their union per color are
+ * kept up to date. A mutation only recomputes the pieces on the changed squares and the sliders whose rays
+ * crossed one of them, so {@link #isAttacked(int, int)} and {@link #inCheck()} are single mask tests.
+ * </p>
+ * <p>
+ * Finally, the sums of the {@link PieceSquareTables} over all pieces and the game phase are maintained by the same
+ * mutations, so a tapered material and piece-square evaluation needs no scan of the board either.
+ * </p>
+ */
+public class BitboardPosition {
+
+    /** Castling right: white may castle king side. */
+    public static final int WHITE_KINGSIDE = 1;
+
+    /** Castling right: white may castle queen side. */
+    public static final int WHITE_QUEENSIDE = 2;
+
+    /** Castling right: black may castle king side. */
+    public static final int BLACK_KINGSIDE = 4;
+
+    /** Castling right: black may castle queen side. */
+    public static final int BLACK_QUEENSIDE = 8;
+
+    /** All castling rights combined. */
+    public static final int ALL_CASTLING = 15;
+
+    /** FEN of the standard starting position. */
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** Initial capacity of the undo stack in plies; enough for any search plus a long game history. */
+    public static final int MAX_HISTORY = 1024;
+
+    /**
+     * Castling rights that survive a move touching a square. Moving from or capturing on a king or rook home square
+     * clears the corresponding rights, every other square keeps all of them.
+     */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+    }
+
+    /** One bitboard per colored piece, indexed by piece code. */
+    private final long[] pieces = new long[PIECE_COUNT];
+
+    /** Occupancy per color, indexed by color. */
+    private final long[] occupancy = new long[2];
+
+    /** Piece code per square, {@link Pieces#NONE} for empty squares. */
+    private final byte[] mailbox = new byte[64];
+
+    /** Union of both color occupancies. */
+    @Getter
+    private long occupied;
+
+    /** The color to move, {@link Pieces#WHITE} or {@link Pieces#BLACK}. */
+    @Getter
+    private int sideToMove;
+
+    /** Bit set of the remaining castling rights. */
+    @Getter
+    private int castlingRights;
+
+    /** The en-passant target square, or {@link Bitboards#NO_SQUARE}. */
+    @Getter
+    private int enPassantSquare;
+
+    /** Number of half moves since the last capture or pawn move. */
+    @Getter
+    private int halfmoveClock;
+
+    /** The full move number as written in FEN. */
+    @Getter
+    private int fullmoveNumber;
+
+    /** Zobrist key of the position. */
+    @Getter
+    private long key;
+
+    /** Zobrist key of the pawns of both colors alone. */
+    @Getter
+    private long pawnKey;
+
+    /** Sum of the middlegame {@link PieceSquareTables} values of all pieces, from white's point of view. */
+    @Getter
+    private int midgameScore;
+
+    /** Sum of the endgame {@link PieceSquareTables} values of all pieces, from white's point of view. */
+    @Getter
+    private int endgameScore;
+
+    /** Sum of the phase weights of all pieces, {@link PieceSquareTables#MAX_PHASE} in the starting position. */
+    @Getter
+    private int phase;
+
+    /** Number of moves on the undo stack, i.e. moves made since the position was loaded. */
+    @Getter
+    private int historyLength;
+
+    /** Undo stack: the moves made. */
+    private int[] moveHistory = new int[MAX_HISTORY];
+
+    /** Undo stack: the piece that made each move; a pawn for promotions. */
+    private byte[] movedHistory = new byte[MAX_HISTORY];
+
+    /** Undo stack: the piece captured by each move, {@link Pieces#NONE} if nothing was captured. */
+    private byte[] capturedHistory = new byte[MAX_HISTORY];
+
+    /** Undo stack: castling rights before each move. */
+    private byte[] castlingHistory = new byte[MAX_HISTORY];
+
+    /** Undo stack: en-passant square before each move. */
+    private byte[] enPassantHistory = new byte[MAX_HISTORY];
+
+    /** Undo stack: half move clock before each move. */
+    private int[] halfmoveHistory = new int[MAX_HISTORY];
+
+    /** Undo stack: Zobrist key before each move. */
+    private long[] keyHistory = new long[MAX_HISTORY];
+
+    /** Squares attacked by the piece standing on each square, {@code 0} for empty squares. */
+    private final long[] attacksFrom = new long[64];
+
+    /** Union of {@link #attacksFrom} per color. */
+    private final long[] attacks = new long[2];
+
+    /** Per made move: both attack unions before the move and the start of its entries in the attack journal. */
+    private long[] attacksHistory = new long[2 * MAX_HISTORY];
+
+    private int[] journalHistory = new int[MAX_HISTORY];
+
+    /** The {@link #attacksFrom} entries overwritten by made moves, so unmaking restores them without recomputing. */
+    private long[] journalAttacks = new long[8 * MAX_HISTORY];
+
+    private byte[] journalSquares = new byte[8 * MAX_HISTORY];
+
+    private int journalLength;
+
+    /**
+     * Creates an empty position with white to move.
+     */
+    public BitboardPosition() {
+        clear();
+    }
+
+    /**
+     * Creates a position from a FEN string.
+     *
+     * @param fen The FEN string.
+     */
+    public BitboardPosition(String fen) {
+        loadFen(fen);
+    }
+
+    /**
+     * Removes all pieces and resets the game state fields.
+     */
+    public void clear() {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        Arrays.fill(mailbox, (byte) NONE);
+        occupied = 0L;
+        sideToMove = WHITE;
+        castlingRights = 0;
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        key = 0L;
+        pawnKey = 0L;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        historyLength = 0;
+        Arrays.fill(attacksFrom, 0L);
+        Arrays.fill(attacks, 0L);
+        journalLength = 0;
+    }
+
+    /**
+     * Places a piece on an empty square.
+     *
+     * @param piece  The piece code.
+     * @param square The square index.
+     */
+    public void putPiece(int piece, int square) {
+        setPiece(piece, square);
+        updateAttacks(bit(square), false);
+    }
+
+    /**
+     * Removes the piece standing on a square. Does nothing if the square is empty.
+     *
+     * @param square The square index.
+     * @return The removed piece code, or {@link Pieces#NONE}.
+     */
+    public int removePiece(int square) {
+        int piece = clearPiece(square);
+        if (piece != NONE) {
+            updateAttacks(bit(square), false);
+        }
+        return piece;
+    }
+
+    /**
+     * Moves a piece between two squares; the target square must be empty.
+     *
+     * @param from The origin square.
+     * @param to   The target square.
+     */
+    public void movePiece(int from, int to) {
+        shiftPiece(from, to);
+        updateAttacks(bit(from) | bit(to), false);
+    }
+
+    /*
+     * The three primitives below leave the attack maps stale; callers batch their changes into one updateAttacks.
+     */
+
+    private void setPiece(int piece, int square) {
+        long mask = bit(square);
+        pieces[piece] |= mask;
+        occupancy[color(piece)] |= mask;
+        occupied |= mask;
+        mailbox[square] = (byte) piece;
+        key ^= Zobrist.piece(piece, square);
+        if (type(piece) == PAWN) {
+            pawnKey ^= Zobrist.piece(piece, square);
+        }
+        midgameScore += PieceSquareTables.midgame(piece, square);
+        endgameScore += PieceSquareTables.endgame(piece, square);
+        phase += PieceSquareTables.phase(piece);
+    }
+
+    private int clearPiece(int square) {
+        int piece = mailbox[square];
+        if (piece == NONE) {
+            return NONE;
+        }
+        long mask = ~bit(square);
+        pieces[piece] &= mask;
+        occupancy[color(piece)] &= mask;
+        occupied &= mask;
+        mailbox[square] = (byte) NONE;
+        key ^= Zobrist.piece(piece, square);
+        if (type(piece) == PAWN) {
+            pawnKey ^= Zobrist.piece(piece, square);
+        }
+        midgameScore -= PieceSquareTables.midgame(piece, square);
+        endgameScore -= PieceSquareTables.endgame(piece, square);
+        phase -= PieceSquareTables.phase(piece);
+        return piece;
+    }
+
+    private void shiftPiece(int from, int to) {
+        int piece = mailbox[from];
+        long mask = bit(from) | bit(to);
+        pieces[piece] ^= mask;
+        occupancy[color(piece)] ^= mask;
+        occupied ^= mask;
+        mailbox[from] = (byte) NONE;
+        mailbox[to] = (byte) piece;
+        key ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+        if (type(piece) == PAWN) {
+            pawnKey ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+        }
+        midgameScore += PieceSquareTables.midgame(piece, to) - PieceSquareTables.midgame(piece, from);
+        endgameScore += PieceSquareTables.endgame(piece, to) - PieceSquareTables.endgame(piece, from);
+    }
+
+    /**
+     * Brings the attack maps up to date after the occupancy of the {@code changed} squares was modified.
+     * <p>
+     * The attacks of a slider that stays in place can only change if a changed square lies on one of its rays.
+     * The first such square along a ray was either empty or the first blocker before the change, so it is part of
+     * the slider's old attack set; testing that set against {@code changed} finds every affected slider.
+     * </p>
+     *
+     * @param changed The squares whose content changed.
+     * @param journal Whether to record the overwritten entries for {@link #unmakeMove()}.
+     */
+    private void updateAttacks(long changed, boolean journal) {
+        long refresh = changed;
+        long sliders = (pieces[make(WHITE, BISHOP)] | pieces[make(WHITE, ROOK)] | pieces[make(WHITE, QUEEN)]
+                | pieces[make(BLACK, BISHOP)] | pieces[make(BLACK, ROOK)] | pieces[make(BLACK, QUEEN)]) & ~changed;
+        while (sliders != 0) {
+            int square = lsb(sliders);
+            sliders &= sliders - 1;
+            if ((attacksFrom[square] & changed) != 0) {
+                refresh |= bit(square);
+            }
+        }
+
+        while (refresh != 0) {
+            int square = lsb(refresh);
+            refresh &= refresh - 1;
+            if (journal) {
+                journalSquares[journalLength] = (byte) square;
+                journalAttacks[journalLength++] = attacksFrom[square];
+            }
+            int piece = mailbox[square];
+            attacksFrom[square] = piece == NONE ? 0L : AttackTables.attacks(type(piece), color(piece), square, occupied);
+        }
+
+        // Pawns are added set-wise, which saves walking up to sixteen squares per update
+        long whitePawns = pieces[make(WHITE, PAWN)];
+        long blackPawns = pieces[make(BLACK, PAWN)];
+        attacks[WHITE] = ((whitePawns & ~FILE_A) << 7) | ((whitePawns & ~FILE_H) << 9)
+                | unionOfAttacks(occupancy[WHITE] & ~whitePawns);
+        attacks[BLACK] = ((blackPawns & ~FILE_A) >>> 9) | ((blackPawns & ~FILE_H) >>> 7)
+                | unionOfAttacks(occupancy[BLACK] & ~blackPawns);
+    }
+
+    /**
+     * Recomputes every attack set from scratch.
+     */
+    private void refreshAttacks() {
+        updateAttacks(ALL, false);
+    }
+
+    private long unionOfAttacks(long squares) {
+        long union = 0L;
+        while (squares != 0) {
+            union |= attacksFrom[lsb(squares)];
+            squares &= squares - 1;
+        }
+        return union;
+    }
+
+    /**
+     * Returns the piece standing on a square.
+     *
+     * @param square The square index.
+     * @return The piece code, or {@link Pieces#NONE} if the square is empty.
+     */
+    public int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * Checks whether a square is occupied.
+     *
+     * @param square The square index.
+     * @return {@code true} if a piece stands on the square.
+     */
+    public boolean isOccupied(int square) {
+        return (occupied & bit(square)) != 0;
+    }
+
+    /**
+     * Checks whether a square is occupied by a piece of the given color.
+     *
+     * @param square The square index.
+     * @param color  The color index.
+     * @return {@code true} if a piece of that color stands on the square.
+     */
+    public boolean isOccupiedBy(int square, int color) {
+        return (occupancy[color] & bit(square)) != 0;
+    }
+
+    /**
+     * Returns the bitboard of a colored piece.
+     *
+     * @param piece The piece code.
+     * @return The bitboard of all squares holding that piece.
+     */
+    public long getPieces(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * Returns the bitboard of a piece type for a color.
+     *
+     * @param color The color index.
+     * @param type  The piece type index.
+     * @return The bitboard of all squares holding that piece.
+     */
+    public long getPieces(int color, int type) {
+        return pieces[make(color, type)];
+    }
+
+    /**
+     * Returns the occupancy mask of a color.
+     *
+     * @param color The color index.
+     * @return The bitboard of all squares occupied by that color.
+     */
+    public long getOccupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * Returns the square of the king of the given color.
+     *
+     * @param color The color index.
+     * @return The king square, or {@link Bitboards#NO_SQUARE} if there is no king of that color.
+     */
+    public int kingSquare(int color) {
+        long king = pieces[make(color, KING)];
+        return king == 0 ? NO_SQUARE : lsb(king);
+    }
+
+    /**
+     * Returns all pieces of both colors that attack a square, given an occupancy.
+     * <p>
+     * Passing a modified occupancy allows x-ray style queries (e.g. with the king removed from the board).
+     * </p>
+     *
+     * @param square   The attacked square.
+     * @param occupied The occupancy used for sliding pieces.
+     * @return The bitboard of attackers.
+     */
+    public long attackersTo(int square, long occupied) {
+        long bishops = pieces[make(WHITE, BISHOP)] | pieces[make(BLACK, BISHOP)]
+                | pieces[make(WHITE, QUEEN)] | pieces[make(BLACK, QUEEN)];
+        long rooks = pieces[make(WHITE, ROOK)] | pieces[make(BLACK, ROOK)]
+                | pieces[make(WHITE, QUEEN)] | pieces[make(BLACK, QUEEN)];
+        return (AttackTables.pawnAttacks(BLACK, square) & pieces[make(WHITE, PAWN)])
+                | (AttackTables.pawnAttacks(WHITE, square) & pieces[make(BLACK, PAWN)])
+                | (AttackTables.knightAttacks(square) & (pieces[make(WHITE, KNIGHT)] | pieces[make(BLACK, KNIGHT)]))
+                | (AttackTables.kingAttacks(square) & (pieces[make(WHITE, KING)] | pieces[make(BLACK, KING)]))
+                | (AttackTables.bishopAttacks(square, occupied) & bishops)
+                | (AttackTables.rookAttacks(square, occupied) & rooks);
+    }
+
+    /**
+     * Checks whether a square is attacked by any piece of the given color.
+     *
+     * @param square  The square to test.
+     * @param byColor The attacking color.
+     * @return {@code true} if at least one piece of {@code byColor} attacks the square.
+     */
+    public boolean isAttacked(int square, int byColor) {
+        return (attacks[byColor] & bit(square)) != 0;
+    }
+
+    /**
+     * Returns all squares attacked by a color. Squares behind the first blocker of a slider are not included.
+     *
+     * @param color The attacking color.
+     * @return The attack map of that color.
+     */
+    public long getAttacks(int color) {
+        return attacks[color];
+    }
+
+    /**
+     * Returns the squares attacked by the piece standing on a square.
+     *
+     * @param square The square index.
+     * @return The attack set, or {@code 0} if the square is empty.
+     */
+    public long getAttacksFrom(int square) {
+        return attacksFrom[square];
+    }
+
+    /**
+     * Checks whether the side to move is in check.
+     *
+     * @return {@code true} if the king of the side to move is attacked.
+     */
+    public boolean inCheck() {
+        return (attacks[sideToMove ^ 1] & pieces[make(sideToMove, KING)]) != 0;
+    }
+
+    /**
+     * Plays a move in place and pushes the information needed to take it back onto the undo stack.
+     * <p>
+     * The move has to be pseudo-legal in this position (e.g. produced by the move generator); it is not validated.
+     * Moves that leave the own king in check are applied as well, callers check legality afterwards.
+     * </p>
+     *
+     * @param move The encoded move (see {@link Moves}).
+     */
+    public void makeMove(int move) {
+        if (historyLength == moveHistory.length) {
+            growHistory();
+        }
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int us = sideToMove;
+        int piece = mailbox[from];
+
+        moveHistory[historyLength] = move;
+        movedHistory[historyLength] = (byte) piece;
+        castlingHistory[historyLength] = (byte) castlingRights;
+        enPassantHistory[historyLength] = (byte) enPassantSquare;
+        halfmoveHistory[historyLength] = halfmoveClock;
+        keyHistory[historyLength] = key;
+        attacksHistory[2 * historyLength] = attacks[WHITE];
+        attacksHistory[2 * historyLength + 1] = attacks[BLACK];
+        journalHistory[historyLength] = journalLength;
+        if (journalLength + 64 > journalAttacks.length) {
+            journalAttacks = Arrays.copyOf(journalAttacks, journalAttacks.length * 2);
+            journalSquares = Arrays.copyOf(journalSquares, journalSquares.length * 2);
+        }
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
+
+        int captured = NONE;
+        if (flags == Moves.EN_PASSANT) {
+            captured = clearPiece(to ^ 8);
+        } else if ((flags & Moves.CAPTURE) != 0) {
+            captured = clearPiece(to);
+        }
+        capturedHistory[historyLength] = (byte) captured;
+        historyLength++;
+
+        if ((flags & Moves.PROMOTION) != 0) {
+            clearPiece(from);
+            setPiece(make(us, Moves.promotionType(move)), to);
+        } else {
+            shiftPiece(from, to);
+        }
+
+        if (flags == Moves.KING_CASTLE) {
+            shiftPiece(to + 1, to - 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            shiftPiece(to - 2, to + 1);
+        }
+        updateAttacks(changedSquares(from, to, flags), true);
+
+        enPassantSquare = NO_SQUARE;
+        if (flags == Moves.DOUBLE_PAWN_PUSH) {
+            // Only remember the target if an enemy pawn can actually capture, so equal positions compare equal
+            int target = (from + to) >>> 1;
+            if ((AttackTables.pawnAttacks(us, target) & pieces[make(us ^ 1, PAWN)]) != 0) {
+                enPassantSquare = target;
+            }
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare) ^ Zobrist.side();
+        halfmoveClock = type(piece) == PAWN || captured != NONE ? 0 : halfmoveClock + 1;
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = us ^ 1;
+    }
+
+    /**
+     * Takes back the last move made with {@link #makeMove(int)}.
+     *
+     * @throws IllegalStateException if there is no move to take back.
+     */
+    public void unmakeMove() {
+        if (historyLength == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        historyLength--;
+        int move = moveHistory[historyLength];
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int us = sideToMove ^ 1;
+
+        if ((flags & Moves.PROMOTION) != 0) {
+            clearPiece(to);
+            setPiece(make(us, PAWN), from);
+        } else {
+            shiftPiece(to, from);
+        }
+
+        if (flags == Moves.KING_CASTLE) {
+            shiftPiece(to - 1, to + 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            shiftPiece(to + 1, to - 2);
+        }
+
+        int captured = capturedHistory[historyLength];
+        if (captured != NONE) {
+            setPiece(captured, flags == Moves.EN_PASSANT ? to ^ 8 : to);
+        }
+
+        int journalStart = journalHistory[historyLength];
+        while (journalLength > journalStart) {
+            journalLength--;
+            attacksFrom[journalSquares[journalLength]] = journalAttacks[journalLength];
+        }
+        attacks[WHITE] = attacksHistory[2 * historyLength];
+        attacks[BLACK] = attacksHistory[2 * historyLength + 1];
+
+        castlingRights = castlingHistory[historyLength];
+        enPassantSquare = enPassantHistory[historyLength];
+        halfmoveClock = halfmoveHistory[historyLength];
+        key = keyHistory[historyLength];
+        if (us == BLACK) {
+            fullmoveNumber--;
+        }
+        sideToMove = us;
+    }
+
+    /**
+     * Returns the squares whose content a move changes.
+     */
+    private static long changedSquares(int from, int to, int flags) {
+        long changed = bit(from) | bit(to);
+        return switch (flags) {
+            case Moves.EN_PASSANT -> changed | bit(to ^ 8);
+            case Moves.KING_CASTLE -> changed | bit(to + 1) | bit(to - 1);
+            case Moves.QUEEN_CASTLE -> changed | bit(to - 2) | bit(to + 1);
+            default -> changed;
+        };
+    }
+
+    /**
+     * Returns the most recently made move.
+     *
+     * @return The encoded move, or {@link Moves#NONE} if the undo stack is empty.
+     */
+    public int lastMove() {
+        return historyLength == 0 ? Moves.NONE : moveHistory[historyLength - 1];
+    }
+
+    /**
+     * Returns the piece captured by the most recently made move.
+     *
+     * @return The piece code, or {@link Pieces#NONE} if the last move captured nothing or there is no last move.
+     */
+    public int lastCaptured() {
+        return historyLength == 0 ? NONE : capturedHistory[historyLength - 1];
+    }
+
+    /**
+     * Returns a move of the undo stack.
+     *
+     * @param index The index of the move, {@code 0} for the first move made since the position was loaded, up to
+     *              {@code getHistoryLength() - 1}.
+     * @return The encoded move.
+     */
+    public int moveAt(int index) {
+        return moveHistory[index];
+    }
+
+    /**
+     * Returns the piece that made a move of the undo stack.
+     *
+     * @param index The index of the move, see {@link #moveAt(int)}.
+     * @return The piece code; a pawn for promotions.
+     */
+    public int movedPieceAt(int index) {
+        return movedHistory[index];
+    }
+
+    /**
+     * Returns the piece captured by a move of the undo stack.
+     *
+     * @param index The index of the move, see {@link #moveAt(int)}.
+     * @return The piece code, or {@link Pieces#NONE}.
+     */
+    public int capturedAt(int index) {
+        return capturedHistory[index];
+    }
+
+    /**
+     * Returns the Zobrist key of an earlier position of the undo stack.
+     *
+     * @param index The number of moves made since the position was loaded, from {@code 0} (the loaded position)
+     *              up to {@link #getHistoryLength()} (the current position).
+     * @return The key the position had at that point.
+     */
+    public long keyAt(int index) {
+        return index == historyLength ? key : keyHistory[index];
+    }
+
+    /**
+     * Doubles the undo stack. Searches never get here; only very long game histories do.
+     */
+    private void growHistory() {
+        int capacity = moveHistory.length * 2;
+        moveHistory = Arrays.copyOf(moveHistory, capacity);
+        movedHistory = Arrays.copyOf(movedHistory, capacity);
+        capturedHistory = Arrays.copyOf(capturedHistory, capacity);
+        castlingHistory = Arrays.copyOf(castlingHistory, capacity);
+        enPassantHistory = Arrays.copyOf(enPassantHistory, capacity);
+        halfmoveHistory = Arrays.copyOf(halfmoveHistory, capacity);
+        keyHistory = Arrays.copyOf(keyHistory, capacity);
+        attacksHistory = Arrays.copyOf(attacksHistory, 2 * capacity);
+        journalHistory = Arrays.copyOf(journalHistory, capacity);
+    }
+
+    /**
+     * Sets the color to move.
+     *
+     * @param sideToMove {@link Pieces#WHITE} or {@link Pieces#BLACK}.
+     */
+    public void setSideToMove(int sideToMove) {
+        if (this.sideToMove != sideToMove) {
+            key ^= Zobrist.side();
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Sets the castling rights bit set.
+     *
+     * @param castlingRights A combination of the {@code *_KINGSIDE} / {@code *_QUEENSIDE} flags.
+     */
+    public void setCastlingRights(int castlingRights) {
+        key ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * Sets the en-passant target square.
+     *
+     * @param enPassantSquare The square, or {@link Bitboards#NO_SQUARE}.
+     */
+    public void setEnPassantSquare(int enPassantSquare) {
+        key ^= Zobrist.enPassant(this.enPassantSquare) ^ Zobrist.enPassant(enPassantSquare);
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /**
+     * Loads the position from a FEN string. The half move clock and full move number are optional.
+     *
+     * @param fen The FEN string.
+     * @throws IllegalArgumentException if the FEN string is malformed.
+     */
+    public void loadFen(String fen) {
+        clear();
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Incomplete FEN: " + fen);
+        }
+
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN must contain 8 ranks: " + fen);
+        }
+        for (int i = 0; i < 8; i++) {
+            int rank = 7 - i;
+            int file = 0;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    file += c - '0';
+                } else {
+                    if (file > 7) {
+                        throw new IllegalArgumentException("Rank overflow in FEN: " + fen);
+                    }
+                    setPiece(fromFenChar(c), squareOf(file, rank));
+                    file++;
+                }
+            }
+            if (file != 8) {
+                throw new IllegalArgumentException("Rank " + (rank + 1) + " is incomplete in FEN: " + fen);
+            }
+        }
+
+        sideToMove = fields[1].equalsIgnoreCase("b") ? BLACK : WHITE;
+
+        if (fields.length > 2 && !fields[2].equals("-")) {
+            for (char c : fields[2].toCharArray()) {
+                castlingRights |= switch (c) {
+                    case 'K' -> WHITE_KINGSIDE;
+                    case 'Q' -> WHITE_QUEENSIDE;
+                    case 'k' -> BLACK_KINGSIDE;
+                    case 'q' -> BLACK_QUEENSIDE;
+                    default -> throw new IllegalArgumentException("Unexpected castling right: " + c);
+                };
+            }
+        }
+
+        enPassantSquare = fields.length > 3 ? parseSquare(fields[3]) : NO_SQUARE;
+        if (enPassantSquare != NO_SQUARE
+                && (AttackTables.pawnAttacks(sideToMove ^ 1, enPassantSquare) & pieces[make(sideToMove, PAWN)]) == 0) {
+            // Same convention as makeMove: an en-passant square nobody can capture on is not part of the position
+            enPassantSquare = NO_SQUARE;
+        }
+        halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+        fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        key = Zobrist.compute(this);
+        refreshAttacks();
+    }
+
+    /**
+     * Serializes the position to a FEN string.
+     *
+     * @return The FEN string.
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = mailbox[squareOf(file, rank)];
+                if (piece == NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(toFenChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(sideToMove == WHITE ? " w " : " b ");
+
+        if (castlingRights == 0) {
+            fen.append('-');
+        } else {
+            if ((castlingRights & WHITE_KINGSIDE) != 0) fen.append('K');
+            if ((castlingRights & WHITE_QUEENSIDE) != 0) fen.append('Q');
+            if ((castlingRights & BLACK_KINGSIDE) != 0) fen.append('k');
+            if ((castlingRights & BLACK_QUEENSIDE) != 0) fen.append('q');
+        }
+
+        fen.append(' ').append(squareName(enPassantSquare))
+           .append(' ').append(halfmoveClock)
+           .append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * Creates an independent copy of this position.
+     *
+     * @return The copy.
+     */
+    public BitboardPosition copy() {
+        BitboardPosition copy = new BitboardPosition();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Overwrites this position with the state of another one, including its undo stack.
+     * Does not allocate unless the other undo stack is larger than this one.
+     *
+     * @param other The position to copy.
+     */
+    public void copyFrom(BitboardPosition other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, PIECE_COUNT);
+        System.arraycopy(other.occupancy, 0, occupancy, 0, 2);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, 64);
+        System.arraycopy(other.attacksFrom, 0, attacksFrom, 0, 64);
+        System.arraycopy(other.attacks, 0, attacks, 0, 2);
+        occupied = other.occupied;
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        key = other.key;
+        pawnKey = other.pawnKey;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+        while (moveHistory.length < other.historyLength) {
+            growHistory();
+        }
+        historyLength = other.historyLength;
+        System.arraycopy(other.moveHistory, 0, moveHistory, 0, historyLength);
+        System.arraycopy(other.movedHistory, 0, movedHistory, 0, historyLength);
+        System.arraycopy(other.capturedHistory, 0, capturedHistory, 0, historyLength);
+        System.arraycopy(other.castlingHistory, 0, castlingHistory, 0, historyLength);
+        System.arraycopy(other.enPassantHistory, 0, enPassantHistory, 0, historyLength);
+        System.arraycopy(other.halfmoveHistory, 0, halfmoveHistory, 0, historyLength);
+        System.arraycopy(other.keyHistory, 0, keyHistory, 0, historyLength);
+        System.arraycopy(other.attacksHistory, 0, attacksHistory, 0, 2 * historyLength);
+        System.arraycopy(other.journalHistory, 0, journalHistory, 0, historyLength);
+        if (journalAttacks.length < other.journalLength) {
+            journalAttacks = new long[other.journalAttacks.length];
+            journalSquares = new byte[other.journalSquares.length];
+        }
+        journalLength = other.journalLength;
+        System.arraycopy(other.journalAttacks, 0, journalAttacks, 0, journalLength);
+        System.arraycopy(other.journalSquares, 0, journalSquares, 0, journalLength);
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
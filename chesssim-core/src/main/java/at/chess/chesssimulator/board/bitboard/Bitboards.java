@@ -0,0 +1,219 @@
+package at.chess.chesssimulator.board.bitboard;
+
+/**
+ * Static helpers for working with 64-bit bitboards.
+ * <p>
+ * Squares are numbered little-endian rank-file: {@code a1 = 0}, {@code h1 = 7}, {@code a8 = 56}, {@code h8 = 63}.
+ * Bit {@code n} of a bitboard is set if square {@code n} belongs to the set.
+ * </p>
+ * <p>
+ * The UI layer addresses tiles as {@code (row, col)} where {@code row} is the file (0 = a) and {@code col}
+ * is the screen row counted from the top (0 = rank 8). {@link #square(int, int)}, {@link #row(int)} and
+ * {@link #col(int)} translate between the two coordinate systems.
+ * </p>
+ */
+public final class Bitboards {
+
+    /** The empty set. */
+    public static final long EMPTY = 0L;
+
+    /** All 64 squares. */
+    public static final long ALL = ~0L;
+
+    /** The a-file. */
+    public static final long FILE_A = 0x0101010101010101L;
+
+    /** The b-file. */
+    public static final long FILE_B = FILE_A << 1;
+
+    /** The g-file. */
+    public static final long FILE_G = FILE_A << 6;
+
+    /** The h-file. */
+    public static final long FILE_H = FILE_A << 7;
+
+    /** The first rank. */
+    public static final long RANK_1 = 0xFFL;
+
+    /** The second rank. */
+    public static final long RANK_2 = RANK_1 << 8;
+
+    /** The third rank. */
+    public static final long RANK_3 = RANK_1 << 16;
+
+    /** The fourth rank. */
+    public static final long RANK_4 = RANK_1 << 24;
+
+    /** The fifth rank. */
+    public static final long RANK_5 = RANK_1 << 32;
+
+    /** The sixth rank. */
+    public static final long RANK_6 = RANK_1 << 40;
+
+    /** The seventh rank. */
+    public static final long RANK_7 = RANK_1 << 48;
+
+    /** The eighth rank. */
+    public static final long RANK_8 = RANK_1 << 56;
+
+    /** Marker for "no square" (e.g. no en-passant target). */
+    public static final int NO_SQUARE = -1;
+
+    private Bitboards() {
+    }
+
+    /**
+     * Returns a bitboard with only the given square set.
+     *
+     * @param square The square index (0-63).
+     * @return The single-bit bitboard.
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Tests whether a square is contained in a bitboard.
+     *
+     * @param bitboard The bitboard.
+     * @param square   The square index.
+     * @return {@code true} if the square's bit is set.
+     */
+    public static boolean contains(long bitboard, int square) {
+        return (bitboard & (1L << square)) != 0;
+    }
+
+    /**
+     * Returns the index of the least significant set bit.
+     *
+     * @param bitboard A non-empty bitboard.
+     * @return The lowest square contained in the bitboard.
+     */
+    public static int lsb(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * Returns the number of squares contained in a bitboard.
+     *
+     * @param bitboard The bitboard.
+     * @return The population count.
+     */
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    /**
+     * Returns the file (0 = a) of a square.
+     *
+     * @param square The square index.
+     * @return The file index.
+     */
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Returns the rank (0 = rank 1) of a square.
+     *
+     * @param square The square index.
+     * @return The rank index.
+     */
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Builds a square index from file and rank.
+     *
+     * @param file The file index (0 = a).
+     * @param rank The rank index (0 = rank 1).
+     * @return The square index.
+     */
+    public static int squareOf(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    /**
+     * Converts UI tile coordinates to a square index.
+     *
+     * @param row The UI row (file, 0 = a).
+     * @param col The UI column (screen row from the top, 0 = rank 8).
+     * @return The square index.
+     */
+    public static int square(int row, int col) {
+        return (7 - col) * 8 + row;
+    }
+
+    /**
+     * Returns the UI row (file) of a square.
+     *
+     * @param square The square index.
+     * @return The UI row.
+     */
+    public static int row(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Returns the UI column (screen row from the top) of a square.
+     *
+     * @param square The square index.
+     * @return The UI column.
+     */
+    public static int col(int square) {
+        return 7 - (square >>> 3);
+    }
+
+    /**
+     * Returns the algebraic name of a square, e.g. {@code "e4"}.
+     *
+     * @param square The square index.
+     * @return The square name, or {@code "-"} for {@link #NO_SQUARE}.
+     */
+    public static String squareName(int square) {
+        if (square == NO_SQUARE) {
+            return "-";
+        }
+        return (char) ('a' + file(square)) + "" + (char) ('1' + rank(square));
+    }
+
+    /**
+     * Parses an algebraic square name such as {@code "e4"}.
+     *
+     * @param name The square name, or {@code "-"}.
+     * @return The square index, or {@link #NO_SQUARE} for {@code "-"}.
+     * @throws IllegalArgumentException if the name is not a valid square.
+     */
+    public static int parseSquare(String name) {
+        if (name.equals("-")) {
+            return NO_SQUARE;
+        }
+        if (name.length() != 2) {
+            throw new IllegalArgumentException("Unexpected square: " + name);
+        }
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw new IllegalArgumentException("Unexpected square: " + name);
+        }
+        return squareOf(file, rank);
+    }
+
+    /**
+     * Renders a bitboard as an 8x8 grid (rank 8 on top), useful for debug logging.
+     *
+     * @param bitboard The bitboard.
+     * @return A multi-line string representation.
+     */
+    public static String toString(long bitboard) {
+        StringBuilder builder = new StringBuilder();
+        for (int rank = 7; rank >= 0; rank--) {
+            for (int file = 0; file < 8; file++) {
+                builder.append(contains(bitboard, squareOf(file, rank)) ? '1' : '.');
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
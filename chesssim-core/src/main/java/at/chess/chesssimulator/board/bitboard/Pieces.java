@@ -0,0 +1,122 @@
+package at.chess.chesssimulator.board.bitboard;
+
+/**
+ * Primitive piece encoding used by the bitboard core.
+ * <p>
+ * A piece is stored as a single {@code int} in the range {@code 0..11}, computed as {@code color * 6 + type}.
+ * This keeps the piece bitboards in one flat {@code long[12]} array and lets the mailbox fit in a {@code byte[64]}.
+ * Empty squares are represented by {@link #NONE}.
+ * </p>
+ * <p>
+ * The constants intentionally do not reuse the ordinals of {@code PieceColor} and {@code PieceType}:
+ * the engine convention is white first and pieces ordered by value, which makes table lookups
+ * (attack tables, piece values) straightforward.
+ * </p>
+ */
+public final class Pieces {
+
+    /** Color index of the white side. */
+    public static final int WHITE = 0;
+
+    /** Color index of the black side. */
+    public static final int BLACK = 1;
+
+    /** Piece type index of a pawn. */
+    public static final int PAWN = 0;
+
+    /** Piece type index of a knight. */
+    public static final int KNIGHT = 1;
+
+    /** Piece type index of a bishop. */
+    public static final int BISHOP = 2;
+
+    /** Piece type index of a rook. */
+    public static final int ROOK = 3;
+
+    /** Piece type index of a queen. */
+    public static final int QUEEN = 4;
+
+    /** Piece type index of a king. */
+    public static final int KING = 5;
+
+    /** Number of distinct piece types per color. */
+    public static final int TYPE_COUNT = 6;
+
+    /** Number of distinct colored pieces. */
+    public static final int PIECE_COUNT = 12;
+
+    /** Marker for an empty square. */
+    public static final int NONE = -1;
+
+    /** FEN characters indexed by piece code. */
+    private static final String FEN_CHARS = "PNBRQKpnbrqk";
+
+    private Pieces() {
+    }
+
+    /**
+     * Combines a color and a piece type into a piece code.
+     *
+     * @param color The color index ({@link #WHITE} or {@link #BLACK}).
+     * @param type  The piece type index ({@link #PAWN} .. {@link #KING}).
+     * @return The piece code.
+     */
+    public static int make(int color, int type) {
+        return color * TYPE_COUNT + type;
+    }
+
+    /**
+     * Returns the color index of a piece code.
+     *
+     * @param piece The piece code.
+     * @return The color index.
+     */
+    public static int color(int piece) {
+        return piece >= TYPE_COUNT ? BLACK : WHITE;
+    }
+
+    /**
+     * Returns the piece type index of a piece code.
+     *
+     * @param piece The piece code.
+     * @return The piece type index.
+     */
+    public static int type(int piece) {
+        return piece >= TYPE_COUNT ? piece - TYPE_COUNT : piece;
+    }
+
+    /**
+     * Returns the opposite color index.
+     *
+     * @param color The color index.
+     * @return The color index of the opponent.
+     */
+    public static int opposite(int color) {
+        return color ^ 1;
+    }
+
+    /**
+     * Returns the FEN character of a piece code (upper case for white, lower case for black).
+     *
+     * @param piece The piece code.
+     * @return The FEN character.
+     */
+    public static char toFenChar(int piece) {
+        return FEN_CHARS.charAt(piece);
+    }
+
+    /**
+     * Parses a FEN piece character.
+     *
+     * @param c The FEN character.
+     * @return The piece code.
+     * @throws IllegalArgumentException if the character does not denote a piece.
+     */
+    public static int fromFenChar(char c) {
+        int piece = FEN_CHARS.indexOf(c);
+        if (piece < 0) {
+            throw new IllegalArgumentException("Unexpected FEN piece: " + c);
+        }
+        return piece;
+    }
+}
@@ -0,0 +1,155 @@
+package at.chess.chesssimulator.board.bitboard;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+
+/**
+ * Zobrist keys for hashing chess positions into 64-bit values.
+ * <p>
+ * Every (piece, square) pair, the side to move, each castling rights combination and each en-passant file gets a
+ * random 64-bit key. The key of a position is the XOR of the keys of all its features, so a move only has to XOR
+ * out what disappeared and XOR in what appeared. {@link BitboardPosition} maintains its key that way on every
+ * make and unmake.
+ * </p>
+ * <p>
+ * The keys are generated from a fixed seed, so they are identical on every JVM. Keys may therefore be persisted
+ * (e.g. in opening books) or exchanged between client and server.
+ * </p>
+ */
+public final class Zobrist {
+
+    /** Seed of the key generator. Changing it invalidates every persisted key. */
+    private static final long SEED = 0x3243F6A8885A308DL;
+
+    /** One key per piece code and square, indexed by {@code piece * 64 + square}. */
+    private static final long[] PIECE_SQUARE = new long[Pieces.PIECE_COUNT * 64];
+
+    /** One key per castling rights combination. */
+    private static final long[] CASTLING = new long[16];
+
+    /** One key per en-passant file. */
+    private static final long[] EN_PASSANT = new long[8];
+
+    /** Key toggled when black is to move. */
+    private static final long SIDE;
+
+    static {
+        long[] state = {SEED};
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = next(state);
+        }
+
+        // The castling keys are composed of one key per right, so removing a right is a single XOR as well
+        long[] rights = {next(state), next(state), next(state), next(state)};
+        for (int i = 0; i < CASTLING.length; i++) {
+            for (int right = 0; right < 4; right++) {
+                if ((i & (1 << right)) != 0) {
+                    CASTLING[i] ^= rights[right];
+                }
+            }
+        }
+
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = next(state);
+        }
+        SIDE = next(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a piece standing on a square.
+     *
+     * @param piece  The piece code.
+     * @param square The square index.
+     * @return The key.
+     */
+    public static long piece(int piece, int square) {
+        return PIECE_SQUARE[(piece << 6) | square];
+    }
+
+    /**
+     * Returns the key of a castling rights combination.
+     *
+     * @param castlingRights The castling rights bit set.
+     * @return The key, {@code 0} if no rights are left.
+     */
+    public static long castling(int castlingRights) {
+        return CASTLING[castlingRights];
+    }
+
+    /**
+     * Returns the key of an en-passant target square. Only the file is hashed.
+     *
+     * @param square The en-passant square, or {@link Bitboards#NO_SQUARE}.
+     * @return The key, {@code 0} for {@link Bitboards#NO_SQUARE}.
+     */
+    public static long enPassant(int square) {
+        return square == NO_SQUARE ? 0L : EN_PASSANT[file(square)];
+    }
+
+    /**
+     * Returns the key toggled when the side to move changes.
+     *
+     * @return The side key.
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    /**
+     * Computes the key of a position from scratch.
+     * <p>
+     * Positions keep their key up to date incrementally; this is meant for loading positions and for verifying
+     * the incremental updates.
+     * </p>
+     *
+     * @param position The position.
+     * @return The Zobrist key.
+     */
+    public static long compute(BitboardPosition position) {
+        long key = 0L;
+        long occupied = position.getOccupied();
+        while (occupied != 0) {
+            int square = lsb(occupied);
+            occupied &= occupied - 1;
+            key ^= piece(position.pieceAt(square), square);
+        }
+        key ^= castling(position.getCastlingRights());
+        key ^= enPassant(position.getEnPassantSquare());
+        if (position.getSideToMove() == Pieces.BLACK) {
+            key ^= SIDE;
+        }
+        return key;
+    }
+
+    /**
+     * Computes the key of the pawns of a position from scratch, the counterpart of
+     * {@link BitboardPosition#getPawnKey()}.
+     *
+     * @param position The position.
+     * @return The XOR of the keys of all pawns.
+     */
+    public static long computePawnKey(BitboardPosition position) {
+        long key = 0L;
+        for (int color = Pieces.WHITE; color <= Pieces.BLACK; color++) {
+            long pawns = position.getPieces(color, Pieces.PAWN);
+            while (pawns != 0) {
+                int square = lsb(pawns);
+                pawns &= pawns - 1;
+                key ^= piece(Pieces.make(color, Pieces.PAWN), square);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * SplitMix64 step; good enough statistical quality for hashing and trivially reproducible.
+     */
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
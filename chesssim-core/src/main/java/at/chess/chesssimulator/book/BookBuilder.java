@@ -0,0 +1,200 @@
+package at.chess.chesssimulator.book;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+import at.chess.chesssimulator.notation.Notation;
+import at.chess.chesssimulator.notation.PgnReader;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles PGN games into an {@link OpeningBook} file.
+ * <p>
+ * The first plies of every game are replayed and each (position, move) pair is counted. A move earns two points
+ * per game its side won, one per draw or unknown result and none per loss; the points become the weight of the
+ * book entry, so moves that were played often and successfully are picked most. Pairs seen in fewer than
+ * {@code minGames} games, and moves that only lost, are left out.
+ * </p>
+ */
+public class BookBuilder {
+
+    protected static final Logger logger = LoggerFactory.getLogger(BookBuilder.class);
+
+    /** Plies of every game that go into the book by default. */
+    public static final int DEFAULT_MAX_PLIES = 24;
+
+    /** Games a move must have been played in by default to be kept. */
+    public static final int DEFAULT_MIN_GAMES = 2;
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPlies;
+
+    private final int minGames;
+
+    /** Points and games per position key and move. */
+    private final Map<Long, Map<Integer, int[]>> statistics = new HashMap<>();
+
+    /** Games added so far. */
+    @Getter
+    private int games;
+
+    /** Games that stopped early at a move that could not be parsed. */
+    @Getter
+    private int brokenGames;
+
+    /**
+     * Creates a builder.
+     *
+     * @param maxPlies The plies of every game to include.
+     * @param minGames The games a move must have been played in to be kept.
+     */
+    public BookBuilder(int maxPlies, int minGames) {
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+    }
+
+    /**
+     * Adds all games of a PGN file.
+     *
+     * @param file The PGN file, UTF-8 encoded.
+     * @throws IOException if the file cannot be read.
+     */
+    public void addPgn(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            PgnReader pgn = new PgnReader(reader);
+            while (pgn.next()) {
+                addGame(pgn.getTags().getOrDefault("FEN", BitboardPosition.START_FEN), pgn.getMoves(),
+                        pgn.getResult());
+            }
+        }
+    }
+
+    /**
+     * Adds a single game.
+     *
+     * @param fen    The start position.
+     * @param moves  The moves in SAN.
+     * @param result The PGN result token.
+     */
+    public void addGame(String fen, List<String> moves, String result) {
+        games++;
+        BitboardPosition position;
+        try {
+            position = new BitboardPosition(fen);
+        } catch (IllegalArgumentException e) {
+            brokenGames++;
+            return;
+        }
+
+        int plies = Math.min(moves.size(), maxPlies);
+        for (int i = 0; i < plies; i++) {
+            int move;
+            try {
+                move = Notation.parseSan(position, moves.get(i));
+            } catch (IllegalArgumentException e) {
+                logger.debug("Game {}: {}", games, e.getMessage());
+                brokenGames++;
+                return;
+            }
+            int[] counts = statistics.computeIfAbsent(position.getKey(), key -> new HashMap<>())
+                    .computeIfAbsent(move, key -> new int[2]);
+            counts[0] += points(result, position.getSideToMove());
+            counts[1]++;
+            position.makeMove(move);
+        }
+    }
+
+    /**
+     * Writes the book.
+     *
+     * @param file The book file to create or replace.
+     * @return The number of entries written.
+     * @throws IOException if the file cannot be written.
+     */
+    public int write(Path file) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, int[]>> position : statistics.entrySet()) {
+            int maxPoints = 0;
+            for (int[] counts : position.getValue().values()) {
+                maxPoints = Math.max(maxPoints, counts[0]);
+            }
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                int[] counts = move.getValue();
+                if (counts[1] < minGames || counts[0] == 0) {
+                    continue;
+                }
+                // Scale the weights of very popular positions down to 16 bits, keeping their ratios
+                long weight = maxPoints <= MAX_WEIGHT
+                        ? counts[0]
+                        : Math.max(1, (long) counts[0] * MAX_WEIGHT / maxPoints);
+                entries.add(new long[]{position.getKey(), move.getKey(), weight, counts[1]});
+            }
+        }
+        // Unsigned key order as in Polyglot books, heaviest move first
+        entries.sort((a, b) -> a[0] != b[0] ? Long.compareUnsigned(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+                out.writeInt((int) entry[3]);
+            }
+        }
+        logger.info("Wrote {} entries from {} games ({} broken) to {}", entries.size(), games, brokenGames, file);
+        return entries.size();
+    }
+
+    private static int points(String result, int sideToMove) {
+        return switch (result) {
+            case "1-0" -> sideToMove == Pieces.WHITE ? 2 : 0;
+            case "0-1" -> sideToMove == Pieces.BLACK ? 2 : 0;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Builds a book on the command line.
+     *
+     * @param args {@code <book> <pgn>... [--plies n] [--min-games n]}
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BookBuilder <book> <pgn>... [--plies n] [--min-games n]");
+            return;
+        }
+
+        int plies = DEFAULT_MAX_PLIES;
+        int minGames = DEFAULT_MIN_GAMES;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--min-games" -> minGames = Integer.parseInt(args[++i]);
+                default -> inputs.add(Path.of(args[i]));
+            }
+        }
+
+        BookBuilder builder = new BookBuilder(plies, minGames);
+        for (Path input : inputs) {
+            builder.addPgn(input);
+        }
+        int entries = builder.write(Path.of(args[0]));
+        System.out.println(entries + " entries from " + builder.getGames() + " games");
+    }
+}
@@ -0,0 +1,176 @@
+package at.chess.chesssimulator.book;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import at.chess.chesssimulator.notation.Notation;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book, memory-mapped from a file written by {@link BookBuilder}.
+ * <p>
+ * The file uses the entry layout of Polyglot books: a sequence of 16-byte big-endian entries, sorted by key and,
+ * per key, by descending weight.
+ * </p>
+ * <pre>
+ * int64   Zobrist key of the position ({@link BitboardPosition#getKey()})
+ * int16   move, encoded as in {@link Moves}
+ * uint16  weight, proportional to how often and how well the move was played
+ * int32   number of games the move was played in
+ * </pre>
+ * <p>
+ * Keys and moves are this project's own, so Polyglot books cannot be read directly; rebuild them from PGN with
+ * {@link BookBuilder}. Lookups binary-search the mapped file with absolute reads: they allocate nothing, take a
+ * few microseconds and may run concurrently from any number of threads. Every move is checked for legality
+ * before it is returned, so key collisions can never produce an illegal move.
+ * </p>
+ */
+public final class OpeningBook {
+
+    /** Size of an entry in bytes. */
+    public static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+
+    /** The number of entries. */
+    @Getter
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.capacity() / ENTRY_BYTES;
+    }
+
+    /**
+     * Maps a book file.
+     *
+     * @param file The book file.
+     * @return The book.
+     * @throws IOException if the file cannot be read or is not a book.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_BYTES != 0 || length / ENTRY_BYTES > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            return new OpeningBook(buffer);
+        }
+    }
+
+    /**
+     * Lists the book moves of a position.
+     *
+     * @param position The position; not modified.
+     * @param moves    Receives the legal book moves, heaviest first.
+     * @param weights  Receives the weight of each move.
+     * @return The number of moves written, at most the length of the arrays.
+     */
+    public int probe(BitboardPosition position, int[] moves, int[] weights) {
+        long key = position.getKey();
+        int count = 0;
+        for (int i = firstEntry(key); i < size && keyAt(i) == key && count < moves.length; i++) {
+            int move = moveAt(i);
+            if (MoveGenerator.isLegal(position, move)) {
+                moves[count] = move;
+                weights[count++] = weightAt(i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Picks a book move at random, each with a probability proportional to its weight.
+     *
+     * @param position The position; not modified.
+     * @param random   The source of randomness.
+     * @return The move, or {@link Moves#NONE} if the position is not in the book.
+     */
+    public int pick(BitboardPosition position, RandomGenerator random) {
+        long key = position.getKey();
+        int first = firstEntry(key);
+        long total = 0;
+        for (int i = first; i < size && keyAt(i) == key; i++) {
+            if (MoveGenerator.isLegal(position, moveAt(i))) {
+                total += weightAt(i);
+            }
+        }
+        if (total == 0) {
+            return Moves.NONE;
+        }
+
+        long target = random.nextLong(total);
+        for (int i = first; i < size && keyAt(i) == key; i++) {
+            int move = moveAt(i);
+            if (MoveGenerator.isLegal(position, move)) {
+                target -= weightAt(i);
+                if (target < 0) {
+                    return move;
+                }
+            }
+        }
+        return Moves.NONE;
+    }
+
+    /**
+     * Returns the index of the first entry with the key, or of the first larger key.
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(index * ENTRY_BYTES);
+    }
+
+    private int moveAt(int index) {
+        return Short.toUnsignedInt(buffer.getShort(index * ENTRY_BYTES + 8));
+    }
+
+    private int weightAt(int index) {
+        return Short.toUnsignedInt(buffer.getShort(index * ENTRY_BYTES + 10));
+    }
+
+    /**
+     * Prints the book moves of a position.
+     *
+     * @param args {@code <book> [fen]}
+     * @throws IOException if the book cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: OpeningBook <book> [fen]");
+            return;
+        }
+
+        OpeningBook book = open(Path.of(args[0]));
+        BitboardPosition position = new BitboardPosition(args.length > 1 ? args[1] : BitboardPosition.START_FEN);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] weights = new int[MoveGenerator.MAX_MOVES];
+        int count = book.probe(position, moves, weights);
+        System.out.println(book.getSize() + " entries, " + count + " moves for " + position.toFen());
+        for (int i = 0; i < count; i++) {
+            System.out.printf("%-8s %5d%n", Notation.toSan(position, moves[i]), weights[i]);
+        }
+    }
+}
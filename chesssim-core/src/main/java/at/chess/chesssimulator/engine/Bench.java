@@ -0,0 +1,118 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.engine.nnue.Network;
+import at.chess.chesssimulator.engine.nnue.NnueEvaluator;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-depth search over a standard set of positions, used to compare search changes and machines.
+ * <p>
+ * The node count of a single-threaded bench is deterministic: a change that does not alter the search keeps it,
+ * and better move ordering or pruning lowers it. The time yields a nodes-per-second figure.
+ * </p>
+ * <p>
+ * Usage: {@code Bench [depth] [--threads n] [--hash mb] [--nnue file]}.
+ * </p>
+ */
+public final class Bench {
+
+    /** Default search depth of a bench run. */
+    public static final int DEFAULT_DEPTH = 7;
+
+    /** Opening, middlegame and endgame positions with tactics, castling, promotions and en-passant. */
+    public static final String[] POSITIONS = {
+            BitboardPosition.START_FEN,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+            "2r3k1/pp3ppp/2n1b3/3p4/3P4/2NB1N2/PP3PPP/2R3K1 w - - 0 20",
+            "8/8/1p2k3/p1p1p3/P1P1P3/1P2K3/8/8 w - - 0 40",
+            "6k1/5p2/6p1/8/7p/8/6PP/6K1 b - - 0 45",
+    };
+
+    private Bench() {
+    }
+
+    /**
+     * Searches every bench position to a fixed depth with an emptied table.
+     *
+     * @param search The search to use.
+     * @param depth  The depth in plies.
+     * @return The totals of the run.
+     */
+    public static Result run(LazySmpSearch search, int depth) {
+        long nodes = 0;
+        long start = System.nanoTime();
+        for (String fen : POSITIONS) {
+            search.getTable().clear();
+            search.search(new BitboardPosition(fen), SearchLimits.depth(depth));
+            nodes += search.getNodes();
+        }
+        return new Result(nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Totals of a {@link #run(LazySmpSearch, int)}.
+     */
+    @Getter
+    public static final class Result {
+
+        /** The nodes searched by all threads. */
+        private final long nodes;
+
+        /** The elapsed wall clock time in nanoseconds. */
+        private final long nanos;
+
+        private Result(long nodes, long nanos) {
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the speed of the run.
+         *
+         * @return Nodes per second.
+         */
+        public long getNodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+    }
+
+    /**
+     * Runs the bench on the command line.
+     *
+     * @param args {@code [depth] [--threads n] [--hash mb] [--nnue file]}
+     * @throws IOException if the network file cannot be loaded.
+     */
+    public static void main(String[] args) throws IOException {
+        int depth = DEFAULT_DEPTH;
+        int threads = 1;
+        int hash = Search.DEFAULT_HASH_MB;
+        Supplier<Evaluator> evaluators = ClassicalEvaluator::new;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                case "--nnue" -> {
+                    Network network = Network.load(Path.of(args[++i]));
+                    evaluators = () -> new NnueEvaluator(network);
+                }
+                default -> depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        try (LazySmpSearch search = new LazySmpSearch(evaluators, threads, new TranspositionTable(hash))) {
+            Result result = run(search, depth);
+            System.out.printf("Nodes: %d%nTime: %d ms%nNPS: %d%n",
+                    result.getNodes(), result.getNanos() / 1_000_000, result.getNodesPerSecond());
+        }
+    }
+}
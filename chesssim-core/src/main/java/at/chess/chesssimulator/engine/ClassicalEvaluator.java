@@ -0,0 +1,73 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.PieceSquareTables;
+import lombok.Getter;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Hand-crafted evaluation: material and piece-square tables, pawn structure and passed pawns, tapered by phase.
+ * <p>
+ * Material and placement come incrementally from the position like in {@link PieceSquareEvaluator}; the pawn
+ * structure comes from the {@link PawnStructure} cache. Only the passed pawn term that depends on the other
+ * pieces, a free square in front of the pawn, is computed per call, from the cached passed pawn masks.
+ * </p>
+ * <p>
+ * An instance owns its pawn hash table and must not be shared between search threads.
+ * </p>
+ */
+public class ClassicalEvaluator implements Evaluator {
+
+    /** Default size of the pawn hash table. */
+    public static final int DEFAULT_PAWN_HASH_KB = 1024;
+
+    /** Endgame bonus of a passed pawn whose stop square is empty, by rank relative to the pawn's color. */
+    private static final int[] FREE_PASSER_ENDGAME = {0, 0, 5, 10, 20, 35, 55, 0};
+
+    @Getter
+    private final PawnStructure pawnStructure;
+
+    /**
+     * Creates an evaluator with a pawn hash table of {@link #DEFAULT_PAWN_HASH_KB}.
+     */
+    public ClassicalEvaluator() {
+        this(new PawnStructure(DEFAULT_PAWN_HASH_KB));
+    }
+
+    /**
+     * Creates an evaluator.
+     *
+     * @param pawnStructure The pawn structure cache to use; owned by this evaluator from now on.
+     */
+    public ClassicalEvaluator(PawnStructure pawnStructure) {
+        this.pawnStructure = pawnStructure;
+    }
+
+    @Override
+    public int evaluate(BitboardPosition position) {
+        int slot = pawnStructure.probe(position);
+        int midgame = position.getMidgameScore() + pawnStructure.midgame(slot);
+        int endgame = position.getEndgameScore() + pawnStructure.endgame(slot);
+
+        long passed = pawnStructure.passedPawns(slot);
+        if (passed != 0) {
+            long empty = ~position.getOccupied();
+            long white = passed & position.getPieces(WHITE, PAWN) & (empty >>> 8);
+            long black = passed & position.getPieces(BLACK, PAWN) & (empty << 8);
+            while (white != 0) {
+                endgame += FREE_PASSER_ENDGAME[rank(lsb(white))];
+                white &= white - 1;
+            }
+            while (black != 0) {
+                endgame -= FREE_PASSER_ENDGAME[7 - rank(lsb(black))];
+                black &= black - 1;
+            }
+        }
+
+        int phase = Math.min(position.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return position.getSideToMove() == WHITE ? score : -score;
+    }
+}
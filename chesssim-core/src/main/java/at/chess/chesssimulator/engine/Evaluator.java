@@ -0,0 +1,22 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+
+/**
+ * Static evaluation of a position, used at the leaves of the {@link Search}.
+ * <p>
+ * Implementations must not allocate and must not modify the position; the search calls them millions of times per
+ * second. Scores are in centipawns from the point of view of the side to move and must stay well inside
+ * {@code (-Search.MATE_BOUND, Search.MATE_BOUND)} so they cannot be mistaken for mate scores.
+ * </p>
+ */
+public interface Evaluator {
+
+    /**
+     * Evaluates a position.
+     *
+     * @param position The position to evaluate.
+     * @return The score in centipawns, positive if the side to move stands better.
+     */
+    int evaluate(BitboardPosition position);
+}
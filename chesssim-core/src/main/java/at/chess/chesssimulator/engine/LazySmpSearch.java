@@ -0,0 +1,170 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.tablebase.Tablebases;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Parallel search after the "Lazy SMP" scheme: several independent {@link Search} threads search the same root and
+ * cooperate only through a shared {@link TranspositionTable}.
+ * <p>
+ * The main search runs on the calling thread and decides when the search ends; its result is the result of the
+ * whole search. The helpers run on a private pool with unlimited budgets until the main search returns. Every
+ * second helper searches each iteration one ply deeper, so the threads spread over neighbouring depths and fill
+ * the table with entries the main search can cut off on.
+ * </p>
+ * <p>
+ * Every thread owns its {@link Search}, which owns its position copy and buffers, so no board state is shared
+ * besides the lock-free table. Call {@link #close()} to release the helper threads.
+ * </p>
+ */
+public class LazySmpSearch implements AutoCloseable {
+
+    protected static final Logger logger = LoggerFactory.getLogger(LazySmpSearch.class);
+
+    @Getter
+    private final TranspositionTable table;
+
+    private final Search main;
+
+    private final Search[] helpers;
+
+    private final ExecutorService pool;
+
+    /** Nodes of all threads during the last search. */
+    @Getter
+    private long nodes;
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param evaluators Creates one evaluator per thread, so evaluators may keep per-thread state.
+     * @param threads    The total number of search threads, at least 1.
+     * @param table      The transposition table shared by all threads.
+     */
+    public LazySmpSearch(Supplier<Evaluator> evaluators, int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required: " + threads);
+        }
+        this.table = table;
+        this.main = new Search(evaluators.get(), table);
+        this.helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(evaluators.get(), table);
+        }
+        this.pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the total number of search threads.
+     *
+     * @return The number of threads including the calling one.
+     */
+    public int getThreads() {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Sets the endgame tables probed by all threads.
+     *
+     * @param tablebases The tables, or {@code null} to disable probing.
+     */
+    public void setTablebases(Tablebases tablebases) {
+        main.setTablebases(tablebases);
+        for (Search helper : helpers) {
+            helper.setTablebases(tablebases);
+        }
+    }
+
+    /**
+     * Searches a position with all threads.
+     *
+     * @param root   The position to search; it is copied and not modified.
+     * @param limits The limits, applied to the main search.
+     * @return The result of the main search.
+     */
+    public SearchResult search(BitboardPosition root, SearchLimits limits) {
+        return search(root, limits, new TimeManager(limits));
+    }
+
+    /**
+     * Searches a position with all threads and a time manager created by the caller, who may keep it to call
+     * {@link TimeManager#ponderhit()} on a ponder search.
+     *
+     * @param root        The position to search; it is copied and not modified.
+     * @param limits      The limits, applied to the main search.
+     * @param timeManager The time manager of the main search, created for these limits.
+     * @return The result of the main search.
+     */
+    public SearchResult search(BitboardPosition root, SearchLimits limits, TimeManager timeManager) {
+        table.newSearch();
+        main.reset();
+
+        SearchLimits helperLimits = SearchLimits.depth(Search.MAX_PLY - 1);
+        List<Future<SearchResult>> running = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            int depthOffset = (i + 1) & 1;
+            helper.reset();
+            running.add(pool.submit(() -> helper.iterate(root, helperLimits, new TimeManager(helperLimits),
+                    depthOffset)));
+        }
+
+        SearchResult result;
+        try {
+            result = main.iterate(root, limits, timeManager, 0);
+        } finally {
+            for (Search helper : helpers) {
+                helper.stop();
+            }
+        }
+
+        long total = main.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                running.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+            total += helpers[i].getNodes();
+        }
+        nodes = total;
+        logger.debug("{} threads searched {} nodes", getThreads(), total);
+        return result;
+    }
+
+    /**
+     * Asks a running search to return as soon as possible.
+     */
+    public void stop() {
+        main.stop();
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.count;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Evaluator counting material only.
+ * <p>
+ * Every term is a population count of a piece bitboard, so the evaluation is branch-free and independent of the
+ * number of pieces on the board.
+ * </p>
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    /** Piece values in centipawns, indexed by piece type. The king has no material value. */
+    public static final int[] VALUES = {100, 320, 330, 500, 900, 0};
+
+    @Override
+    public int evaluate(BitboardPosition position) {
+        int score = 0;
+        for (int type = PAWN; type < KING; type++) {
+            score += VALUES[type] * (count(position.getPieces(WHITE, type)) - count(position.getPieces(BLACK, type)));
+        }
+        return position.getSideToMove() == WHITE ? score : -score;
+    }
+}
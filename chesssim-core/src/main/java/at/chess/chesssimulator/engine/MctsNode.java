@@ -0,0 +1,91 @@
+package at.chess.chesssimulator.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A node of the {@link MctsSearch} tree.
+ * <p>
+ * The statistics are atomic counters, so any number of threads may select, expand and update nodes without
+ * locks. The value is kept from the point of view of the side that made the move leading to the node, which is
+ * the side choosing among the node and its siblings. Visits are counted when a thread descends through a node,
+ * before its playouts are finished: until the result arrives these visits count as losses (virtual loss), which
+ * steers the other threads towards different lines.
+ * </p>
+ * <p>
+ * Children are created once by the thread that wins the {@link #tryExpand()} race and published through a
+ * volatile field; the others keep treating the node as a leaf meanwhile.
+ * </p>
+ */
+final class MctsNode {
+
+    /** Fixed-point scale of the value: a won playout adds this much. */
+    static final long SCALE = 1 << 16;
+
+    private static final int UNEXPANDED = 0;
+
+    private static final int EXPANDING = 1;
+
+    private static final int EXPANDED = 2;
+
+    /** The move leading to this node, {@link at.chess.chesssimulator.movegen.Moves#NONE} for the root. */
+    final int move;
+
+    /** Visits including those whose playouts are still running. */
+    final AtomicInteger visits = new AtomicInteger();
+
+    /** Sum of the playout results in {@link #SCALE} units. */
+    final AtomicLong value = new AtomicLong();
+
+    private final AtomicInteger state = new AtomicInteger(UNEXPANDED);
+
+    private volatile MctsNode[] children;
+
+    MctsNode(int move) {
+        this.move = move;
+    }
+
+    /**
+     * Claims the expansion of this node.
+     *
+     * @return {@code true} for exactly one caller, which must then call {@link #expand(int[], int)}.
+     */
+    boolean tryExpand() {
+        return state.get() == UNEXPANDED && state.compareAndSet(UNEXPANDED, EXPANDING);
+    }
+
+    /**
+     * Creates the children of this node.
+     *
+     * @param moves The legal moves of the node's position.
+     * @param count The number of moves; {@code 0} for a terminal position.
+     */
+    void expand(int[] moves, int count) {
+        MctsNode[] created = new MctsNode[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new MctsNode(moves[i]);
+        }
+        children = created;
+        state.set(EXPANDED);
+    }
+
+    /**
+     * Returns the children.
+     *
+     * @return The children, or {@code null} while the node is not expanded.
+     */
+    MctsNode[] children() {
+        return children;
+    }
+
+    /**
+     * Returns the mean playout result of this node.
+     *
+     * @return The result between {@code 0} and {@code 1} for the side that moved into the node; virtual losses
+     *         pull it down while playouts are pending.
+     */
+    double mean() {
+        int n = visits.get();
+        return n == 0 ? 0.5 : (double) value.get() / SCALE / n;
+    }
+}
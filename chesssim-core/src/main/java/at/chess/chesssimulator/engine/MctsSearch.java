@@ -0,0 +1,376 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Monte-Carlo tree search with UCT selection, an alternative to the alpha-beta {@link Search}.
+ * <p>
+ * Every worker repeatedly descends the tree from the root, choosing at each node the child with the best upper
+ * confidence bound (mean result plus an exploration bonus that shrinks with the child's visits), expands the leaf
+ * it reaches and runs a batch of playouts from it. The results are added to every node on the path. The move
+ * played is the most visited child of the root.
+ * </p>
+ * <p>
+ * Playouts are short: a few plies in which winning captures (by {@link StaticExchange}) are preferred and other
+ * moves are random, followed by the static {@link Evaluator}, whose score is mapped to a winning probability.
+ * Batching several playouts per leaf amortizes the descent and the atomic updates over more evaluations.
+ * </p>
+ * <p>
+ * The workers run on virtual threads and share the tree without locks (see {@link MctsNode}); each owns its
+ * position copy, evaluator and random generator. Depth limits do not apply; the search runs until the time
+ * manager's soft limit, the node limit (counted in playouts) or {@link #stop()}.
+ * </p>
+ */
+public class MctsSearch {
+
+    protected static final Logger logger = LoggerFactory.getLogger(MctsSearch.class);
+
+    /** Playouts per selected leaf. */
+    public static final int DEFAULT_BATCH = 4;
+
+    /** Weight of the exploration term of the UCT formula. */
+    private static final double EXPLORATION = 1.0;
+
+    /** Plies played out before the leaf is evaluated. */
+    private static final int PLAYOUT_PLIES = 6;
+
+    /** Centipawns per unit of the logistic mapping of scores to results; 400 / ln(10) as in Elo ratings. */
+    private static final double SCORE_SCALE = 173.7;
+
+    /** No more nodes are created beyond this tree size, so long searches cannot exhaust the heap. */
+    private static final int MAX_TREE_NODES = 4_000_000;
+
+    private final Supplier<Evaluator> evaluators;
+
+    @Getter
+    private final int workers;
+
+    @Getter
+    private final int batch;
+
+    private final AtomicLong treeNodes = new AtomicLong();
+
+    private final AtomicLong playouts = new AtomicLong();
+
+    private volatile boolean stopped;
+
+    /**
+     * Creates a search.
+     *
+     * @param evaluators Creates one evaluator per worker, so evaluators may keep per-thread state.
+     * @param workers    The number of virtual worker threads, at least 1.
+     * @param batch      The number of playouts per selected leaf, at least 1.
+     */
+    public MctsSearch(Supplier<Evaluator> evaluators, int workers, int batch) {
+        if (workers < 1 || batch < 1) {
+            throw new IllegalArgumentException("Workers and batch size must be at least 1: " + workers + ", " + batch);
+        }
+        this.evaluators = evaluators;
+        this.workers = workers;
+        this.batch = batch;
+    }
+
+    /**
+     * Searches a position.
+     *
+     * @param root   The position to search; it is copied and not modified.
+     * @param limits The limits; the time and node budgets apply, the depth does not.
+     * @return The most visited move, its score converted back to centipawns and the most visited line.
+     */
+    public SearchResult search(BitboardPosition root, SearchLimits limits) {
+        return search(root, limits, new TimeManager(limits));
+    }
+
+    /**
+     * Searches a position with a time manager created by the caller.
+     *
+     * @param root        The position to search; it is copied and not modified.
+     * @param limits      The limits; the time and node budgets apply, the depth does not.
+     * @param timeManager The time manager created for these limits.
+     * @return The most visited move, see {@link #search(BitboardPosition, SearchLimits)}.
+     */
+    public SearchResult search(BitboardPosition root, SearchLimits limits, TimeManager timeManager) {
+        long start = System.nanoTime();
+        stopped = false;
+        treeNodes.set(1);
+        playouts.set(0);
+        MctsNode tree = new MctsNode(Moves.NONE);
+        BitboardPosition rootCopy = root.copy();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                Worker worker = new Worker(rootCopy, evaluators.get(), i);
+                running.add(executor.submit(() -> worker.run(tree, limits.getNodes(), timeManager)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search worker failed", e.getCause());
+        }
+
+        SearchResult result = result(tree, root, System.nanoTime() - start);
+        logger.debug("MCTS with {} workers: {} ({} tree nodes)", workers, result, treeNodes.get());
+        return result;
+    }
+
+    /**
+     * Asks a running search to return as soon as possible.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private SearchResult result(MctsNode tree, BitboardPosition root, long nanos) {
+        List<Integer> line = new ArrayList<>();
+        MctsNode node = tree;
+        MctsNode best = null;
+        while (node.children() != null) {
+            MctsNode next = mostVisited(node);
+            if (next == null || next.visits.get() == 0) {
+                break;
+            }
+            if (best == null) {
+                best = next;
+            }
+            line.add(next.move);
+            node = next;
+        }
+
+        int[] pv = line.stream().mapToInt(Integer::intValue).toArray();
+        if (best == null) {
+            // Not a single playout finished: fall back to any legal move, or none if the game is over
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generateLegal(root, moves);
+            int move = count == 0 ? Moves.NONE : moves[0];
+            return new SearchResult(move, Search.DRAW, 0, playouts.get(), nanos,
+                    move == Moves.NONE ? new int[0] : new int[]{move});
+        }
+        return new SearchResult(best.move, toScore(best.mean()), pv.length, playouts.get(), nanos, pv);
+    }
+
+    private static MctsNode mostVisited(MctsNode node) {
+        MctsNode best = null;
+        for (MctsNode child : node.children()) {
+            if (best == null || child.visits.get() > best.visits.get()) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Maps a centipawn score to the expected result of the side it belongs to.
+     */
+    private static double toResult(int score) {
+        return 1.0 / (1.0 + Math.exp(-score / SCORE_SCALE));
+    }
+
+    /**
+     * Maps an expected result back to centipawns, the inverse of {@link #toResult(int)}.
+     */
+    private static int toScore(double result) {
+        double clamped = Math.max(1e-6, Math.min(result, 1 - 1e-6));
+        int score = (int) Math.round(SCORE_SCALE * Math.log(clamped / (1 - clamped)));
+        return Math.max(-Search.MATE_BOUND / 2, Math.min(score, Search.MATE_BOUND / 2));
+    }
+
+    /**
+     * The loop of one virtual thread. All fields are private to the thread.
+     */
+    private final class Worker {
+
+        private final BitboardPosition root;
+
+        private final BitboardPosition position = new BitboardPosition();
+
+        private final Evaluator evaluator;
+
+        private final SplittableRandom random;
+
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        private final MctsNode[] path = new MctsNode[Search.MAX_PLY * 4];
+
+        Worker(BitboardPosition root, Evaluator evaluator, int seed) {
+            this.root = root;
+            this.evaluator = evaluator;
+            this.random = new SplittableRandom(seed);
+        }
+
+        void run(MctsNode tree, long nodeLimit, TimeManager timeManager) {
+            while (!stopped && playouts.get() < nodeLimit && !timeManager.isSoftLimitReached()) {
+                iterate(tree);
+            }
+        }
+
+        private void iterate(MctsNode tree) {
+            position.copyFrom(root);
+            int length = 0;
+            MctsNode node = tree;
+            path[length++] = node;
+            node.visits.addAndGet(batch);
+
+            // Selection: descend through expanded nodes, counting the pending playouts as visits
+            MctsNode[] children;
+            while ((children = node.children()) != null && children.length > 0 && length < path.length) {
+                node = select(node, children);
+                node.visits.addAndGet(batch);
+                position.makeMove(node.move);
+                path[length++] = node;
+            }
+
+            // Expansion: a leaf that already had its playouts gets children, and one of them is played out
+            if (children == null && node.visits.get() > batch && treeNodes.get() < MAX_TREE_NODES
+                    && node.tryExpand()) {
+                int count = MoveGenerator.generateLegal(position, moves);
+                node.expand(moves, count);
+                treeNodes.addAndGet(count);
+                if (count > 0 && length < path.length) {
+                    node = node.children()[random.nextInt(count)];
+                    node.visits.addAndGet(batch);
+                    position.makeMove(node.move);
+                    path[length++] = node;
+                }
+            }
+            double result = playouts();
+            playouts.addAndGet(batch);
+
+            // Backpropagation: the result alternates between the two sides on the way up
+            long won = Math.round(result * MctsNode.SCALE);
+            long total = batch * MctsNode.SCALE;
+            for (int i = length - 1; i >= 0; i--) {
+                path[i].value.addAndGet(won);
+                won = total - won;
+            }
+        }
+
+        private MctsNode select(MctsNode parent, MctsNode[] children) {
+            double logParent = Math.log(Math.max(1, parent.visits.get()));
+            MctsNode best = null;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            int offset = random.nextInt(children.length);
+            for (int i = 0; i < children.length; i++) {
+                MctsNode child = children[(i + offset) % children.length];
+                int visits = child.visits.get();
+                if (visits == 0) {
+                    return child;
+                }
+                double bound = child.mean() + EXPLORATION * Math.sqrt(logParent / visits);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Runs the batch of playouts from the current position.
+         *
+         * @return The summed results for the side that moved into the position, between {@code 0} and the batch
+         *         size.
+         */
+        private double playouts() {
+            double sum = 0;
+            for (int i = 0; i < batch; i++) {
+                sum += 1 - playout();
+            }
+            return sum;
+        }
+
+        /**
+         * Plays out the current position and takes the moves back afterwards.
+         *
+         * @return The result for the side to move, between {@code 0} and {@code 1}.
+         */
+        private double playout() {
+            int plies = 0;
+            double result = Double.NaN;
+            while (plies < PLAYOUT_PLIES) {
+                if (position.getHalfmoveClock() >= 100) {
+                    result = 0.5;
+                    break;
+                }
+                int count = MoveGenerator.generateLegal(position, moves);
+                if (count == 0) {
+                    result = position.inCheck() ? 0 : 0.5;
+                    break;
+                }
+                position.makeMove(pick(count));
+                plies++;
+            }
+            if (Double.isNaN(result)) {
+                result = toResult(evaluator.evaluate(position));
+            }
+            for (int i = 0; i < plies; i++) {
+                position.unmakeMove();
+            }
+            // Each ply switched the side the result belongs to
+            return (plies & 1) == 0 ? result : 1 - result;
+        }
+
+        /**
+         * Picks a random winning capture if there is one, otherwise a random move.
+         */
+        private int pick(int count) {
+            int captures = 0;
+            for (int i = 0; i < count; i++) {
+                if (Moves.isCapture(moves[i]) && StaticExchange.isAtLeast(position, moves[i], 1)) {
+                    int capture = moves[i];
+                    moves[i] = moves[captures];
+                    moves[captures++] = capture;
+                }
+            }
+            return moves[captures > 0 ? random.nextInt(captures) : random.nextInt(count)];
+        }
+    }
+
+    /**
+     * Searches a position on the command line.
+     *
+     * @param args {@code <movetime ms> [fen] [--workers n] [--batch n]}
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: MctsSearch <movetime ms> [fen] [--workers n] [--batch n]");
+            return;
+        }
+
+        long moveTime = Long.parseLong(args[0]);
+        String fen = BitboardPosition.START_FEN;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int batch = DEFAULT_BATCH;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers" -> workers = Integer.parseInt(args[++i]);
+                case "--batch" -> batch = Integer.parseInt(args[++i]);
+                default -> fen = args[i];
+            }
+        }
+
+        SearchResult result = new MctsSearch(ClassicalEvaluator::new, workers, batch)
+                .search(new BitboardPosition(fen), SearchLimits.moveTime(moveTime));
+        System.out.println(result);
+        System.out.println("bestmove " + Moves.toUci(result.getBestMove()));
+    }
+}
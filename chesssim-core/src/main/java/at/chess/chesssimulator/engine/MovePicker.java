@@ -0,0 +1,255 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Staged, lazy move ordering for one node of the {@link Search}.
+ * <p>
+ * Moves are handed out one at a time in the order most likely to cause a cutoff early:
+ * </p>
+ * <ol>
+ *     <li>the hash move (or the move of the previous principal variation), played without generating anything,</li>
+ *     <li>captures and promotions that do not lose material according to {@link StaticExchange}, most valuable
+ *     victim first, least valuable attacker second (MVV-LVA),</li>
+ *     <li>the two killer moves of the ply, quiet moves that recently caused a cutoff in a sibling node,</li>
+ *     <li>the remaining quiet moves by their history score,</li>
+ *     <li>the losing captures put aside in the capture stage.</li>
+ * </ol>
+ * <p>
+ * In the quiescence search ({@link #initQuiescence(int, boolean)}) only the hash move and the captures that do
+ * not lose material are returned, unless the side to move is in check, where every evasion is needed.
+ * </p>
+ * <p>
+ * A stage generates its moves only once the previous stages are exhausted, so a node that is cut off by the hash
+ * move or a capture never generates its quiet moves. Hash and killer moves come from other positions and are
+ * therefore checked with {@link MoveGenerator#isLegal(BitboardPosition, int)} first; moves already handed out in
+ * an earlier stage are skipped in the later ones. Within a stage, the best remaining move is selected on demand
+ * instead of sorting the whole list.
+ * </p>
+ * <p>
+ * A picker owns its buffers and is reused for every node of its ply, so picking does not allocate.
+ * </p>
+ */
+final class MovePicker {
+
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_GENERATE_CAPTURES = 1;
+    private static final int STAGE_CAPTURES = 2;
+    private static final int STAGE_KILLER_1 = 3;
+    private static final int STAGE_KILLER_2 = 4;
+    private static final int STAGE_GENERATE_QUIETS = 5;
+    private static final int STAGE_QUIETS = 6;
+    private static final int STAGE_BAD_CAPTURES = 7;
+    private static final int STAGE_DONE = 8;
+
+    /** Piece values for MVV-LVA, indexed by piece type; only their ratios matter. */
+    private static final int[] ORDER_VALUES = {1, 3, 3, 5, 9, 10};
+
+    private final BitboardPosition position;
+
+    private final int[][] history;
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+
+    /** Captures that lose material, in MVV-LVA order. */
+    private final int[] badCaptures = new int[MoveGenerator.MAX_MOVES];
+
+    private int badCount;
+
+    private int stage;
+
+    private boolean quiescence;
+
+    private int index;
+
+    private int count;
+
+    private int hashMove;
+
+    private int killer1;
+
+    private int killer2;
+
+    /**
+     * Creates a picker.
+     *
+     * @param position The position the search plays on; it is read when a stage begins.
+     * @param history  The history table of the search, indexed by color and {@code from * 64 + to}.
+     */
+    MovePicker(BitboardPosition position, int[][] history) {
+        this.position = position;
+        this.history = history;
+    }
+
+    /**
+     * Prepares the picker for a new node.
+     *
+     * @param hashMove The move to try first, or {@link Moves#NONE}.
+     * @param killer1  The first killer move of the ply, or {@link Moves#NONE}.
+     * @param killer2  The second killer move of the ply, or {@link Moves#NONE}.
+     */
+    void init(int hashMove, int killer1, int killer2) {
+        this.stage = STAGE_HASH;
+        this.quiescence = false;
+        this.badCount = 0;
+        this.hashMove = hashMove;
+        this.killer1 = killer1 != hashMove ? killer1 : Moves.NONE;
+        this.killer2 = killer2 != hashMove ? killer2 : Moves.NONE;
+    }
+
+    /**
+     * Prepares the picker for a node of the quiescence search.
+     *
+     * @param hashMove The move stored in the transposition table, or {@link Moves#NONE}; quiet moves are ignored
+     *                 unless the side to move is in check.
+     * @param inCheck  Whether the side to move is in check, in which case all evasions are returned.
+     */
+    void initQuiescence(int hashMove, boolean inCheck) {
+        init(inCheck || Moves.isTactical(hashMove) ? hashMove : Moves.NONE, Moves.NONE, Moves.NONE);
+        this.quiescence = !inCheck;
+    }
+
+    /**
+     * Returns the next legal move.
+     *
+     * @return The move, or {@link Moves#NONE} once every legal move has been returned.
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH -> {
+                    stage = STAGE_GENERATE_CAPTURES;
+                    if (MoveGenerator.isLegal(position, hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = Moves.NONE;
+                }
+                case STAGE_GENERATE_CAPTURES -> {
+                    count = MoveGenerator.generateLegal(position, moves, 0, MoveGenerator.TACTICAL);
+                    index = 0;
+                    scoreCaptures();
+                    stage = STAGE_CAPTURES;
+                }
+                case STAGE_CAPTURES -> {
+                    while (index < count) {
+                        int move = pickBest();
+                        if (move == hashMove) {
+                            continue;
+                        }
+                        if (StaticExchange.isAtLeast(position, move, 0)) {
+                            return move;
+                        }
+                        if (!quiescence) {
+                            badCaptures[badCount++] = move;
+                        }
+                    }
+                    stage = quiescence ? STAGE_DONE : STAGE_KILLER_1;
+                }
+                case STAGE_KILLER_1 -> {
+                    stage = STAGE_KILLER_2;
+                    if (isQuietAndLegal(killer1)) {
+                        return killer1;
+                    }
+                    killer1 = Moves.NONE;
+                }
+                case STAGE_KILLER_2 -> {
+                    stage = STAGE_GENERATE_QUIETS;
+                    if (killer2 != killer1 && isQuietAndLegal(killer2)) {
+                        return killer2;
+                    }
+                    killer2 = Moves.NONE;
+                }
+                case STAGE_GENERATE_QUIETS -> {
+                    count = MoveGenerator.generateLegal(position, moves, 0, MoveGenerator.QUIET);
+                    index = 0;
+                    scoreQuiets();
+                    stage = STAGE_QUIETS;
+                }
+                case STAGE_QUIETS -> {
+                    while (index < count) {
+                        int move = pickBest();
+                        if (move != hashMove && move != killer1 && move != killer2) {
+                            return move;
+                        }
+                    }
+                    index = 0;
+                    stage = STAGE_BAD_CAPTURES;
+                }
+                case STAGE_BAD_CAPTURES -> {
+                    if (index < badCount) {
+                        return badCaptures[index++];
+                    }
+                    stage = STAGE_DONE;
+                }
+                default -> {
+                    return Moves.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of a move in a history table: its origin and target square.
+     *
+     * @param move The encoded move.
+     * @return A number in {@code [0, 4096)}.
+     */
+    static int historyIndex(int move) {
+        return move & 0xFFF;
+    }
+
+    private boolean isQuietAndLegal(int move) {
+        return move != Moves.NONE && !Moves.isTactical(move) && MoveGenerator.isLegal(position, move);
+    }
+
+    /**
+     * Scores captures by MVV-LVA; promotions add the value of the new piece, so a queen promotion comes early.
+     */
+    private void scoreCaptures() {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int value = 0;
+            if (Moves.isCapture(move)) {
+                int victim = Moves.isEnPassant(move) ? PAWN : type(position.pieceAt(Moves.to(move)));
+                value = ORDER_VALUES[victim] * 16 - ORDER_VALUES[type(position.pieceAt(Moves.from(move)))];
+            }
+            if (Moves.isPromotion(move)) {
+                value += ORDER_VALUES[Moves.promotionType(move)] * 16;
+            }
+            scores[i] = value;
+        }
+    }
+
+    private void scoreQuiets() {
+        int[] table = history[position.getSideToMove()];
+        for (int i = 0; i < count; i++) {
+            scores[i] = table[historyIndex(moves[i])];
+        }
+    }
+
+    /**
+     * Moves the best scored remaining move to the current index (selection sort step) and returns it.
+     */
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        index++;
+        return move;
+    }
+}
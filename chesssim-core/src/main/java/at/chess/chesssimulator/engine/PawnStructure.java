@@ -0,0 +1,252 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.AttackTables;
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+
+import java.util.Arrays;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Pawn structure evaluation backed by a pawn hash table.
+ * <p>
+ * The structure terms (passed, doubled, isolated and backward pawns) depend on the pawns alone, which rarely move
+ * compared to the other pieces. Their score is therefore cached per {@link BitboardPosition#getPawnKey()}: most
+ * nodes of a search share the pawn structure of their neighbours and only read a table slot. Besides the tapered
+ * score, an entry keeps the passed pawns of both colors, so evaluation terms that depend on the other pieces (a
+ * free path, king distances) can reuse them without recomputing.
+ * </p>
+ * <p>
+ * The table is a set of parallel primitive arrays and is always replaced on a miss. It is not thread-safe; every
+ * search thread owns its evaluator and with it its own table. Lookups count hits, see {@link #getHitRate()}.
+ * </p>
+ */
+public final class PawnStructure {
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int BACKWARD_MIDGAME = -8;
+    private static final int BACKWARD_ENDGAME = -10;
+
+    /** Passed pawn bonus by rank relative to the pawn's color. */
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    /** Squares that must be free of enemy pawns for a pawn of a color on a square to be passed. */
+    private static final long[][] PASSED_MASK = new long[2][64];
+
+    /** Squares in front of a pawn of a color on its own file. */
+    private static final long[][] FRONT_SPAN = new long[2][64];
+
+    /** Files next to each file. */
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILE_A << (file - 1) : 0L) | (file < 7 ? FILE_A << (file + 1) : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            long ahead = 0L;
+            long behind = 0L;
+            for (int s = square + 8; s < 64; s += 8) {
+                ahead |= bit(s);
+            }
+            for (int s = square - 8; s >= 0; s -= 8) {
+                behind |= bit(s);
+            }
+            FRONT_SPAN[WHITE][square] = ahead;
+            FRONT_SPAN[BLACK][square] = behind;
+            int file = file(square);
+            PASSED_MASK[WHITE][square] = ahead | northOf(square) & ADJACENT_FILES[file];
+            PASSED_MASK[BLACK][square] = behind | southOf(square) & ADJACENT_FILES[file];
+        }
+    }
+
+    private final long[] keys;
+
+    private final long[] passedPawns;
+
+    private final int[] midgameScores;
+
+    private final int[] endgameScores;
+
+    private final boolean[] used;
+
+    private final int mask;
+
+    private long probes;
+
+    private long hits;
+
+    /**
+     * Creates a pawn structure evaluation with a table of roughly the given size.
+     *
+     * @param kilobytes The table size in KiB; rounded down to a power of two number of entries.
+     */
+    public PawnStructure(int kilobytes) {
+        int size = Integer.highestOneBit(Math.max(1, kilobytes * 1024 / 25));
+        this.keys = new long[size];
+        this.passedPawns = new long[size];
+        this.midgameScores = new int[size];
+        this.endgameScores = new int[size];
+        this.used = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Looks up the pawn structure of a position, evaluating and storing it on a miss.
+     *
+     * @param position The position.
+     * @return The table slot holding the entry, to be read with {@link #midgame(int)}, {@link #endgame(int)} and
+     *         {@link #passedPawns(int)} before the next probe.
+     */
+    public int probe(BitboardPosition position) {
+        long key = position.getPawnKey();
+        int slot = (int) key & mask;
+        probes++;
+        if (used[slot] && keys[slot] == key) {
+            hits++;
+            return slot;
+        }
+        keys[slot] = key;
+        used[slot] = true;
+        evaluate(slot, position.getPieces(WHITE, PAWN), position.getPieces(BLACK, PAWN));
+        return slot;
+    }
+
+    /**
+     * Returns the middlegame score of an entry.
+     *
+     * @param slot The slot returned by {@link #probe(BitboardPosition)}.
+     * @return The score in centipawns from white's point of view.
+     */
+    public int midgame(int slot) {
+        return midgameScores[slot];
+    }
+
+    /**
+     * Returns the endgame score of an entry.
+     *
+     * @param slot The slot returned by {@link #probe(BitboardPosition)}.
+     * @return The score in centipawns from white's point of view.
+     */
+    public int endgame(int slot) {
+        return endgameScores[slot];
+    }
+
+    /**
+     * Returns the passed pawns of an entry.
+     *
+     * @param slot The slot returned by {@link #probe(BitboardPosition)}.
+     * @return The passed pawns of both colors; intersect with a color's pawns to separate them.
+     */
+    public long passedPawns(int slot) {
+        return passedPawns[slot];
+    }
+
+    /**
+     * Returns the share of probes answered from the table since the creation or the last {@link #clear()}.
+     *
+     * @return The hit rate between {@code 0} and {@code 1}.
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * Returns the squares a pawn of a color on a square still has to pass: the squares in front of it on its own
+     * and the adjacent files. The pawn is passed if no enemy pawn stands there.
+     *
+     * @param color  The pawn's color.
+     * @param square The pawn's square.
+     * @return The mask.
+     */
+    public static long passedMask(int color, int square) {
+        return PASSED_MASK[color][square];
+    }
+
+    private void evaluate(int slot, long white, long black) {
+        int midgame = 0;
+        int endgame = 0;
+        long passed = 0L;
+        for (int color = WHITE; color <= BLACK; color++) {
+            long own = color == WHITE ? white : black;
+            long enemy = color == WHITE ? black : white;
+            int sign = color == WHITE ? 1 : -1;
+            long ownFiles = fileFill(own);
+
+            long pawns = own;
+            while (pawns != 0) {
+                int square = lsb(pawns);
+                pawns &= pawns - 1;
+                int file = file(square);
+                int relativeRank = color == WHITE ? rank(square) : 7 - rank(square);
+
+                boolean doubled = (FRONT_SPAN[color][square] & own) != 0;
+                boolean isolated = (ADJACENT_FILES[file] & ownFiles) == 0;
+                if (doubled) {
+                    // Only the rear pawn of a file is punished, and it cannot be passed
+                    midgame += sign * DOUBLED_MIDGAME;
+                    endgame += sign * DOUBLED_ENDGAME;
+                } else if ((PASSED_MASK[color][square] & enemy) == 0) {
+                    passed |= bit(square);
+                    midgame += sign * PASSED_MIDGAME[relativeRank];
+                    endgame += sign * PASSED_ENDGAME[relativeRank];
+                }
+
+                if (isolated) {
+                    midgame += sign * ISOLATED_MIDGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                } else if (isBackward(color, square, own, enemy)) {
+                    midgame += sign * BACKWARD_MIDGAME;
+                    endgame += sign * BACKWARD_ENDGAME;
+                }
+            }
+        }
+        midgameScores[slot] = midgame;
+        endgameScores[slot] = endgame;
+        passedPawns[slot] = passed;
+    }
+
+    /**
+     * A pawn is backward if no own pawn on an adjacent file is level with or behind it, so none can ever defend
+     * it, and its stop square is controlled by an enemy pawn.
+     */
+    private static boolean isBackward(int color, int square, long own, long enemy) {
+        int stop = color == WHITE ? square + 8 : square - 8;
+        long supporters = ADJACENT_FILES[file(square)] & ~PASSED_MASK[color][square] & own;
+        return supporters == 0 && stop >= 0 && stop < 64
+                && (AttackTables.pawnAttacks(color, stop) & enemy) != 0;
+    }
+
+    private static long fileFill(long bitboard) {
+        bitboard |= bitboard << 8;
+        bitboard |= bitboard << 16;
+        bitboard |= bitboard << 32;
+        bitboard |= bitboard >>> 8;
+        bitboard |= bitboard >>> 16;
+        bitboard |= bitboard >>> 32;
+        return bitboard;
+    }
+
+    private static long northOf(int square) {
+        return square >= 56 ? 0L : ALL << (square + 8 - file(square));
+    }
+
+    private static long southOf(int square) {
+        return square < 8 ? 0L : ALL >>> (64 - (square - file(square)));
+    }
+}
@@ -0,0 +1,25 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.PieceSquareTables;
+
+import static at.chess.chesssimulator.board.bitboard.Pieces.WHITE;
+
+/**
+ * Tapered evaluation of material and piece placement.
+ * <p>
+ * The middlegame and endgame sums of the {@link PieceSquareTables} are maintained incrementally by
+ * {@link BitboardPosition} on every make and unmake, so evaluating only blends the two by the game phase: a full
+ * board counts the middlegame score, a board with only kings and pawns the endgame score. No square is scanned.
+ * </p>
+ */
+public class PieceSquareEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(BitboardPosition position) {
+        int phase = Math.min(position.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (position.getMidgameScore() * phase
+                + position.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return position.getSideToMove() == WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,539 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.engine.nnue.Network;
+import at.chess.chesssimulator.engine.nnue.NnueEvaluator;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import at.chess.chesssimulator.rules.DrawDetector;
+import at.chess.chesssimulator.tablebase.Tablebases;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Iterative-deepening alpha-beta search with principal variation search (PVS).
+ * <p>
+ * Every iteration searches the first move of a node with the full window and all others with a null window,
+ * re-searching only those that unexpectedly raise alpha. The principal variation of the previous iteration is
+ * tried first at every node along it, otherwise the move stored in the {@link TranspositionTable}; the remaining
+ * moves are ordered by a {@link MovePicker} using killer moves and the history heuristic. Outside the principal
+ * variation, table entries of sufficient depth cut the search off directly.
+ * </p>
+ * <p>
+ * At the horizon a quiescence search plays out captures and promotions until the position is quiet, so a leaf is
+ * never evaluated in the middle of an exchange. Captures that lose material by {@link StaticExchange} are pruned
+ * there.
+ * </p>
+ * <p>
+ * With {@link #setTablebases(Tablebases) endgame tables}, every node below the root that they cover returns the
+ * exact mate or draw score from the tables instead of being searched.
+ * </p>
+ * <p>
+ * A {@code Search} owns a private copy of the root position and all buffers it needs (one move picker per ply,
+ * killer and history tables, the triangular PV table), allocated once in the constructor. The search itself plays
+ * moves in place with make/unmake and does not allocate. An instance is not thread-safe; run one instance per
+ * thread. {@link #stop()} may be called from any thread. The transposition table is the only state that may be shared between instances.
+ * </p>
+ */
+public class Search {
+
+    protected static final Logger logger = LoggerFactory.getLogger(Search.class);
+
+    /** Maximum search depth in plies, including extensions. */
+    public static final int MAX_PLY = 128;
+
+    /** Score of being checkmated at the root; a mate in {@code n} plies scores {@code MATE - n}. */
+    public static final int MATE = 32000;
+
+    /** Scores beyond this bound (in absolute value) are mate scores. */
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    /** Larger than every score, used as the initial window. */
+    public static final int INFINITY = MATE + 1;
+
+    /** Score of drawn positions. */
+    public static final int DRAW = 0;
+
+    /** Size of the transposition table created when none is passed to the constructor. */
+    public static final int DEFAULT_HASH_MB = 16;
+
+    /** How many nodes are visited between two checks of the time and node limits. */
+    private static final int CHECK_INTERVAL = 2048;
+
+    /** History scores stay within plus/minus this bound, so recent cutoffs outweigh old ones. */
+    private static final int MAX_HISTORY = 1 << 14;
+
+    private final Evaluator evaluator;
+
+    private final TranspositionTable table;
+
+    private final BitboardPosition position = new BitboardPosition();
+
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+
+    /** Two quiet moves per ply that caused the latest cutoffs there, tried right after the captures. */
+    private final int[][] killers = new int[MAX_PLY][2];
+
+    /** Cutoff statistics of quiet moves by side to move and {@link MovePicker#historyIndex(int)}. */
+    private final int[][] history = new int[2][64 * 64];
+
+    /** The quiet moves searched so far at every ply, penalized in the history when a later move cuts off. */
+    private final int[][] quietsSearched = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+    /** Triangular PV table: {@code pv[ply]} holds the best line from {@code ply} on, {@code pvLength[ply]} its end. */
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+
+    private final int[] pvLength = new int[MAX_PLY];
+
+    /** The principal variation of the last completed iteration, tried first in the next one. */
+    private final int[] previousPv = new int[MAX_PLY];
+
+    private int previousPvLength;
+
+    private boolean followPv;
+
+    private volatile boolean stopped;
+
+    private long nodes;
+
+    private long nodeLimit;
+
+    private TimeManager timeManager;
+
+    private Tablebases tablebases;
+
+    private long tablebaseHits;
+
+    /**
+     * Creates a search with a private transposition table of {@link #DEFAULT_HASH_MB}.
+     *
+     * @param evaluator The static evaluation used at the leaves.
+     */
+    public Search(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    /**
+     * Creates a search.
+     *
+     * @param evaluator The static evaluation used at the leaves.
+     * @param table     The transposition table; may be shared with other searches running concurrently.
+     */
+    public Search(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(position, history);
+        }
+    }
+
+    /**
+     * Searches a position until the depth of the limits is completed or another limit is hit.
+     *
+     * @param root   The position to search; it is copied and not modified.
+     * @param limits The limits of the search.
+     * @return The result of the deepest completed iteration. If not even the first iteration completed, the best
+     *         move found so far is returned, so a legal move is available whenever one exists.
+     */
+    public SearchResult search(BitboardPosition root, SearchLimits limits) {
+        return search(root, limits, new TimeManager(limits));
+    }
+
+    /**
+     * Searches a position with a time manager created by the caller, who may keep it to call
+     * {@link TimeManager#ponderhit()} on a ponder search.
+     *
+     * @param root        The position to search; it is copied and not modified.
+     * @param limits      The limits of the search.
+     * @param timeManager The time manager created for these limits.
+     * @return The result of the deepest completed iteration, see {@link #search(BitboardPosition, SearchLimits)}.
+     */
+    public SearchResult search(BitboardPosition root, SearchLimits limits, TimeManager timeManager) {
+        stopped = false;
+        table.newSearch();
+        return iterate(root, limits, timeManager, 0);
+    }
+
+    /**
+     * Runs the iterative deepening loop. Unlike {@link #search(BitboardPosition, SearchLimits)} this neither clears
+     * a pending {@link #stop()} nor starts a new table generation, which lets {@link LazySmpSearch} prepare and stop
+     * its helpers without racing them.
+     *
+     * @param root        The position to search; it is copied and not modified.
+     * @param limits      The limits of the search.
+     * @param timeManager Decides when the search runs out of time.
+     * @param depthOffset Added to the depth of every iteration; helpers use it to spread over neighbouring depths.
+     * @return The result of the deepest completed iteration.
+     */
+    SearchResult iterate(BitboardPosition root, SearchLimits limits, TimeManager timeManager, int depthOffset) {
+        long start = System.nanoTime();
+        position.copyFrom(root);
+        nodes = 0;
+        tablebaseHits = 0;
+        nodeLimit = limits.getNodes();
+        this.timeManager = timeManager;
+        previousPvLength = 0;
+        for (int[] killer : killers) {
+            Arrays.fill(killer, Moves.NONE);
+        }
+        for (int[] scores : history) {
+            Arrays.fill(scores, 0);
+        }
+
+        SearchResult result = new SearchResult(Moves.NONE, DRAW, 0, 0, 0, new int[0]);
+        for (int iteration = 1; iteration <= limits.getDepth(); iteration++) {
+            int depth = Math.min(iteration + depthOffset, MAX_PLY - 1);
+            followPv = true;
+            int score = search(depth, 0, -INFINITY, INFINITY);
+
+            if (stopped && iteration > 1) {
+                break;
+            }
+            previousPvLength = pvLength[0];
+            System.arraycopy(pv[0], 0, previousPv, 0, previousPvLength);
+            result = new SearchResult(previousPvLength > 0 ? previousPv[0] : Moves.NONE, score, depth, nodes,
+                    System.nanoTime() - start, Arrays.copyOf(previousPv, previousPvLength));
+            logger.debug("{}", result);
+
+            if (stopped || previousPvLength == 0 || isMateScore(score) && MATE - Math.abs(score) <= depth
+                    || timeManager.onIterationCompleted(result.getBestMove(), score)) {
+                break;
+            }
+        }
+
+        int[] legal = quietsSearched[0];
+        if (result.getBestMove() == Moves.NONE && MoveGenerator.generateLegal(position, legal) > 0) {
+            // Stopped before the first root move was resolved: any legal move beats forfeiting the turn
+            result = new SearchResult(legal[0], DRAW, 0, nodes, System.nanoTime() - start, new int[]{legal[0]});
+        }
+        return result;
+    }
+
+    /**
+     * Asks a running search to return as soon as possible. The result of the last completed iteration is kept.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Clears a pending {@link #stop()} before the search is started through {@link #iterate}.
+     */
+    void reset() {
+        stopped = false;
+    }
+
+    /**
+     * Checks whether a score denotes a forced mate.
+     *
+     * @param score The score.
+     * @return {@code true} for mate scores of either side.
+     */
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) > MATE_BOUND;
+    }
+
+    /**
+     * Sets the endgame tables probed during the search.
+     *
+     * @param tablebases The tables, or {@code null} to search endings like any other position.
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Returns the number of nodes the endgame tables answered in the current or last search.
+     *
+     * @return The table hit count.
+     */
+    public long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    /**
+     * Returns the number of nodes visited by the current or last search.
+     *
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        if (depth <= 0 && !position.inCheck()) {
+            return quiesce(ply, alpha, beta);
+        }
+        pvLength[ply] = ply;
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return DRAW;
+        }
+        if (ply > 0 && (position.getHalfmoveClock() >= DrawDetector.FIFTY_MOVE_PLIES
+                || DrawDetector.isRepetition(position) || DrawDetector.isInsufficientMaterial(position))) {
+            return DRAW;
+        }
+        if (tablebases != null && ply > 0 && Long.bitCount(position.getOccupied()) <= tablebases.getMaxPieces()) {
+            int score = tablebases.probeScore(position, ply);
+            if (score != Tablebases.UNKNOWN) {
+                tablebaseHits++;
+                return score;
+            }
+        }
+
+        boolean inCheck = position.inCheck();
+        if (inCheck) {
+            // Checks are cheap to detect and forcing; resolve them instead of stopping at the horizon
+            depth++;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(position);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long entry = table.probe(position.getKey());
+        int hashMove = Moves.NONE;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || bound == TranspositionTable.BOUND_LOWER && score >= beta
+                        || bound == TranspositionTable.BOUND_UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int pvMove = followPv && ply < previousPvLength ? previousPv[ply] : Moves.NONE;
+        boolean onPv = pvMove != Moves.NONE;
+        MovePicker picker = pickers[ply];
+        picker.init(onPv ? pvMove : hashMove, killers[ply][0], killers[ply][1]);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Moves.NONE;
+        int searched = 0;
+        int quiets = 0;
+        int move;
+        while ((move = picker.next()) != Moves.NONE) {
+            followPv = onPv && move == pvMove;
+            position.makeMove(move);
+            int score;
+            if (searched++ == 0) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                score = -search(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            position.unmakeMove();
+
+            if (stopped) {
+                return best == -INFINITY ? DRAW : best;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (!Moves.isTactical(move)) {
+                            updateQuietStatistics(ply, depth, move, quiets);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (!Moves.isTactical(move)) {
+                quietsSearched[ply][quiets++] = move;
+            }
+        }
+
+        if (searched == 0) {
+            return inCheck ? -MATE + ply : DRAW;
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(position.getKey(), bestMove, best, depth, bound, ply);
+        return best;
+    }
+
+    /**
+     * Searches captures and promotions until the position is quiet.
+     * <p>
+     * Unless in check, the side to move may stand pat: it is assumed to have a quiet move at least as good as the
+     * static evaluation, which is therefore a lower bound of the score. Only the hash move and captures that do not
+     * lose material are searched on top of it. In check every evasion is searched, so mates are still found.
+     * </p>
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return DRAW;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(position);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long entry = table.probe(position.getKey());
+        int hashMove = Moves.NONE;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            hashMove = TranspositionTable.move(entry);
+            int score = TranspositionTable.score(entry, ply);
+            int bound = TranspositionTable.bound(entry);
+            if (!pvNode && (bound == TranspositionTable.BOUND_EXACT
+                    || bound == TranspositionTable.BOUND_LOWER && score >= beta
+                    || bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        boolean inCheck = position.inCheck();
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluator.evaluate(position);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.initQuiescence(hashMove, inCheck);
+        int bestMove = Moves.NONE;
+        int move;
+        while ((move = picker.next()) != Moves.NONE) {
+            position.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            position.unmakeMove();
+
+            if (stopped) {
+                return best == -INFINITY ? DRAW : best;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    bestMove = move;
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (best == -INFINITY) {
+            // In check without an evasion
+            return -MATE + ply;
+        }
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(position.getKey(), bestMove, best, 0, bound, ply);
+        return best;
+    }
+
+    private void updatePv(int ply, int move) {
+        int[] line = pv[ply];
+        line[ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, line, ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    /**
+     * Records a quiet move that caused a cutoff: it becomes the first killer of the ply and gains history, while
+     * the quiet moves searched before it lose history.
+     */
+    private void updateQuietStatistics(int ply, int depth, int move, int quiets) {
+        int[] killer = killers[ply];
+        if (killer[0] != move) {
+            killer[1] = killer[0];
+            killer[0] = move;
+        }
+
+        int[] table = history[position.getSideToMove()];
+        int bonus = Math.min(depth * depth, MAX_HISTORY);
+        addHistory(table, MovePicker.historyIndex(move), bonus);
+        int[] searched = quietsSearched[ply];
+        for (int i = 0; i < quiets; i++) {
+            addHistory(table, MovePicker.historyIndex(searched[i]), -bonus);
+        }
+    }
+
+    /**
+     * Adds a bonus that shrinks as the entry approaches {@link #MAX_HISTORY}, which keeps entries bounded and
+     * lets them adapt when a move stops working.
+     */
+    private static void addHistory(int[] table, int index, int bonus) {
+        table[index] += bonus - table[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private void checkLimits() {
+        if (nodes >= nodeLimit || timeManager.isHardLimitReached()) {
+            stopped = true;
+        }
+    }
+
+    /**
+     * Searches a position on the command line and prints every completed iteration.
+     *
+     * @param args {@code <depth> [fen] [--movetime ms] [--clock ms] [--inc ms] [--hash mb] [--nnue file]
+     *             [--tb directory]}
+     * @throws IOException if the network file or the endgame tables cannot be loaded.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: Search <depth> [fen] [--movetime ms] [--clock ms] [--inc ms] [--hash mb] "
+                    + "[--nnue file] [--tb directory]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String fen = BitboardPosition.START_FEN;
+        long moveTime = SearchLimits.UNLIMITED;
+        long clock = SearchLimits.UNLIMITED;
+        long increment = 0;
+        int hash = DEFAULT_HASH_MB;
+        Evaluator evaluator = new ClassicalEvaluator();
+        Tablebases tablebases = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--movetime" -> moveTime = Long.parseLong(args[++i]);
+                case "--clock" -> clock = Long.parseLong(args[++i]);
+                case "--inc" -> increment = Long.parseLong(args[++i]);
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                case "--nnue" -> evaluator = new NnueEvaluator(Network.load(Path.of(args[++i])));
+                case "--tb" -> tablebases = Tablebases.open(Path.of(args[++i]));
+                default -> fen = args[i];
+            }
+        }
+
+        Search search = new Search(evaluator, new TranspositionTable(hash));
+        search.setTablebases(tablebases);
+        SearchResult result = search.search(new BitboardPosition(fen), clock == SearchLimits.UNLIMITED
+                ? new SearchLimits(depth, moveTime, SearchLimits.UNLIMITED)
+                : SearchLimits.clock(clock, increment, 0));
+        System.out.println(result);
+        if (tablebases != null) {
+            System.out.println("tablebase hits " + search.getTablebaseHits());
+        }
+        System.out.println("bestmove " + Moves.toUci(result.getBestMove()));
+    }
+}
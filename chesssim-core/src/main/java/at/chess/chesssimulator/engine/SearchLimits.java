@@ -0,0 +1,125 @@
+package at.chess.chesssimulator.engine;
+
+import lombok.Getter;
+
+/**
+ * Limits of a single {@link Search} run. The search stops as soon as any of the limits is reached.
+ * <p>
+ * Besides a fixed move time, the time budget may be given as a game clock (see
+ * {@link #clock(long, long, int)}), from which a {@link TimeManager} derives how long to think. A
+ * {@linkplain #isPonder() ponder} search ignores the time budget until {@link TimeManager#ponderhit()}.
+ * </p>
+ */
+@Getter
+public class SearchLimits {
+
+    /** No limit on the node count. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /** The maximum iterative-deepening depth in plies. */
+    private final int depth;
+
+    /** The time budget in milliseconds, or {@link #UNLIMITED}. */
+    private final long moveTimeMillis;
+
+    /** The node budget, or {@link #UNLIMITED}. */
+    private final long nodes;
+
+    /** The time left on the searching side's clock in milliseconds, or {@link #UNLIMITED} without a clock. */
+    private final long remainingMillis;
+
+    /** The time added to the clock after every move in milliseconds. */
+    private final long incrementMillis;
+
+    /** The moves until the next time control, or {@code 0} if the remaining time is for the rest of the game. */
+    private final int movesToGo;
+
+    /** Whether the search runs on the opponent's time and waits for {@link TimeManager#ponderhit()}. */
+    private final boolean ponder;
+
+    /**
+     * Creates search limits.
+     *
+     * @param depth          The maximum depth in plies, at least 1; capped at {@link Search#MAX_PLY}.
+     * @param moveTimeMillis The time budget in milliseconds, or {@link #UNLIMITED}.
+     * @param nodes          The node budget, or {@link #UNLIMITED}.
+     */
+    public SearchLimits(int depth, long moveTimeMillis, long nodes) {
+        this(depth, moveTimeMillis, nodes, UNLIMITED, 0, 0, false);
+    }
+
+    private SearchLimits(int depth, long moveTimeMillis, long nodes, long remainingMillis, long incrementMillis,
+                         int movesToGo, boolean ponder) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+        }
+        this.depth = Math.min(depth, Search.MAX_PLY - 1);
+        this.moveTimeMillis = moveTimeMillis;
+        this.nodes = nodes;
+        this.remainingMillis = remainingMillis;
+        this.incrementMillis = incrementMillis;
+        this.movesToGo = movesToGo;
+        this.ponder = ponder;
+    }
+
+    /**
+     * Limits the search by depth only.
+     *
+     * @param depth The maximum depth in plies.
+     * @return The limits.
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * Limits the search by time only.
+     *
+     * @param millis The time budget in milliseconds.
+     * @return The limits.
+     */
+    public static SearchLimits moveTime(long millis) {
+        return new SearchLimits(Search.MAX_PLY - 1, millis, UNLIMITED);
+    }
+
+    /**
+     * Limits the search by a game clock; the {@link TimeManager} decides how much of it to spend.
+     *
+     * @param remainingMillis The time left on the searching side's clock in milliseconds.
+     * @param incrementMillis The increment per move in milliseconds.
+     * @param movesToGo       The moves until the next time control, or {@code 0} for sudden death.
+     * @return The limits.
+     */
+    public static SearchLimits clock(long remainingMillis, long incrementMillis, int movesToGo) {
+        return new SearchLimits(Search.MAX_PLY - 1, UNLIMITED, UNLIMITED, remainingMillis, incrementMillis,
+                movesToGo, false);
+    }
+
+    /**
+     * Checks whether the time budget comes from a game clock.
+     *
+     * @return {@code true} for limits created by {@link #clock(long, long, int)}.
+     */
+    public boolean hasClock() {
+        return remainingMillis != UNLIMITED;
+    }
+
+    /**
+     * Returns the same limits for a search on the opponent's time.
+     *
+     * @return Limits whose time budget only starts with {@link TimeManager#ponderhit()}.
+     */
+    public SearchLimits toPonder() {
+        return new SearchLimits(depth, moveTimeMillis, nodes, remainingMillis, incrementMillis, movesToGo, true);
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth
+                + (moveTimeMillis == UNLIMITED ? "" : ", movetime " + moveTimeMillis + " ms")
+                + (nodes == UNLIMITED ? "" : ", nodes " + nodes)
+                + (hasClock() ? ", clock " + remainingMillis + "+" + incrementMillis + " ms" : "")
+                + (movesToGo > 0 ? ", movestogo " + movesToGo : "")
+                + (ponder ? ", ponder" : "");
+    }
+}
@@ -0,0 +1,69 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.movegen.Moves;
+import lombok.Getter;
+
+/**
+ * Outcome of a {@link Search}: the best move of the deepest completed iteration and its principal variation.
+ */
+@Getter
+public class SearchResult {
+
+    /** The best move, or {@link Moves#NONE} if the side to move has no legal move. */
+    private final int bestMove;
+
+    /** The score in centipawns from the side to move's point of view; see {@link Search#isMateScore(int)}. */
+    private final int score;
+
+    /** The depth of the last completed iteration. */
+    private final int depth;
+
+    /** The nodes visited over all iterations. */
+    private final long nodes;
+
+    /** The elapsed wall clock time in nanoseconds. */
+    private final long nanos;
+
+    /** The principal variation, starting with {@link #bestMove}. */
+    private final int[] principalVariation;
+
+    SearchResult(int bestMove, int score, int depth, long nodes, long nanos, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Returns the speed of the search.
+     *
+     * @return Nodes per second.
+     */
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * Returns the expected reply to the best move.
+     *
+     * @return The second move of the principal variation, or {@link Moves#NONE}.
+     */
+    public int getPonderMove() {
+        return principalVariation.length > 1 ? principalVariation[1] : Moves.NONE;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder pv = new StringBuilder();
+        for (int move : principalVariation) {
+            pv.append(' ').append(Moves.toUci(move));
+        }
+        String scoreText = Search.isMateScore(score)
+                ? "mate " + (score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2)
+                : "cp " + score;
+        return "depth " + depth + " score " + scoreText + " nodes " + nodes + " nps " + getNodesPerSecond()
+                + " pv" + pv;
+    }
+}
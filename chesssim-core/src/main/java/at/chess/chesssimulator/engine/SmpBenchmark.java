@@ -0,0 +1,67 @@
+package at.chess.chesssimulator.engine;
+
+/**
+ * Measures the time-to-depth speedup of {@link LazySmpSearch} over the {@link Bench} positions.
+ * <p>
+ * Every thread count searches all bench positions to the same depth with a cleared table; the speedup is the
+ * single-threaded time divided by the time of the run. Thread counts above the number of available processors
+ * are measured as well, they show the cost of oversubscription.
+ * </p>
+ * <p>
+ * Usage: {@code SmpBenchmark [depth] [--hash mb] [--threads 1,2,4,8,16]}.
+ * </p>
+ */
+public final class SmpBenchmark {
+
+    private static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16};
+
+    private SmpBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark on the command line.
+     *
+     * @param args {@code [depth] [--hash mb] [--threads list]}
+     */
+    public static void main(String[] args) {
+        int depth = Bench.DEFAULT_DEPTH + 1;
+        int hash = 64;
+        int[] threadCounts = DEFAULT_THREADS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                case "--threads" -> {
+                    String[] counts = args[++i].split(",");
+                    threadCounts = new int[counts.length];
+                    for (int j = 0; j < counts.length; j++) {
+                        threadCounts[j] = Integer.parseInt(counts[j].trim());
+                    }
+                }
+                default -> depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("Depth %d, %d MB hash, %d processors available%n",
+                depth, hash, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %14s %10s %14s %8s%n", "threads", "nodes", "time ms", "nps", "speedup");
+
+        TranspositionTable table = new TranspositionTable(hash);
+        try (LazySmpSearch warmUp = new LazySmpSearch(ClassicalEvaluator::new, 1, table)) {
+            // Let the JIT compile the search before the single-threaded baseline is taken
+            Bench.run(warmUp, Math.max(1, depth - 2));
+        }
+
+        long baseline = 0;
+        for (int threads : threadCounts) {
+            Bench.Result result;
+            try (LazySmpSearch search = new LazySmpSearch(ClassicalEvaluator::new, threads, table)) {
+                result = Bench.run(search, depth);
+            }
+            if (baseline == 0) {
+                baseline = result.getNanos();
+            }
+            System.out.printf("%8d %14d %10d %14d %8.2f%n", threads, result.getNodes(), result.getNanos() / 1_000_000,
+                    result.getNodesPerSecond(), (double) baseline / result.getNanos());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.movegen.Moves;
+import lombok.Getter;
+
+/**
+ * Decides how long a {@link Search} may think about a move.
+ * <p>
+ * Two budgets are derived from the {@link SearchLimits}. The hard limit is checked inside the search and aborts
+ * it wherever it is; it is the most the move may ever take. The soft limit is checked between iterations only:
+ * an iteration usually takes longer than all previous ones together, so none is started once half of the soft
+ * limit has passed, and the move mostly finishes well before the limit.
+ * </p>
+ * <p>
+ * With a game clock, the soft limit is a share of the remaining time plus most of the increment and adapts to
+ * the search: it shrinks while the best move stays the same over several iterations and grows when the best move
+ * changes or the score drops (a fail-low of the last iteration), since those are the moves where more time
+ * changes the decision. A fixed move time uses both limits as given.
+ * </p>
+ * <p>
+ * A ponder search runs without a budget until {@link #ponderhit()}, which starts the clock at that moment; the
+ * iterations completed while pondering are kept. If the opponent plays another move, {@link #abort()} ends the
+ * search instead. Both may be called from any thread, even before the search has started.
+ * </p>
+ */
+public class TimeManager {
+
+    /** Reserved per move for latency between the engine and the clock, in milliseconds. */
+    public static final long MOVE_OVERHEAD_MILLIS = 30;
+
+    /** Moves the remaining time is divided by in sudden death. */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /** The hard limit may exceed the soft limit by this factor. */
+    private static final int HARD_FACTOR = 4;
+
+    /** A score drop of this many centipawns since the last iteration counts as a fail-low. */
+    private static final int FAIL_LOW_MARGIN = 30;
+
+    /** Soft limit scale in percent by the number of iterations the best move has been stable. */
+    private static final int[] STABILITY_SCALE = {140, 120, 100, 90, 80, 70, 60};
+
+    /** Soft limit in nanoseconds, before scaling. */
+    @Getter
+    private final long softNanos;
+
+    /** Hard limit in nanoseconds. */
+    @Getter
+    private final long hardNanos;
+
+    private final boolean adaptive;
+
+    private volatile long startNanos;
+
+    private volatile boolean pondering;
+
+    private volatile boolean aborted;
+
+    private int bestMove = Moves.NONE;
+
+    private int stableIterations;
+
+    private int previousScore;
+
+    private int scale = 100;
+
+    /**
+     * Creates the time manager of a search and starts its clock, unless the limits are for pondering.
+     *
+     * @param limits The limits of the search.
+     */
+    public TimeManager(SearchLimits limits) {
+        if (limits.hasClock()) {
+            long available = Math.max(1, limits.getRemainingMillis() - MOVE_OVERHEAD_MILLIS);
+            int movesToGo = limits.getMovesToGo() > 0 ? limits.getMovesToGo() : DEFAULT_MOVES_TO_GO;
+            long soft = Math.min(available / movesToGo + limits.getIncrementMillis() * 3 / 4, available / 2);
+            long hard = Math.min(soft * HARD_FACTOR, available * 3 / 4);
+            this.softNanos = Math.max(1, soft) * 1_000_000L;
+            this.hardNanos = Math.max(1, hard) * 1_000_000L;
+            this.adaptive = true;
+        } else if (limits.getMoveTimeMillis() != SearchLimits.UNLIMITED) {
+            this.softNanos = limits.getMoveTimeMillis() * 1_000_000L;
+            this.hardNanos = softNanos;
+            this.adaptive = false;
+        } else {
+            this.softNanos = Long.MAX_VALUE;
+            this.hardNanos = Long.MAX_VALUE;
+            this.adaptive = false;
+        }
+        this.pondering = limits.isPonder();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Switches a ponder search to a normal one: the opponent played the expected move and the time budget starts
+     * now.
+     */
+    public void ponderhit() {
+        startNanos = System.nanoTime();
+        pondering = false;
+    }
+
+    /**
+     * Ends the search at the next limit check, e.g. because the move it ponders on was not played.
+     */
+    public void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Checks whether the search is still running on the opponent's time.
+     *
+     * @return {@code true} until {@link #ponderhit()}.
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Checks the hard limit, called from within the search.
+     *
+     * @return {@code true} if the search must stop immediately.
+     */
+    public boolean isHardLimitReached() {
+        return aborted || !pondering && hardNanos != Long.MAX_VALUE && System.nanoTime() - startNanos >= hardNanos;
+    }
+
+    /**
+     * Checks the soft limit without adapting it, for searches that can return at any moment instead of between
+     * iterations, such as {@link MctsSearch}.
+     *
+     * @return {@code true} if the search should return now.
+     */
+    public boolean isSoftLimitReached() {
+        return aborted || !pondering && softNanos != Long.MAX_VALUE && System.nanoTime() - startNanos >= softNanos;
+    }
+
+    /**
+     * Records a completed iteration and decides whether to start another one.
+     *
+     * @param move  The best move of the iteration.
+     * @param score The score of the iteration.
+     * @return {@code true} if the next iteration is not expected to finish within the soft limit.
+     */
+    public boolean onIterationCompleted(int move, int score) {
+        if (adaptive) {
+            stableIterations = move == bestMove ? stableIterations + 1 : 0;
+            scale = STABILITY_SCALE[Math.min(stableIterations, STABILITY_SCALE.length - 1)];
+            if (bestMove != Moves.NONE && score < previousScore - FAIL_LOW_MARGIN) {
+                // The expected line got worse: look for an alternative before committing to it
+                scale = score < previousScore - 3 * FAIL_LOW_MARGIN ? scale * 2 : scale * 3 / 2;
+            }
+            bestMove = move;
+            previousScore = score;
+        }
+        return aborted || !pondering && softNanos != Long.MAX_VALUE
+                && System.nanoTime() - startNanos >= Math.min(softNanos / 100 * scale, hardNanos) / 2;
+    }
+
+    /**
+     * Returns the time elapsed since the clock started.
+     *
+     * @return The elapsed nanoseconds; measured from {@link #ponderhit()} for ponder searches.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
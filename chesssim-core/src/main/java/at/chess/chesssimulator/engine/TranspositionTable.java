@@ -0,0 +1,215 @@
+package at.chess.chesssimulator.engine;
+
+import at.chess.chesssimulator.movegen.Moves;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results keyed by Zobrist key, shared lock-free between search threads.
+ * <p>
+ * The table is one {@code long[]}. An entry takes two words: the packed data (move, score, depth, bound and
+ * generation) and the key XOR-ed with that data. A reader only accepts an entry whose two words XOR back to its
+ * key, so a slot that another thread is overwriting at the same moment reads as a miss, never as a wrong result.
+ * No locks, no boxing, and no allocation after construction.
+ * </p>
+ * <p>
+ * Two entries form a bucket of 32 bytes. When storing, an entry of the same position is updated in place;
+ * otherwise the entry that is shallowest after aging is replaced, so results of earlier searches
+ * ({@link #newSearch()}) give way before deep results of the current one.
+ * </p>
+ */
+public final class TranspositionTable {
+
+    /** The stored score is exact. */
+    public static final int BOUND_EXACT = 1;
+
+    /** The stored score is a lower bound (fail-high). */
+    public static final int BOUND_LOWER = 2;
+
+    /** The stored score is an upper bound (fail-low). */
+    public static final int BOUND_UPPER = 3;
+
+    /** Returned by {@link #probe(long)} on a miss. */
+    public static final long NO_ENTRY = 0L;
+
+    private static final int ENTRIES_PER_BUCKET = 2;
+
+    /** Depth penalty per search generation an entry is old, used when choosing the entry to replace. */
+    private static final int AGE_WEIGHT = 8;
+
+    private final long[] table;
+
+    private final long bucketMask;
+
+    private int generation;
+
+    /**
+     * Creates a table using roughly the given amount of memory.
+     *
+     * @param megabytes The table size in MiB; rounded down to a power of two number of buckets.
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1L, (long) megabytes * 1024 * 1024 / (ENTRIES_PER_BUCKET * 16));
+        int size = Integer.highestOneBit((int) Math.min(buckets, 1 << 26));
+        this.table = new long[size * ENTRIES_PER_BUCKET * 2];
+        this.bucketMask = size - 1;
+    }
+
+    /**
+     * Looks up the entry of a position.
+     *
+     * @param key The Zobrist key.
+     * @return The packed entry data, or {@link #NO_ENTRY}; decode it with the static accessors.
+     */
+    public long probe(long key) {
+        int index = bucketIndex(key);
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++, index += 2) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key && data != NO_ENTRY) {
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result.
+     *
+     * @param key   The Zobrist key.
+     * @param move  The best move, or {@link Moves#NONE}; an existing move of the position is kept in that case.
+     * @param score The score relative to the node, as returned by the search (see {@link #toStored(int, int)}).
+     * @param depth The remaining depth the score was searched with.
+     * @param bound One of {@link #BOUND_EXACT}, {@link #BOUND_LOWER} or {@link #BOUND_UPPER}.
+     * @param ply   The distance of the node from the root, used to store mate scores independent of the root.
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int index = bucketIndex(key);
+        int target = index;
+        int lowestPriority = Integer.MAX_VALUE;
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++, index += 2) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key) {
+                if (move == Moves.NONE) {
+                    move = move(data);
+                }
+                target = index;
+                break;
+            }
+            int priority = depth(data) - AGE_WEIGHT * ((generation - generation(data)) & 0xFF);
+            if (priority < lowestPriority) {
+                lowestPriority = priority;
+                target = index;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | (toStored(score, ply) & 0xFFFFL) << 16
+                | (long) Math.max(0, Math.min(depth, 255)) << 32
+                | (long) bound << 40
+                | (long) generation << 42;
+        table[target] = key ^ data;
+        table[target + 1] = data;
+    }
+
+    /**
+     * Starts a new search generation, making the entries of earlier searches preferred victims for replacement.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * Estimates the fill rate of the table from a sample of its first buckets.
+     *
+     * @return The permill of sampled entries written by the current search generation.
+     */
+    public int hashfull() {
+        int sampled = Math.min(1000, table.length / 2);
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            long data = table[2 * i + 1];
+            if (data != NO_ENTRY && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sampled;
+    }
+
+    /**
+     * Returns the best move of an entry.
+     *
+     * @param data The entry data from {@link #probe(long)}.
+     * @return The encoded move, or {@link Moves#NONE}.
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * Returns the score of an entry relative to the node it is probed at.
+     *
+     * @param data The entry data from {@link #probe(long)}.
+     * @param ply  The distance of the probing node from the root.
+     * @return The score.
+     */
+    public static int score(long data, int ply) {
+        int stored = (short) (data >>> 16);
+        if (stored > Search.MATE_BOUND) {
+            return stored - ply;
+        }
+        if (stored < -Search.MATE_BOUND) {
+            return stored + ply;
+        }
+        return stored;
+    }
+
+    /**
+     * Returns the remaining depth an entry was searched with.
+     *
+     * @param data The entry data from {@link #probe(long)}.
+     * @return The depth in plies.
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    /**
+     * Returns the bound type of an entry.
+     *
+     * @param data The entry data from {@link #probe(long)}.
+     * @return One of {@link #BOUND_EXACT}, {@link #BOUND_LOWER} or {@link #BOUND_UPPER}.
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 42) & 0xFF;
+    }
+
+    /**
+     * Converts a mate score relative to the root into one relative to the node, so that it stays valid wherever
+     * the position is reached again.
+     */
+    static int toStored(int score, int ply) {
+        if (score > Search.MATE_BOUND) {
+            return score + ply;
+        }
+        if (score < -Search.MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private int bucketIndex(long key) {
+        return (int) (key & bucketMask) * ENTRIES_PER_BUCKET * 2;
+    }
+}
@@ -0,0 +1,42 @@
+package at.chess.chesssimulator.engine.nnue;
+
+/**
+ * The arithmetic kernels of the network: adding or removing an input's weights to or from an accumulator, and
+ * the clipped-ReLU dot product of the output layer.
+ * <p>
+ * {@link VectorOps} runs them on the JDK Vector API, {@link ScalarOps} in plain Java; {@link #create()} picks the
+ * vectorized one when the {@code jdk.incubator.vector} module is available at run time.
+ * </p>
+ */
+interface AccumulatorOps {
+
+    /**
+     * Adds a weight row to an accumulator: {@code accumulator[offset + i] += weights[row + i]}.
+     */
+    void add(short[] accumulator, int offset, short[] weights, int row, int length);
+
+    /**
+     * Subtracts a weight row from an accumulator: {@code accumulator[offset + i] -= weights[row + i]}.
+     */
+    void subtract(short[] accumulator, int offset, short[] weights, int row, int length);
+
+    /**
+     * Returns {@code sum(clamp(accumulator[offset + i], 0, max) * weights[row + i])}.
+     */
+    int activate(short[] accumulator, int offset, short[] weights, int row, int length, int max);
+
+    /**
+     * Returns the fastest implementation available in this JVM.
+     *
+     * @return The vectorized kernels, or the scalar ones if the Vector API module is not present.
+     */
+    static AccumulatorOps create() {
+        try {
+            // Loaded reflectively, so that a JVM without the incubator module never links against it
+            return (AccumulatorOps) Class.forName(AccumulatorOps.class.getPackageName() + ".VectorOps")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarOps();
+        }
+    }
+}
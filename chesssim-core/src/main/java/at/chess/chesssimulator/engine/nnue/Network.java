@@ -0,0 +1,138 @@
+package at.chess.chesssimulator.engine.nnue;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * The quantized weights of an efficiently updatable neural network (NNUE) with HalfKP-like inputs.
+ * <p>
+ * Architecture: {@value #INPUTS} binary inputs per perspective (own king square x non-king piece x square, see
+ * {@link #feature(int, int, int, int)}) feed a hidden layer of {@link #getHidden()} neurons, whose weights are
+ * shared by both perspectives. The two hidden layers (side to move first) pass a clipped ReLU and are reduced to
+ * a single output neuron.
+ * </p>
+ * <p>
+ * File format, all values little-endian:
+ * </p>
+ * <pre>
+ * int32   magic "CSNN" (0x4E4E5343)
+ * int32   version 1
+ * int32   hidden layer size H, a multiple of 16
+ * int16   feature weights [INPUTS][H], scaled by {@value #QA}
+ * int16   feature biases [H], scaled by {@value #QA}
+ * int16   output weights [2 * H], scaled by {@value #QB}
+ * int32   output bias, scaled by {@value #QA} * {@value #QB}
+ * </pre>
+ * <p>
+ * The file is memory-mapped and bulk-decoded into primitive arrays, which the vectorized kernels read directly.
+ * A network is immutable after loading and may be shared by all search threads.
+ * </p>
+ */
+public final class Network {
+
+    /** Magic number at the start of every network file. */
+    public static final int MAGIC = 0x4E4E5343;
+
+    /** The supported file format version. */
+    public static final int VERSION = 1;
+
+    /** Number of inputs per perspective: 64 king squares x 10 non-king pieces x 64 squares. */
+    public static final int INPUTS = 64 * 10 * 64;
+
+    /** Quantization of the hidden layer; also the upper bound of the clipped ReLU. */
+    public static final int QA = 255;
+
+    /** Quantization of the output weights. */
+    public static final int QB = 64;
+
+    /** Converts the network output to centipawns. */
+    public static final int SCALE = 400;
+
+    private static final int HEADER_BYTES = 12;
+
+    /** The size of the hidden layer per perspective. */
+    @Getter
+    private final int hidden;
+
+    /** Feature weights, {@link #getHidden()} per input. */
+    final short[] featureWeights;
+
+    final short[] featureBiases;
+
+    /** Output weights, the side to move's half first. */
+    final short[] outputWeights;
+
+    final int outputBias;
+
+    private Network(int hidden, short[] featureWeights, short[] featureBiases, short[] outputWeights,
+                    int outputBias) {
+        this.hidden = hidden;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Loads a network file.
+     *
+     * @param file The file in the format described above.
+     * @return The network.
+     * @throws IOException if the file cannot be read or is not a network of a supported version.
+     */
+    public static Network load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a network file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a network file: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported network version " + version + ": " + file);
+            }
+            int hidden = buffer.getInt();
+            if (hidden <= 0 || hidden % 16 != 0) {
+                throw new IOException("Invalid hidden layer size " + hidden + ": " + file);
+            }
+            long expected = HEADER_BYTES + 2L * ((long) INPUTS * hidden + hidden + 2L * hidden) + 4;
+            if (channel.size() != expected) {
+                throw new IOException("Expected " + expected + " bytes but found " + channel.size() + ": " + file);
+            }
+
+            short[] featureWeights = new short[INPUTS * hidden];
+            short[] featureBiases = new short[hidden];
+            short[] outputWeights = new short[2 * hidden];
+            buffer.asShortBuffer().get(featureWeights).get(featureBiases).get(outputWeights);
+            int outputBias = buffer.getInt(buffer.capacity() - 4);
+            return new Network(hidden, featureWeights, featureBiases, outputWeights, outputBias);
+        }
+    }
+
+    /**
+     * Returns the input index of a piece for one perspective. Squares are mirrored vertically for black, so both
+     * perspectives see their own pieces moving up the board.
+     *
+     * @param perspective The color whose half of the network is addressed.
+     * @param king        The king square of that color.
+     * @param piece       The piece code, not a king.
+     * @param square      The square of the piece.
+     * @return The input index in {@code [0, INPUTS)}.
+     */
+    public static int feature(int perspective, int king, int piece, int square) {
+        int flip = perspective == WHITE ? 0 : 56;
+        int relative = (color(piece) == perspective ? 0 : 5) + type(piece);
+        return ((king ^ flip) * 10 + relative) * 64 + (square ^ flip);
+    }
+}
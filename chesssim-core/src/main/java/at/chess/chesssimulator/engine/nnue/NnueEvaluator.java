@@ -0,0 +1,215 @@
+package at.chess.chesssimulator.engine.nnue;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.engine.Evaluator;
+import at.chess.chesssimulator.engine.Search;
+import at.chess.chesssimulator.movegen.Moves;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Evaluation by an efficiently updatable neural network.
+ * <p>
+ * The hidden layer of a {@link Network} is kept per perspective in an accumulator, the sum of the feature weights
+ * of all pieces on the board. A move changes at most four pieces, so the accumulator of a position follows from
+ * its parent's with a few row additions and subtractions instead of a full refresh over all pieces. Only a king
+ * move of a perspective invalidates its accumulator, since every feature depends on the own king square.
+ * </p>
+ * <p>
+ * Accumulators are stored per ply of the position's undo stack and tagged with the Zobrist key they belong to.
+ * Evaluating a position walks back the undo stack ({@link BitboardPosition#moveAt(int)}) to the nearest ply whose
+ * stored accumulator still matches the key of that position and replays the moves from there. Making and
+ * unmaking moves therefore costs nothing here, and the search does not have to notify the evaluator. After an
+ * update the parent's accumulator is filled in as well, so the siblings of an evaluated leaf are one move away.
+ * </p>
+ * <p>
+ * An evaluator holds mutable accumulators and must be used by one search thread only; the network itself is
+ * shared. The arithmetic runs on the Vector API when the {@code jdk.incubator.vector} module is added to the JVM
+ * and falls back to plain loops otherwise.
+ * </p>
+ */
+public class NnueEvaluator implements Evaluator {
+
+    protected static final Logger logger = LoggerFactory.getLogger(NnueEvaluator.class);
+
+    private static final AccumulatorOps OPS = AccumulatorOps.create();
+
+    /** Number of plies kept; must be a power of two larger than {@link #MAX_DISTANCE}. */
+    private static final int RING = 256;
+
+    private static final int MASK = RING - 1;
+
+    /** Farthest ancestor an accumulator is updated from; beyond that a refresh is cheaper. */
+    private static final int MAX_DISTANCE = 32;
+
+    /** Scores are clamped well inside the mate range. */
+    private static final int MAX_SCORE = Search.MATE_BOUND / 2;
+
+    static {
+        logger.debug("NNUE kernels: {}", OPS);
+    }
+
+    private final Network network;
+
+    private final int hidden;
+
+    /** Two accumulators per ply, white's perspective first. */
+    private final short[] accumulators;
+
+    private final long[] keys;
+
+    private final boolean[] computed;
+
+    /**
+     * Creates an evaluator for a network.
+     *
+     * @param network The network, which may be shared with other evaluators.
+     */
+    public NnueEvaluator(Network network) {
+        this.network = network;
+        this.hidden = network.getHidden();
+        this.accumulators = new short[RING * 2 * hidden];
+        this.keys = new long[RING];
+        this.computed = new boolean[RING];
+    }
+
+    /**
+     * Returns a description of the arithmetic kernels in use, e.g. for logging.
+     *
+     * @return {@code "scalar"} or the vector shape.
+     */
+    public static String kernels() {
+        return OPS.toString();
+    }
+
+    @Override
+    public int evaluate(BitboardPosition position) {
+        int ply = position.getHistoryLength();
+        if (!isComputed(position, ply)) {
+            update(position, ply);
+        }
+
+        int us = position.getSideToMove();
+        int offset = (ply & MASK) * 2 * hidden;
+        int output = network.outputBias
+                + OPS.activate(accumulators, offset + us * hidden, network.outputWeights, 0, hidden, Network.QA)
+                + OPS.activate(accumulators, offset + (us ^ 1) * hidden, network.outputWeights, hidden, hidden,
+                Network.QA);
+        int score = (int) ((long) output * Network.SCALE / (Network.QA * Network.QB));
+        return Math.max(-MAX_SCORE, Math.min(score, MAX_SCORE));
+    }
+
+    private boolean isComputed(BitboardPosition position, int ply) {
+        int slot = ply & MASK;
+        return computed[slot] && keys[slot] == position.keyAt(ply);
+    }
+
+    /**
+     * Computes the accumulators of the current position from the nearest computed ancestor, or from scratch.
+     */
+    private void update(BitboardPosition position, int ply) {
+        int ancestor = -1;
+        for (int j = ply - 1; j >= Math.max(0, ply - MAX_DISTANCE); j--) {
+            if (isComputed(position, j)) {
+                ancestor = j;
+                break;
+            }
+        }
+
+        int slot = ply & MASK;
+        for (int perspective = WHITE; perspective <= BLACK; perspective++) {
+            int offset = (slot * 2 + perspective) * hidden;
+            int king = position.kingSquare(perspective);
+            if (ancestor < 0 || kingMoved(position, perspective, ancestor, ply)) {
+                refresh(position, perspective, king, offset);
+                continue;
+            }
+            System.arraycopy(accumulators, ((ancestor & MASK) * 2 + perspective) * hidden, accumulators, offset,
+                    hidden);
+            for (int j = ancestor; j < ply; j++) {
+                apply(position, j, perspective, king, offset, true);
+            }
+        }
+        keys[slot] = position.getKey();
+        computed[slot] = true;
+
+        // Fill in the parent, so the next sibling is a single move away
+        if (ply > 0 && !isComputed(position, ply - 1) && type(position.movedPieceAt(ply - 1)) != KING) {
+            int parent = (ply - 1) & MASK;
+            System.arraycopy(accumulators, slot * 2 * hidden, accumulators, parent * 2 * hidden, 2 * hidden);
+            for (int perspective = WHITE; perspective <= BLACK; perspective++) {
+                apply(position, ply - 1, perspective, position.kingSquare(perspective),
+                        (parent * 2 + perspective) * hidden, false);
+            }
+            keys[parent] = position.keyAt(ply - 1);
+            computed[parent] = true;
+        }
+    }
+
+    private static boolean kingMoved(BitboardPosition position, int perspective, int from, int to) {
+        int king = make(perspective, KING);
+        for (int j = from; j < to; j++) {
+            if (position.movedPieceAt(j) == king) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refresh(BitboardPosition position, int perspective, int king, int offset) {
+        System.arraycopy(network.featureBiases, 0, accumulators, offset, hidden);
+        long pieces = position.getOccupied() & ~position.getPieces(WHITE, KING) & ~position.getPieces(BLACK, KING);
+        while (pieces != 0) {
+            int square = lsb(pieces);
+            pieces &= pieces - 1;
+            add(perspective, king, position.pieceAt(square), square, offset);
+        }
+    }
+
+    /**
+     * Applies a move of the undo stack to an accumulator, or takes it back. The king of the perspective must
+     * stand on the same square before and after the move.
+     */
+    private void apply(BitboardPosition position, int index, int perspective, int king, int offset,
+                       boolean forward) {
+        int move = position.moveAt(index);
+        int piece = position.movedPieceAt(index);
+        int captured = position.capturedAt(index);
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int sign = forward ? 1 : -1;
+
+        if (type(piece) != KING) {
+            int placed = Moves.isPromotion(move) ? make(color(piece), Moves.promotionType(move)) : piece;
+            change(perspective, king, piece, from, offset, -sign);
+            change(perspective, king, placed, to, offset, sign);
+        } else if (flags == Moves.KING_CASTLE) {
+            change(perspective, king, make(color(piece), ROOK), to + 1, offset, -sign);
+            change(perspective, king, make(color(piece), ROOK), to - 1, offset, sign);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            change(perspective, king, make(color(piece), ROOK), to - 2, offset, -sign);
+            change(perspective, king, make(color(piece), ROOK), to + 1, offset, sign);
+        }
+        if (captured != NONE) {
+            change(perspective, king, captured, flags == Moves.EN_PASSANT ? to ^ 8 : to, offset, -sign);
+        }
+    }
+
+    private void change(int perspective, int king, int piece, int square, int offset, int sign) {
+        if (sign > 0) {
+            add(perspective, king, piece, square, offset);
+        } else {
+            OPS.subtract(accumulators, offset, network.featureWeights,
+                    Network.feature(perspective, king, piece, square) * hidden, hidden);
+        }
+    }
+
+    private void add(int perspective, int king, int piece, int square, int offset) {
+        OPS.add(accumulators, offset, network.featureWeights,
+                Network.feature(perspective, king, piece, square) * hidden, hidden);
+    }
+}
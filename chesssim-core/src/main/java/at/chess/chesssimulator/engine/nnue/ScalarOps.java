@@ -0,0 +1,36 @@
+package at.chess.chesssimulator.engine.nnue;
+
+/**
+ * Plain Java kernels, used when the Vector API is not available. HotSpot auto-vectorizes the add and subtract
+ * loops on most CPUs anyway.
+ */
+final class ScalarOps implements AccumulatorOps {
+
+    @Override
+    public void add(short[] accumulator, int offset, short[] weights, int row, int length) {
+        for (int i = 0; i < length; i++) {
+            accumulator[offset + i] += weights[row + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, int offset, short[] weights, int row, int length) {
+        for (int i = 0; i < length; i++) {
+            accumulator[offset + i] -= weights[row + i];
+        }
+    }
+
+    @Override
+    public int activate(short[] accumulator, int offset, short[] weights, int row, int length, int max) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += Math.max(0, Math.min(accumulator[offset + i], max)) * weights[row + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,75 @@
+package at.chess.chesssimulator.engine.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on the JDK Vector API, processing as many int16 lanes at once as the CPU's preferred vector width
+ * allows (16 with AVX2, 32 with AVX-512).
+ * <p>
+ * The output layer widens the clipped activations and the weights to int32 before multiplying, so products and
+ * sums cannot overflow 16 bits. Lengths are multiples of 16 (see {@link Network}); a scalar tail handles vector
+ * widths that do not divide them.
+ * </p>
+ */
+final class VectorOps implements AccumulatorOps {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(short[] accumulator, int offset, short[] weights, int row, int length) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, offset + i)
+                    .add(ShortVector.fromArray(SHORTS, weights, row + i))
+                    .intoArray(accumulator, offset + i);
+        }
+        for (; i < length; i++) {
+            accumulator[offset + i] += weights[row + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, int offset, short[] weights, int row, int length) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, offset + i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, row + i))
+                    .intoArray(accumulator, offset + i);
+        }
+        for (; i < length; i++) {
+            accumulator[offset + i] -= weights[row + i];
+        }
+    }
+
+    @Override
+    public int activate(short[] accumulator, int offset, short[] weights, int row, int length, int max) {
+        IntVector sum = IntVector.zero(INTS);
+        short zero = 0;
+        short limit = (short) max;
+        int i = 0;
+        for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+            ShortVector activation = ShortVector.fromArray(SHORTS, accumulator, offset + i).max(zero).min(limit);
+            ShortVector weight = ShortVector.fromArray(SHORTS, weights, row + i);
+            for (int part = 0; part < 2; part++) {
+                IntVector a = (IntVector) activation.convertShape(VectorOperators.S2I, INTS, part);
+                IntVector w = (IntVector) weight.convertShape(VectorOperators.S2I, INTS, part);
+                sum = sum.add(a.mul(w));
+            }
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += Math.max(0, Math.min(accumulator[offset + i], max)) * weights[row + i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + SHORTS.length() + "x int16";
+    }
+}
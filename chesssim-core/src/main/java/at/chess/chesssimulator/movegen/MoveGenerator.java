@@ -0,0 +1,511 @@
+package at.chess.chesssimulator.movegen;
+
+import at.chess.chesssimulator.board.bitboard.AttackTables;
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Bitboards;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.BitboardPosition.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+import static at.chess.chesssimulator.movegen.Moves.*;
+
+/**
+ * Allocation-free move generator on top of {@link BitboardPosition}.
+ * <p>
+ * Moves are written as encoded {@code int}s (see {@link Moves}) into a buffer owned by the caller, typically one
+ * preallocated {@code int[MAX_MOVES]} per search ply. The generator itself is stateless; every method only reads
+ * the position and the {@link AttackTables}, so it produces no garbage on the hot path and may be used by many
+ * threads at once.
+ * </p>
+ * <p>
+ * {@link #generate(BitboardPosition, int[], int, int)} produces pseudo-legal moves: they obey piece movement rules
+ * and castling conditions, but may leave the own king in check.
+ * {@link #generateLegal(BitboardPosition, int[], int, int)} produces only legal moves. It computes the checking
+ * pieces, the pinned pieces and the check evasion mask once per position; legality of every non-king move then
+ * follows from intersecting its targets with those masks, without making any move on the board.
+ * </p>
+ */
+public final class MoveGenerator {
+
+    /** Upper bound for the number of moves in any reachable chess position. */
+    public static final int MAX_MOVES = 256;
+
+    /** Generate captures, en-passant captures and all promotions. */
+    public static final int TACTICAL = 1;
+
+    /** Generate non-capturing, non-promoting moves including castling. */
+    public static final int QUIET = 2;
+
+    /** Generate every move. */
+    public static final int ALL = TACTICAL | QUIET;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generates all pseudo-legal moves of the side to move.
+     *
+     * @param position The position.
+     * @param moves    The buffer to write the moves into, at least {@link #MAX_MOVES} long.
+     * @return The number of moves written, starting at index 0.
+     */
+    public static int generate(BitboardPosition position, int[] moves) {
+        return generate(position, moves, 0, ALL);
+    }
+
+    /**
+     * Generates pseudo-legal moves of the side to move.
+     *
+     * @param position The position.
+     * @param moves    The buffer to write the moves into.
+     * @param start    The index of the first move to write.
+     * @param mode     {@link #TACTICAL}, {@link #QUIET} or {@link #ALL}.
+     * @return The index after the last written move.
+     */
+    public static int generate(BitboardPosition position, int[] moves, int start, int mode) {
+        int us = position.getSideToMove();
+        int them = us ^ 1;
+        long enemy = position.getOccupancy(them);
+        long occupied = position.getOccupied();
+
+        long targets = 0L;
+        if ((mode & TACTICAL) != 0) {
+            targets |= enemy;
+        }
+        if ((mode & QUIET) != 0) {
+            targets |= ~occupied;
+        }
+
+        int n = generatePawnMoves(position, moves, start, mode, us, position.getPieces(us, PAWN), Bitboards.ALL, true);
+
+        long knights = position.getPieces(us, KNIGHT);
+        while (knights != 0) {
+            int from = lsb(knights);
+            knights &= knights - 1;
+            n = serialize(moves, n, from, AttackTables.knightAttacks(from) & targets, enemy);
+        }
+
+        long bishops = position.getPieces(us, BISHOP) | position.getPieces(us, QUEEN);
+        while (bishops != 0) {
+            int from = lsb(bishops);
+            bishops &= bishops - 1;
+            n = serialize(moves, n, from, AttackTables.bishopAttacks(from, occupied) & targets, enemy);
+        }
+
+        long rooks = position.getPieces(us, ROOK) | position.getPieces(us, QUEEN);
+        while (rooks != 0) {
+            int from = lsb(rooks);
+            rooks &= rooks - 1;
+            n = serialize(moves, n, from, AttackTables.rookAttacks(from, occupied) & targets, enemy);
+        }
+
+        int king = position.kingSquare(us);
+        if (king != NO_SQUARE) {
+            n = serialize(moves, n, king, AttackTables.kingAttacks(king) & targets, enemy);
+            if ((mode & QUIET) != 0) {
+                n = generateCastling(position, moves, n, us, king, occupied);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Generates all legal moves of the side to move.
+     *
+     * @param position The position.
+     * @param moves    The buffer to write the moves into, at least {@link #MAX_MOVES} long.
+     * @return The number of moves written, starting at index 0.
+     */
+    public static int generateLegal(BitboardPosition position, int[] moves) {
+        return generateLegal(position, moves, 0, ALL);
+    }
+
+    /**
+     * Generates legal moves of the side to move.
+     * <p>
+     * The side to move must have a king. With two checkers only king moves are generated; with one checker every
+     * other piece is restricted to capturing the checker or blocking the line between checker and king; pinned
+     * pieces are restricted to the line through their king and pinner.
+     * </p>
+     *
+     * @param position The position.
+     * @param moves    The buffer to write the moves into.
+     * @param start    The index of the first move to write.
+     * @param mode     {@link #TACTICAL}, {@link #QUIET} or {@link #ALL}.
+     * @return The index after the last written move.
+     */
+    public static int generateLegal(BitboardPosition position, int[] moves, int start, int mode) {
+        int us = position.getSideToMove();
+        int them = us ^ 1;
+        long enemy = position.getOccupancy(them);
+        long occupied = position.getOccupied();
+        int king = position.kingSquare(us);
+
+        long targets = 0L;
+        if ((mode & TACTICAL) != 0) {
+            targets |= enemy;
+        }
+        if ((mode & QUIET) != 0) {
+            targets |= ~occupied;
+        }
+
+        long checkers = position.inCheck() ? position.attackersTo(king, occupied) & enemy : 0L;
+
+        // King moves: the target must not be attacked, including squares a checking slider x-rays through the king
+        long kingTargets = AttackTables.kingAttacks(king) & targets & ~position.getAttacks(them);
+        long sliderCheckers = checkers & ~position.getPieces(them, PAWN) & ~position.getPieces(them, KNIGHT);
+        while (sliderCheckers != 0) {
+            int checker = lsb(sliderCheckers);
+            sliderCheckers &= sliderCheckers - 1;
+            kingTargets &= ~AttackTables.line(king, checker) | bit(checker);
+        }
+        int n = serialize(moves, start, king, kingTargets, enemy);
+
+        if ((checkers & (checkers - 1)) != 0) {
+            return n;
+        }
+
+        // Capture the checker or interpose; without a check everything is allowed
+        long evasion = checkers == 0 ? Bitboards.ALL : checkers | AttackTables.between(king, lsb(checkers));
+        long pinned = pinnedPieces(position, us, king);
+        targets &= evasion;
+
+        long pawns = position.getPieces(us, PAWN);
+        n = generatePawnMoves(position, moves, n, mode, us, pawns & ~pinned, evasion, false);
+        long pinnedPawns = pawns & pinned;
+        while (pinnedPawns != 0) {
+            int from = lsb(pinnedPawns);
+            pinnedPawns &= pinnedPawns - 1;
+            n = generatePawnMoves(position, moves, n, mode, us, bit(from), evasion & AttackTables.line(king, from), false);
+        }
+        if ((mode & TACTICAL) != 0) {
+            n = generateLegalEnPassant(position, moves, n, us, king, pawns, occupied);
+        }
+
+        // A pinned knight can never stay on its pin line
+        long knights = position.getPieces(us, KNIGHT) & ~pinned;
+        while (knights != 0) {
+            int from = lsb(knights);
+            knights &= knights - 1;
+            n = serialize(moves, n, from, AttackTables.knightAttacks(from) & targets, enemy);
+        }
+
+        long bishops = position.getPieces(us, BISHOP) | position.getPieces(us, QUEEN);
+        while (bishops != 0) {
+            int from = lsb(bishops);
+            bishops &= bishops - 1;
+            long attacks = AttackTables.bishopAttacks(from, occupied) & targets;
+            if ((pinned & bit(from)) != 0) {
+                attacks &= AttackTables.line(king, from);
+            }
+            n = serialize(moves, n, from, attacks, enemy);
+        }
+
+        long rooks = position.getPieces(us, ROOK) | position.getPieces(us, QUEEN);
+        while (rooks != 0) {
+            int from = lsb(rooks);
+            rooks &= rooks - 1;
+            long attacks = AttackTables.rookAttacks(from, occupied) & targets;
+            if ((pinned & bit(from)) != 0) {
+                attacks &= AttackTables.line(king, from);
+            }
+            n = serialize(moves, n, from, attacks, enemy);
+        }
+
+        if (checkers == 0 && (mode & QUIET) != 0) {
+            n = generateCastling(position, moves, n, us, king, occupied);
+        }
+        return n;
+    }
+
+    /**
+     * Checks whether the side to move has at least one legal move.
+     *
+     * @param position The position.
+     * @param moves    A scratch buffer of at least {@link #MAX_MOVES} entries.
+     * @return {@code false} for checkmate and stalemate positions.
+     */
+    public static boolean hasLegalMove(BitboardPosition position, int[] moves) {
+        return generateLegal(position, moves) > 0;
+    }
+
+    /**
+     * Checks whether an encoded move is legal in a position without generating moves.
+     * <p>
+     * Meant for moves that were not generated for this position, such as transposition table moves and killer
+     * moves, which may stem from another position or be corrupted by a key collision. The flags must match the
+     * ones {@link #generateLegal(BitboardPosition, int[], int, int)} would produce for the move.
+     * </p>
+     *
+     * @param position The position; the side to move must have a king.
+     * @param move     The encoded move, may be {@link Moves#NONE}.
+     * @return {@code true} if the move is one of the legal moves of the position.
+     */
+    public static boolean isLegal(BitboardPosition position, int move) {
+        if (move == Moves.NONE) {
+            return false;
+        }
+        int us = position.getSideToMove();
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int piece = position.pieceAt(from);
+        if (piece == Pieces.NONE || color(piece) != us) {
+            return false;
+        }
+
+        int type = type(piece);
+        int king = position.kingSquare(us);
+        long occupied = position.getOccupied();
+        if (isCastling(move)) {
+            return type == KING && !position.inCheck()
+                    && canCastle(position, us, king, occupied, flags(move) == KING_CASTLE)
+                    && to == (flags(move) == KING_CASTLE ? king + 2 : king - 2);
+        }
+        if (isEnPassant(move)) {
+            return type == PAWN && to == position.getEnPassantSquare()
+                    && (AttackTables.pawnAttacks(us, from) & bit(to)) != 0
+                    && isLegalEnPassant(position, us, king, from, to, occupied);
+        }
+
+        int flags = flags(move);
+        if (flags != Moves.QUIET && flags != CAPTURE && flags != DOUBLE_PAWN_PUSH && flags < PROMOTION) {
+            return false;
+        }
+        long enemy = position.getOccupancy(us ^ 1);
+        if (isCapture(move) != ((enemy & bit(to)) != 0) || (occupied & ~enemy & bit(to)) != 0) {
+            return false;
+        }
+        if (type == PAWN) {
+            if (!isLegalPawnMove(us, from, to, flags, occupied)) {
+                return false;
+            }
+        } else if (isPromotion(move) || flags == DOUBLE_PAWN_PUSH
+                || (AttackTables.attacks(type, us, from, occupied) & bit(to)) == 0) {
+            return false;
+        }
+
+        if (type == KING) {
+            return (position.attackersTo(to, occupied ^ bit(from)) & enemy & ~bit(to)) == 0;
+        }
+        if (position.inCheck()) {
+            long checkers = position.attackersTo(king, occupied) & enemy;
+            if ((checkers & (checkers - 1)) != 0
+                    || ((checkers | AttackTables.between(king, lsb(checkers))) & bit(to)) == 0) {
+                return false;
+            }
+        }
+        return (pinnedPieces(position, us, king) & bit(from)) == 0 || (AttackTables.line(king, from) & bit(to)) != 0;
+    }
+
+    /**
+     * Returns the pieces of a color that are pinned to their king.
+     *
+     * @param position The position.
+     * @param color    The color of the king.
+     * @param king     The king square.
+     * @return The bitboard of pinned pieces.
+     */
+    public static long pinnedPieces(BitboardPosition position, int color, int king) {
+        int them = color ^ 1;
+        long queens = position.getPieces(them, QUEEN);
+        long snipers = (AttackTables.rookAttacks(king, 0L) & (position.getPieces(them, ROOK) | queens))
+                | (AttackTables.bishopAttacks(king, 0L) & (position.getPieces(them, BISHOP) | queens));
+        long occupied = position.getOccupied();
+        long own = position.getOccupancy(color);
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = lsb(snipers);
+            snipers &= snipers - 1;
+            long blockers = AttackTables.between(king, sniper) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * En-passant removes two pieces from one rank, which can expose the king in ways the pin masks do not cover.
+     * The (rare) capture is therefore verified against the resulting occupancy.
+     */
+    private static int generateLegalEnPassant(BitboardPosition position, int[] moves, int n, int us, int king,
+                                              long pawns, long occupied) {
+        int epSquare = position.getEnPassantSquare();
+        if (epSquare == NO_SQUARE) {
+            return n;
+        }
+        long capturers = AttackTables.pawnAttacks(us ^ 1, epSquare) & pawns;
+        while (capturers != 0) {
+            int from = lsb(capturers);
+            capturers &= capturers - 1;
+            if (isLegalEnPassant(position, us, king, from, epSquare, occupied)) {
+                moves[n++] = encode(from, epSquare, EN_PASSANT);
+            }
+        }
+        return n;
+    }
+
+    private static boolean isLegalEnPassant(BitboardPosition position, int us, int king, int from, int epSquare,
+                                            long occupied) {
+        int captured = epSquare ^ 8;
+        long enemy = position.getOccupancy(us ^ 1) & ~bit(captured);
+        long after = occupied ^ bit(from) ^ bit(captured) | bit(epSquare);
+        return (position.attackersTo(king, after) & enemy) == 0;
+    }
+
+    /**
+     * Checks the movement rules of a non-en-passant pawn move whose capture flag already matches the board.
+     */
+    private static boolean isLegalPawnMove(int us, int from, int to, int flags, long occupied) {
+        int up = us == WHITE ? 8 : -8;
+        boolean promotes = (bit(to) & (us == WHITE ? RANK_8 : RANK_1)) != 0;
+        if (flags == DOUBLE_PAWN_PUSH) {
+            return to == from + 2 * up && (bit(to) & (us == WHITE ? RANK_4 : RANK_5)) != 0
+                    && (occupied & (bit(from + up) | bit(to))) == 0;
+        }
+        if ((flags >= PROMOTION) != promotes) {
+            return false;
+        }
+        if ((flags & CAPTURE) != 0) {
+            return (AttackTables.pawnAttacks(us, from) & bit(to)) != 0;
+        }
+        return to == from + up;
+    }
+
+    /**
+     * Writes one move per target square, flagging captures.
+     */
+    private static int serialize(int[] moves, int n, int from, long targets, long enemy) {
+        while (targets != 0) {
+            int to = lsb(targets);
+            targets &= targets - 1;
+            moves[n++] = encode(from, to, (enemy & bit(to)) != 0 ? CAPTURE : Moves.QUIET);
+        }
+        return n;
+    }
+
+    /**
+     * Generates moves of the given pawns whose target lies in {@code destinations}.
+     */
+    private static int generatePawnMoves(BitboardPosition position, int[] moves, int n, int mode, int us,
+                                         long pawns, long destinations, boolean enPassant) {
+        if (pawns == 0) {
+            return n;
+        }
+        long enemy = position.getOccupancy(us ^ 1);
+        long occupied = position.getOccupied();
+
+        long empty = ~occupied;
+        long promotionRank = us == WHITE ? RANK_8 : RANK_1;
+        long doublePushRank = us == WHITE ? RANK_4 : RANK_5;
+        int up = us == WHITE ? 8 : -8;
+
+        long single = shift(pawns, up) & empty;
+        long doubles = shift(single, up) & empty & doublePushRank & destinations;
+        single &= destinations;
+
+        // Promotions are tactical, even without a capture
+        if ((mode & TACTICAL) != 0) {
+            long promotions = single & promotionRank;
+            while (promotions != 0) {
+                int to = lsb(promotions);
+                promotions &= promotions - 1;
+                n = addPromotions(moves, n, to - up, to, false);
+            }
+
+            long leftCaptures = shift(pawns & ~FILE_A, up - 1) & enemy & destinations;
+            long rightCaptures = shift(pawns & ~FILE_H, up + 1) & enemy & destinations;
+            n = addPawnCaptures(moves, n, leftCaptures, up - 1, promotionRank);
+            n = addPawnCaptures(moves, n, rightCaptures, up + 1, promotionRank);
+
+            int epSquare = position.getEnPassantSquare();
+            if (enPassant && epSquare != NO_SQUARE) {
+                long capturers = AttackTables.pawnAttacks(us ^ 1, epSquare) & pawns;
+                while (capturers != 0) {
+                    int from = lsb(capturers);
+                    capturers &= capturers - 1;
+                    moves[n++] = encode(from, epSquare, EN_PASSANT);
+                }
+            }
+        }
+
+        if ((mode & QUIET) != 0) {
+            long pushes = single & ~promotionRank;
+            while (pushes != 0) {
+                int to = lsb(pushes);
+                pushes &= pushes - 1;
+                moves[n++] = encode(to - up, to, Moves.QUIET);
+            }
+            while (doubles != 0) {
+                int to = lsb(doubles);
+                doubles &= doubles - 1;
+                moves[n++] = encode(to - 2 * up, to, DOUBLE_PAWN_PUSH);
+            }
+        }
+        return n;
+    }
+
+    private static int addPawnCaptures(int[] moves, int n, long captures, int offset, long promotionRank) {
+        while (captures != 0) {
+            int to = lsb(captures);
+            captures &= captures - 1;
+            if ((bit(to) & promotionRank) != 0) {
+                n = addPromotions(moves, n, to - offset, to, true);
+            } else {
+                moves[n++] = encode(to - offset, to, CAPTURE);
+            }
+        }
+        return n;
+    }
+
+    private static int addPromotions(int[] moves, int n, int from, int to, boolean capture) {
+        moves[n++] = encode(from, to, promotionFlags(QUEEN, capture));
+        moves[n++] = encode(from, to, promotionFlags(KNIGHT, capture));
+        moves[n++] = encode(from, to, promotionFlags(ROOK, capture));
+        moves[n++] = encode(from, to, promotionFlags(BISHOP, capture));
+        return n;
+    }
+
+    private static int generateCastling(BitboardPosition position, int[] moves, int n, int us, int king,
+                                        long occupied) {
+        int home = us == WHITE ? 4 : 60;
+        int rights = us == WHITE ? WHITE_KINGSIDE | WHITE_QUEENSIDE : BLACK_KINGSIDE | BLACK_QUEENSIDE;
+        if ((position.getCastlingRights() & rights) == 0 || king != home || position.isAttacked(home, us ^ 1)) {
+            return n;
+        }
+        if (canCastle(position, us, king, occupied, true)) {
+            moves[n++] = encode(home, home + 2, KING_CASTLE);
+        }
+        if (canCastle(position, us, king, occupied, false)) {
+            moves[n++] = encode(home, home - 2, QUEEN_CASTLE);
+        }
+        return n;
+    }
+
+    /**
+     * Checks the castling conditions except that the king must not be in check: the right is still held, king and
+     * rook are on their home squares, the squares between them are empty and the squares the king crosses are not
+     * attacked.
+     */
+    private static boolean canCastle(BitboardPosition position, int us, int king, long occupied, boolean kingSide) {
+        int home = us == WHITE ? 4 : 60;
+        int them = us ^ 1;
+        long rooks = position.getPieces(us, ROOK);
+        if (kingSide) {
+            int right = us == WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+            return (position.getCastlingRights() & right) != 0 && king == home && (rooks & bit(home + 3)) != 0
+                    && (occupied & (bit(home + 1) | bit(home + 2))) == 0
+                    && !position.isAttacked(home + 1, them) && !position.isAttacked(home + 2, them);
+        }
+        int right = us == WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        return (position.getCastlingRights() & right) != 0 && king == home && (rooks & bit(home - 4)) != 0
+                && (occupied & (bit(home - 1) | bit(home - 2) | bit(home - 3))) == 0
+                && !position.isAttacked(home - 1, them) && !position.isAttacked(home - 2, them);
+    }
+
+    private static long shift(long bitboard, int offset) {
+        return offset > 0 ? bitboard << offset : bitboard >>> -offset;
+    }
+}
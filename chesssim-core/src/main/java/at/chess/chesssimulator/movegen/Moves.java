@@ -0,0 +1,191 @@
+package at.chess.chesssimulator.movegen;
+
+import at.chess.chesssimulator.board.bitboard.Bitboards;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+
+/**
+ * Primitive {@code int} encoding of chess moves.
+ * <p>
+ * A move occupies the lower 16 bits of an {@code int}:
+ * <ul>
+ *   <li>bits 0-5: origin square</li>
+ *   <li>bits 6-11: target square</li>
+ *   <li>bits 12-15: flags (move kind, capture bit and promotion piece)</li>
+ * </ul>
+ * The flag layout follows the common "from-to-flags" scheme: bit 2 of the flags marks captures and bit 3 marks
+ * promotions, in which case the lower two bits select the promotion piece (knight, bishop, rook, queen).
+ * Because a move fits into 16 bits it can be stored in transposition table entries without any conversion.
+ * </p>
+ */
+public final class Moves {
+
+    /** The null move; never generated. */
+    public static final int NONE = 0;
+
+    /** A quiet move. */
+    public static final int QUIET = 0;
+
+    /** A pawn advancing two squares. */
+    public static final int DOUBLE_PAWN_PUSH = 1;
+
+    /** King side castling (king moves from e-file to g-file). */
+    public static final int KING_CASTLE = 2;
+
+    /** Queen side castling (king moves from e-file to c-file). */
+    public static final int QUEEN_CASTLE = 3;
+
+    /** A regular capture. */
+    public static final int CAPTURE = 4;
+
+    /** An en-passant capture. */
+    public static final int EN_PASSANT = 5;
+
+    /** Promotion flag; combine with {@link #CAPTURE} and a promotion offset. */
+    public static final int PROMOTION = 8;
+
+    /** Promotion to a knight. */
+    public static final int PROMOTE_KNIGHT = 8;
+
+    /** Promotion to a bishop. */
+    public static final int PROMOTE_BISHOP = 9;
+
+    /** Promotion to a rook. */
+    public static final int PROMOTE_ROOK = 10;
+
+    /** Promotion to a queen. */
+    public static final int PROMOTE_QUEEN = 11;
+
+    private Moves() {
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param from  The origin square.
+     * @param to    The target square.
+     * @param flags The move flags.
+     * @return The encoded move.
+     */
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * Returns the origin square of a move.
+     *
+     * @param move The encoded move.
+     * @return The origin square.
+     */
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * Returns the target square of a move.
+     *
+     * @param move The encoded move.
+     * @return The target square.
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * Returns the flags of a move.
+     *
+     * @param move The encoded move.
+     * @return The flags.
+     */
+    public static int flags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    /**
+     * Checks whether a move captures a piece (including en-passant).
+     *
+     * @param move The encoded move.
+     * @return {@code true} for captures.
+     */
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    /**
+     * Checks whether a move promotes a pawn.
+     *
+     * @param move The encoded move.
+     * @return {@code true} for promotions.
+     */
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    /**
+     * Checks whether a move is a capture or a promotion ("noisy" moves).
+     *
+     * @param move The encoded move.
+     * @return {@code true} for captures and promotions.
+     */
+    public static boolean isTactical(int move) {
+        return (flags(move) & (CAPTURE | PROMOTION)) != 0;
+    }
+
+    /**
+     * Checks whether a move is a castling move.
+     *
+     * @param move The encoded move.
+     * @return {@code true} for castling.
+     */
+    public static boolean isCastling(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * Checks whether a move is an en-passant capture.
+     *
+     * @param move The encoded move.
+     * @return {@code true} for en-passant captures.
+     */
+    public static boolean isEnPassant(int move) {
+        return flags(move) == EN_PASSANT;
+    }
+
+    /**
+     * Returns the piece type a move promotes to.
+     *
+     * @param move The encoded move.
+     * @return The piece type index (see {@link Pieces}), or {@link Pieces#NONE} if the move is no promotion.
+     */
+    public static int promotionType(int move) {
+        return isPromotion(move) ? Pieces.KNIGHT + (flags(move) & 3) : Pieces.NONE;
+    }
+
+    /**
+     * Returns the promotion flags for a piece type.
+     *
+     * @param type    The piece type to promote to (knight, bishop, rook or queen).
+     * @param capture Whether the promotion captures a piece.
+     * @return The move flags.
+     */
+    public static int promotionFlags(int type, boolean capture) {
+        return PROMOTION | (type - Pieces.KNIGHT) | (capture ? CAPTURE : 0);
+    }
+
+    /**
+     * Renders a move in UCI long algebraic notation, e.g. {@code e2e4} or {@code e7e8q}.
+     *
+     * @param move The encoded move.
+     * @return The UCI string, or {@code "0000"} for {@link #NONE}.
+     */
+    public static String toUci(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        String uci = Bitboards.squareName(from(move)) + Bitboards.squareName(to(move));
+        if (isPromotion(move)) {
+            uci += Character.toLowerCase(Pieces.toFenChar(promotionType(move)));
+        }
+        return uci;
+    }
+}
@@ -0,0 +1,211 @@
+package at.chess.chesssimulator.movegen;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Performance test ("perft") for the move generator: counts the leaf nodes of the legal move tree to a fixed depth.
+ * <p>
+ * The counts are compared against well known reference values to verify move generation, and the elapsed time
+ * yields a nodes-per-second figure to track its speed. The root moves are split across a {@link ForkJoinPool},
+ * each worker walking its subtree on a private copy of the position with {@link BitboardPosition#makeMove(int)}
+ * and {@link BitboardPosition#unmakeMove()}. An optional {@link PerftCache} shares subtree counts between workers.
+ * </p>
+ * <p>
+ * Usage: {@code Perft <depth> [fen] [--threads n] [--hash mb]}; prints the divide output (one line per root move)
+ * followed by the totals.
+ * </p>
+ */
+public final class Perft {
+
+    private final ForkJoinPool pool;
+
+    private final PerftCache cache;
+
+    /**
+     * Creates a perft runner.
+     *
+     * @param pool  The pool the root moves are distributed on.
+     * @param cache The subtree cache, or {@code null} to count every node.
+     */
+    public Perft(ForkJoinPool pool, PerftCache cache) {
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    /**
+     * Counts the leaf nodes of a position single-threaded and without cache.
+     *
+     * @param position The position; restored when the method returns.
+     * @param depth    The depth in plies.
+     * @return The number of leaf nodes.
+     */
+    public static long count(BitboardPosition position, int depth) {
+        return depth == 0 ? 1 : search(position, depth, new int[depth + 1][MoveGenerator.MAX_MOVES], null);
+    }
+
+    /**
+     * Counts the leaf nodes below every legal root move.
+     *
+     * @param position The position; it is not modified.
+     * @param depth    The depth in plies, at least 1.
+     * @return The per-move counts and totals.
+     */
+    public Result divide(BitboardPosition position, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+        }
+        long start = System.nanoTime();
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+
+        List<Callable<Long>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BitboardPosition child = position.copy();
+            child.makeMove(moves[i]);
+            tasks.add(() -> depth == 1 ? 1L : search(child, depth - 1, new int[depth][MoveGenerator.MAX_MOVES], cache));
+        }
+
+        long[] counts = new long[count];
+        List<Future<Long>> results = pool.invokeAll(tasks);
+        try {
+            for (int i = 0; i < count; i++) {
+                counts[i] = results.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Perft was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft failed", e.getCause());
+        }
+        return new Result(Arrays.copyOf(moves, count), counts, System.nanoTime() - start);
+    }
+
+    /**
+     * Depth-first leaf count using one move buffer per remaining depth. Since only legal moves are generated, the
+     * last ply is counted without making its moves.
+     */
+    private static long search(BitboardPosition position, int depth, int[][] buffers, PerftCache cache) {
+        if (cache != null && depth > 1) {
+            long cached = cache.get(position.getKey(), depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+
+        int[] moves = buffers[depth];
+        int count = MoveGenerator.generateLegal(position, moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            nodes += search(position, depth - 1, buffers, cache);
+            position.unmakeMove();
+        }
+
+        if (cache != null && depth > 1) {
+            cache.put(position.getKey(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Outcome of a {@link #divide(BitboardPosition, int)} run.
+     */
+    @Getter
+    public static final class Result {
+
+        /** The legal root moves. */
+        private final int[] moves;
+
+        /** The leaf count below each root move, parallel to {@link #moves}. */
+        private final long[] counts;
+
+        /** The total leaf count. */
+        private final long nodes;
+
+        /** The elapsed wall clock time in nanoseconds. */
+        private final long nanos;
+
+        private Result(int[] moves, long[] counts, long nanos) {
+            this.moves = moves;
+            this.counts = counts;
+            this.nanos = nanos;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.nodes = total;
+        }
+
+        /**
+         * Returns the speed of the run.
+         *
+         * @return Leaf nodes per second.
+         */
+        public long getNodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+
+        /**
+         * Renders the divide output, one {@code <uci move>: <count>} line per root move sorted by move.
+         *
+         * @return The divide listing.
+         */
+        public String toDivideString() {
+            List<String> lines = new ArrayList<>(moves.length);
+            for (int i = 0; i < moves.length; i++) {
+                lines.add(Moves.toUci(moves[i]) + ": " + counts[i]);
+            }
+            lines.sort(null);
+            return String.join(System.lineSeparator(), lines);
+        }
+    }
+
+    /**
+     * Runs a divide on the command line.
+     *
+     * @param args {@code <depth> [fen] [--threads n] [--hash mb]}
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft <depth> [fen] [--threads n] [--hash mb]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String fen = BitboardPosition.START_FEN;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hash = 0;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                default -> fen = args[i];
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Perft perft = new Perft(pool, hash > 0 ? new PerftCache(hash) : null);
+            Result result = perft.divide(new BitboardPosition(fen), depth);
+            System.out.println(result.toDivideString());
+            System.out.println();
+            System.out.printf("Nodes: %d%nTime: %d ms%nNPS: %d%n",
+                    result.getNodes(), result.getNanos() / 1_000_000, result.getNodesPerSecond());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package at.chess.chesssimulator.movegen;
+
+/**
+ * Lock-free hash table memoizing perft subtree counts by Zobrist key and depth.
+ * <p>
+ * Every entry consists of two {@code long}s: the count and the count XOR-ed with the (depth-salted) key.
+ * A reader accepts an entry only if both words still fit together, so concurrent writers from several
+ * fork-join workers can at worst cause a miss, never a wrong count. Entries are simply overwritten on collision.
+ * </p>
+ */
+public final class PerftCache {
+
+    /** Multiplier mixing the depth into the key, so the same position at different depths gets different slots. */
+    private static final long DEPTH_SALT = 0x9E3779B97F4A7C15L;
+
+    private final long[] table;
+
+    private final int mask;
+
+    /**
+     * Creates a cache using roughly the given amount of memory.
+     *
+     * @param megabytes The table size in MiB; rounded down to a power of two number of entries.
+     */
+    public PerftCache(int megabytes) {
+        long entries = Math.max(1L, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 28));
+        this.table = new long[size * 2];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Looks up the node count of a subtree.
+     *
+     * @param key   The Zobrist key of the subtree root.
+     * @param depth The remaining depth.
+     * @return The stored count, or {@code -1} if there is none.
+     */
+    public long get(long key, int depth) {
+        long salted = key ^ (depth * DEPTH_SALT);
+        int index = ((int) salted & mask) << 1;
+        long count = table[index + 1];
+        return (table[index] ^ count) == salted ? count : -1;
+    }
+
+    /**
+     * Stores the node count of a subtree.
+     *
+     * @param key   The Zobrist key of the subtree root.
+     * @param depth The remaining depth.
+     * @param count The node count.
+     */
+    public void put(long key, int depth, long count) {
+        long salted = key ^ (depth * DEPTH_SALT);
+        int index = ((int) salted & mask) << 1;
+        table[index] = salted ^ count;
+        table[index + 1] = count;
+    }
+}
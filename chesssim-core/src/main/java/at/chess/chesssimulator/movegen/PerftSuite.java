@@ -0,0 +1,92 @@
+package at.chess.chesssimulator.movegen;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Regression suite running {@link Perft} on the standard test positions and comparing against published counts.
+ * <p>
+ * The positions cover castling, en-passant, promotions, pins and checks (start position, "Kiwipete" and the
+ * other positions of the Chess Programming Wiki perft results page). Every change to move generation or make/unmake
+ * should be checked with this suite for correctness and speed.
+ * </p>
+ * <p>
+ * Usage: {@code PerftSuite [max depth] [--threads n] [--hash mb]}. Exits with status 1 if any count is wrong.
+ * </p>
+ */
+public final class PerftSuite {
+
+    /** Test positions as FEN, followed by the expected counts for depth 1, 2, ... */
+    private static final Object[][] POSITIONS = {
+            {BitboardPosition.START_FEN,
+                    new long[]{20, 400, 8_902, 197_281, 4_865_609, 119_060_324}},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2_039, 97_862, 4_085_603, 193_690_690}},
+            {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{14, 191, 2_812, 43_238, 674_624, 11_030_083}},
+            {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9_467, 422_333, 15_833_292}},
+            {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{44, 1_486, 62_379, 2_103_487, 89_941_194}},
+            {"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[]{46, 2_079, 89_890, 3_894_594, 164_075_551}},
+    };
+
+    private PerftSuite() {
+    }
+
+    /**
+     * Runs the suite.
+     *
+     * @param args {@code [max depth] [--threads n] [--hash mb]}
+     */
+    public static void main(String[] args) {
+        int maxDepth = 4;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hash = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--hash" -> hash = Integer.parseInt(args[++i]);
+                default -> maxDepth = Integer.parseInt(args[i]);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        boolean passed = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        try {
+            for (Object[] entry : POSITIONS) {
+                String fen = (String) entry[0];
+                long[] expected = (long[]) entry[1];
+                int depth = Math.min(maxDepth, expected.length);
+
+                // A fresh cache per position keeps the timings comparable between runs
+                Perft perft = new Perft(pool, hash > 0 ? new PerftCache(hash) : null);
+                Perft.Result result = perft.divide(new BitboardPosition(fen), depth);
+                boolean ok = result.getNodes() == expected[depth - 1];
+                passed &= ok;
+                totalNodes += result.getNodes();
+                totalNanos += result.getNanos();
+
+                System.out.printf("%-4s depth %d  %,15d nodes  %,8d ms  %,13d nps  %s%n",
+                        ok ? "OK" : "FAIL", depth, result.getNodes(), result.getNanos() / 1_000_000,
+                        result.getNodesPerSecond(), fen);
+                if (!ok) {
+                    System.out.printf("     expected %,d%n%s%n", expected[depth - 1], result.toDivideString());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.printf("%nTotal: %,d nodes in %,d ms (%,d nps)%n", totalNodes, totalNanos / 1_000_000,
+                totalNanos == 0 ? 0 : totalNodes * 1_000_000_000L / totalNanos);
+        if (!passed) {
+            System.out.println("Perft suite FAILED");
+            System.exit(1);
+        }
+    }
+}
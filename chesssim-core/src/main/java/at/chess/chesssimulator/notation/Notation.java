@@ -0,0 +1,147 @@
+package at.chess.chesssimulator.notation;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+
+/**
+ * Conversion between encoded moves and their textual notations.
+ * <p>
+ * Supports standard algebraic notation (SAN, e.g. {@code Nbd7}, {@code exd6}, {@code e8=Q+}, {@code O-O}) as used
+ * in PGN files, and UCI long algebraic notation (e.g. {@code e7e8q}) as used by engines and the network protocol.
+ * Parsing only accepts legal moves. Methods taking a position may make and unmake moves on it to test legality,
+ * but always leave it unchanged.
+ * </p>
+ */
+public final class Notation {
+
+    private Notation() {
+    }
+
+    /**
+     * Renders a legal move in standard algebraic notation, including check and mate markers.
+     *
+     * @param position The position before the move.
+     * @param move     The encoded move.
+     * @return The SAN string.
+     */
+    public static String toSan(BitboardPosition position, int move) {
+        StringBuilder san = new StringBuilder();
+        int flags = Moves.flags(move);
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+
+        if (flags == Moves.KING_CASTLE) {
+            san.append("O-O");
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            san.append("O-O-O");
+        } else {
+            int type = Pieces.type(position.pieceAt(from));
+            if (type == Pieces.PAWN) {
+                if (Moves.isCapture(move)) {
+                    san.append((char) ('a' + file(from)));
+                }
+            } else {
+                san.append(Pieces.toFenChar(type));
+                appendDisambiguation(san, position, move, type);
+            }
+            if (Moves.isCapture(move)) {
+                san.append('x');
+            }
+            san.append(squareName(to));
+            if (Moves.isPromotion(move)) {
+                san.append('=').append(Pieces.toFenChar(Moves.promotionType(move)));
+            }
+        }
+
+        position.makeMove(move);
+        if (position.inCheck()) {
+            san.append(MoveGenerator.hasLegalMove(position, new int[MoveGenerator.MAX_MOVES]) ? '+' : '#');
+        }
+        position.unmakeMove();
+        return san.toString();
+    }
+
+    /**
+     * Parses a move in standard algebraic notation. Check markers and annotations ({@code +#!?}) are ignored,
+     * castling may be written with zeros as well.
+     *
+     * @param position The position the move is played in.
+     * @param san      The SAN string.
+     * @return The encoded move.
+     * @throws IllegalArgumentException if the string denotes no legal move.
+     */
+    public static int parseSan(BitboardPosition position, String san) {
+        String wanted = stripSan(san);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        for (int i = 0; i < count; i++) {
+            if (stripSan(toSan(position, moves[i])).equals(wanted)) {
+                return moves[i];
+            }
+        }
+        throw new IllegalArgumentException("Illegal or unknown move: " + san);
+    }
+
+    /**
+     * Parses a move in UCI long algebraic notation.
+     *
+     * @param position The position the move is played in.
+     * @param uci      The UCI string, e.g. {@code e2e4} or {@code e7e8q}.
+     * @return The encoded move.
+     * @throws IllegalArgumentException if the string denotes no legal move.
+     */
+    public static int parseUci(BitboardPosition position, String uci) {
+        String wanted = uci.trim().toLowerCase();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        for (int i = 0; i < count; i++) {
+            if (Moves.toUci(moves[i]).equals(wanted)) {
+                return moves[i];
+            }
+        }
+        throw new IllegalArgumentException("Illegal or unknown move: " + uci);
+    }
+
+    /**
+     * Adds file and/or rank of the origin square if another piece of the same type can reach the target.
+     */
+    private static void appendDisambiguation(StringBuilder san, BitboardPosition position, int move, int type) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = moves[i];
+            int otherFrom = Moves.from(other);
+            if (otherFrom == from || Moves.to(other) != to || Pieces.type(position.pieceAt(otherFrom)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= file(otherFrom) == file(from);
+            sameRank |= rank(otherFrom) == rank(from);
+        }
+
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + file(from)));
+        } else if (!sameRank) {
+            san.append((char) ('1' + rank(from)));
+        } else {
+            san.append(squareName(from));
+        }
+    }
+
+    private static String stripSan(String san) {
+        return san.trim().replaceAll("[+#!?]", "").replace('0', 'O');
+    }
+}
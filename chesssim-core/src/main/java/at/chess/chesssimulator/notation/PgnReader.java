@@ -0,0 +1,180 @@
+package at.chess.chesssimulator.notation;
+
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader of PGN files, one game at a time.
+ * <p>
+ * Only what is needed to replay the main line is kept: the tag pairs, the moves in SAN and the result. Comments
+ * ({@code {...}} and {@code ;} to the end of the line), variations, numeric annotation glyphs and move numbers are
+ * skipped. The moves are not validated here; replay them with {@link Notation#parseSan} starting from the
+ * {@code FEN} tag, if present, or the initial position.
+ * </p>
+ */
+public class PgnReader {
+
+    /** Result token of an unfinished or unknown game. */
+    public static final String UNKNOWN_RESULT = "*";
+
+    private final BufferedReader reader;
+
+    /** The tag pairs of the current game in file order. */
+    @Getter
+    private final Map<String, String> tags = new LinkedHashMap<>();
+
+    /** The main line of the current game in SAN. */
+    @Getter
+    private final List<String> moves = new ArrayList<>();
+
+    /** The result of the current game: {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@value #UNKNOWN_RESULT}. */
+    @Getter
+    private String result = UNKNOWN_RESULT;
+
+    private int pushedBack = -2;
+
+    /**
+     * Creates a reader.
+     *
+     * @param reader The PGN text; buffered by the reader if necessary.
+     */
+    public PgnReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Reads the next game, replacing the tags, moves and result of the previous one.
+     *
+     * @return {@code false} if the input holds no further game.
+     * @throws IOException if the input cannot be read.
+     */
+    public boolean next() throws IOException {
+        tags.clear();
+        moves.clear();
+        result = UNKNOWN_RESULT;
+
+        int c = skipWhitespace();
+        while (c == '[') {
+            readTag();
+            c = skipWhitespace();
+        }
+        if (c == -1) {
+            return !tags.isEmpty();
+        }
+
+        int depth = 0;
+        StringBuilder token = new StringBuilder();
+        while (c != -1) {
+            if (c == '[' && depth == 0 && token.isEmpty()) {
+                // The tags of the next game, the current one had no result token
+                pushedBack = c;
+                return true;
+            }
+            if (!Character.isWhitespace(c) && c != '{' && c != ';' && c != '(' && c != ')') {
+                token.append((char) c);
+                c = read();
+                continue;
+            }
+            // A delimiter may follow a token directly ("e5(", "Nf3)"), so the token belongs to the current depth
+            if (!token.isEmpty() && depth == 0 && addToken(token.toString())) {
+                return true;
+            }
+            token.setLength(0);
+            switch (c) {
+                case '{' -> skipPast('}');
+                case ';' -> skipPast('\n');
+                case '(' -> depth++;
+                case ')' -> depth--;
+                default -> {
+                }
+            }
+            c = read();
+        }
+        if (!token.isEmpty() && depth == 0) {
+            addToken(token.toString());
+        }
+        return true;
+    }
+
+    /**
+     * Classifies a movetext token.
+     *
+     * @return {@code true} if the token is the result, which ends the game.
+     */
+    private boolean addToken(String token) {
+        switch (token) {
+            case "1-0", "0-1", "1/2-1/2", UNKNOWN_RESULT -> {
+                result = token;
+                return true;
+            }
+            default -> {
+                // Move numbers may be glued to the move ("1.e4", "12...Nf6")
+                int start = 0;
+                while (start < token.length()
+                        && (Character.isDigit(token.charAt(start)) || token.charAt(start) == '.')) {
+                    start++;
+                }
+                if (start < token.length() && token.charAt(start) != '$') {
+                    moves.add(token.substring(start));
+                }
+                return false;
+            }
+        }
+    }
+
+    private void readTag() throws IOException {
+        StringBuilder name = new StringBuilder();
+        int c = skipWhitespace();
+        while (c != -1 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            name.append((char) c);
+            c = read();
+        }
+        while (c != -1 && c != '"' && c != ']') {
+            c = read();
+        }
+        StringBuilder value = new StringBuilder();
+        if (c == '"') {
+            c = read();
+            while (c != -1 && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                }
+                value.append((char) c);
+                c = read();
+            }
+            skipPast(']');
+        }
+        tags.put(name.toString(), value.toString());
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c != -1 && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    private void skipPast(char end) throws IOException {
+        int c = read();
+        while (c != -1 && c != end) {
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,118 @@
+package at.chess.chesssimulator.rules;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Decides whether a game is drawn by the rules: stalemate, threefold repetition, the fifty-move rule or
+ * insufficient material.
+ * <p>
+ * Every check works on the position's own state. Repetitions are found in the Zobrist key history the position
+ * keeps for unmaking moves: only positions since the last capture or pawn move, as counted by the halfmove clock,
+ * can repeat, and only every second one has the same side to move, so the scan is bounded by the clock. Castling
+ * and en-passant rights are part of the key, so positions that differ in them never count as repetitions. The
+ * material check is a few mask operations and the stalemate check stops at the first legal move.
+ * </p>
+ */
+public final class DrawDetector {
+
+    /** Plies without a capture or pawn move after which the game is drawn. */
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    /** Light squares, for bishops of the same color. */
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private DrawDetector() {
+    }
+
+    /**
+     * Checks all draw rules for the position after the last move.
+     * <p>
+     * Checkmate takes precedence: a mated position is never reported as drawn, not even on the hundredth ply of the
+     * fifty-move rule.
+     * </p>
+     *
+     * @param position The position; not modified.
+     * @param moves    Scratch space of {@link MoveGenerator#MAX_MOVES} entries.
+     * @return The reason the game is drawn, or {@code null} if it goes on or is checkmate.
+     */
+    public static DrawReason check(BitboardPosition position, int[] moves) {
+        if (!MoveGenerator.hasLegalMove(position, moves)) {
+            return position.inCheck() ? null : DrawReason.STALEMATE;
+        }
+        if (isInsufficientMaterial(position)) {
+            return DrawReason.INSUFFICIENT_MATERIAL;
+        }
+        if (position.getHalfmoveClock() >= FIFTY_MOVE_PLIES) {
+            return DrawReason.FIFTY_MOVE_RULE;
+        }
+        if (repetitions(position) >= 3) {
+            return DrawReason.THREEFOLD_REPETITION;
+        }
+        return null;
+    }
+
+    /**
+     * Counts how often the current position occurred in the game, including now.
+     *
+     * @param position The position with the moves of the game played on it.
+     * @return At least {@code 1}.
+     */
+    public static int repetitions(BitboardPosition position) {
+        long key = position.getKey();
+        int current = position.getHistoryLength();
+        int oldest = Math.max(0, current - position.getHalfmoveClock());
+        int count = 1;
+        // Two plies back the mover's piece cannot be home yet, so the nearest candidate is four plies back
+        for (int index = current - 4; index >= oldest; index -= 2) {
+            if (position.keyAt(index) == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the current position occurred before; searches score such a position as a draw, since the
+     * side that could avoid the repetition would already have done so.
+     *
+     * @param position The position with the moves of the game and the search played on it.
+     * @return {@code true} on the first repetition.
+     */
+    public static boolean isRepetition(BitboardPosition position) {
+        long key = position.getKey();
+        int current = position.getHistoryLength();
+        int oldest = Math.max(0, current - position.getHalfmoveClock());
+        for (int index = current - 4; index >= oldest; index -= 2) {
+            if (position.keyAt(index) == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether neither side can possibly checkmate: bare kings, a single minor piece, or only bishops that
+     * all stand on squares of one color.
+     *
+     * @param position The position.
+     * @return {@code true} if no sequence of legal moves leads to a checkmate.
+     */
+    public static boolean isInsufficientMaterial(BitboardPosition position) {
+        long heavy = position.getPieces(WHITE, PAWN) | position.getPieces(BLACK, PAWN)
+                | position.getPieces(WHITE, ROOK) | position.getPieces(BLACK, ROOK)
+                | position.getPieces(WHITE, QUEEN) | position.getPieces(BLACK, QUEEN);
+        if (heavy != 0) {
+            return false;
+        }
+        long knights = position.getPieces(WHITE, KNIGHT) | position.getPieces(BLACK, KNIGHT);
+        long bishops = position.getPieces(WHITE, BISHOP) | position.getPieces(BLACK, BISHOP);
+        if (count(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+}
@@ -0,0 +1,29 @@
+package at.chess.chesssimulator.rules;
+
+import lombok.Getter;
+
+/**
+ * The rules by which a game ends in a draw, as detected by {@link DrawDetector}.
+ */
+@Getter
+public enum DrawReason {
+
+    /** The side to move is not in check and has no legal move. */
+    STALEMATE("stalemate"),
+
+    /** The same position occurred for the third time with the same side to move and the same rights. */
+    THREEFOLD_REPETITION("threefold repetition"),
+
+    /** Fifty moves of each side were played without a capture or a pawn move. */
+    FIFTY_MOVE_RULE("fifty-move rule"),
+
+    /** Neither side has the material left to checkmate. */
+    INSUFFICIENT_MATERIAL("insufficient material");
+
+    /** A human-readable description, e.g. for the end-of-game message. */
+    private final String description;
+
+    DrawReason(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,328 @@
+package at.chess.chesssimulator.tablebase;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * The table of one material signature, e.g. {@code KQvK} or {@code KPvKP}.
+ * <p>
+ * A signature lists the white pieces, then {@code v}, then the black pieces, each side starting with its king and
+ * continuing from the queen down to the pawns. The stronger side is always white; positions with the colors the
+ * other way round are looked up with colors swapped and the board mirrored vertically (see
+ * {@link Tablebases}).
+ * </p>
+ * <p>
+ * Every table entry is addressed by an index built from the side to move, the white king, the black king and the
+ * other pieces in signature order. The white king is kept on the files a to d by mirroring the board horizontally,
+ * which halves the table; without castling rights the mirrored position has the same value. Identical pieces are
+ * stored with ascending squares only, the other orders are marked {@link #ILLEGAL}.
+ * </p>
+ * <p>
+ * An entry holds the distance to mate in plies from the point of view of the side to move, encoded in a byte:
+ * {@code 0} is a draw, {@code n > 0} a win in {@code n} plies, {@code -n - 1} a loss in {@code n} plies (so
+ * {@code -1} is checkmate). A table may instead be backed by the two-bit win/draw/loss encoding only, which is four
+ * times smaller but knows no distances.
+ * </p>
+ */
+public final class Tablebase {
+
+    /** Entry of an impossible position: overlapping pieces, pawns on the back ranks or the side not to move in check. */
+    public static final byte ILLEGAL = Byte.MIN_VALUE;
+
+    /** Entry value of a draw. */
+    public static final byte DRAW = 0;
+
+    /** Two-bit values of a WDL table. */
+    static final int WDL_ILLEGAL = 0;
+    static final int WDL_LOSS = 1;
+    static final int WDL_DRAW = 2;
+    static final int WDL_WIN = 3;
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    /** The signature, e.g. {@code KRvKN}. */
+    @Getter
+    private final String signature;
+
+    /** The piece code of every index slot: white king, black king, then the other pieces in signature order. */
+    private final int[] pieces;
+
+    /** The number of entries. */
+    @Getter
+    private final int size;
+
+    /** One byte per entry, or {@code null} for a WDL-only table. */
+    private final ByteBuffer dtm;
+
+    /** Two bits per entry, or {@code null} if the DTM values are available. */
+    private final ByteBuffer wdl;
+
+    /**
+     * Creates a table backed by DTM or WDL values.
+     *
+     * @param signature The material signature.
+     * @param dtm       One byte per entry, or {@code null}.
+     * @param wdl       Two bits per entry, used if {@code dtm} is {@code null}.
+     */
+    Tablebase(String signature, ByteBuffer dtm, ByteBuffer wdl) {
+        this.signature = signature;
+        this.pieces = parse(signature);
+        this.size = size(pieces.length);
+        this.dtm = dtm;
+        this.wdl = dtm == null ? wdl : null;
+    }
+
+    /**
+     * Checks whether the table knows distances to mate.
+     *
+     * @return {@code false} for a WDL-only table.
+     */
+    public boolean hasDtm() {
+        return dtm != null;
+    }
+
+    /**
+     * Returns the piece codes of a signature in index order.
+     *
+     * @param signature The signature.
+     * @return White king, black king, then the other pieces.
+     * @throws IllegalArgumentException if the signature is malformed.
+     */
+    static int[] parse(String signature) {
+        int separator = signature.indexOf('v');
+        if (separator < 1 || signature.charAt(0) != 'K' || signature.length() < separator + 2
+                || signature.charAt(separator + 1) != 'K') {
+            throw new IllegalArgumentException("Invalid material signature: " + signature);
+        }
+        int[] pieces = new int[signature.length() - 1];
+        pieces[0] = make(WHITE, KING);
+        pieces[1] = make(BLACK, KING);
+        int count = 2;
+        for (int i = 1; i < signature.length(); i++) {
+            if (i == separator || i == separator + 1) {
+                continue;
+            }
+            int type = PIECE_LETTERS.indexOf(signature.charAt(i));
+            if (type < 0 || type == KING) {
+                throw new IllegalArgumentException("Invalid material signature: " + signature);
+            }
+            pieces[count++] = make(i < separator ? WHITE : BLACK, type);
+        }
+        return pieces;
+    }
+
+    /**
+     * Returns the signature of a list of pieces, without deciding which side is the stronger one.
+     *
+     * @param pieces Non-king piece codes of both colors, in any order.
+     * @param count  The number of pieces.
+     * @return The signature with white as given.
+     */
+    static String signature(int[] pieces, int count) {
+        StringBuilder white = new StringBuilder("K");
+        StringBuilder black = new StringBuilder("K");
+        for (int type = QUEEN; type >= PAWN; type--) {
+            for (int i = 0; i < count; i++) {
+                if (type(pieces[i]) == type) {
+                    (color(pieces[i]) == WHITE ? white : black).append(PIECE_LETTERS.charAt(type));
+                }
+            }
+        }
+        return white + "v" + black;
+    }
+
+    /**
+     * Returns the number of entries of a table with some pieces.
+     *
+     * @param pieces The number of pieces including both kings.
+     * @return The table size.
+     */
+    static int size(int pieces) {
+        return 2 * 32 * (1 << (6 * (pieces - 1)));
+    }
+
+    /**
+     * Returns the number of pieces of the table including the kings.
+     *
+     * @return The piece count.
+     */
+    public int getPieceCount() {
+        return pieces.length;
+    }
+
+    /**
+     * Returns the piece code of an index slot.
+     *
+     * @param slot The slot, {@code 0} and {@code 1} for the kings.
+     * @return The piece code.
+     */
+    int pieceAt(int slot) {
+        return pieces[slot];
+    }
+
+    /**
+     * Computes the index of a position with this table's material.
+     *
+     * @param position The position; its material must match the signature, possibly with colors swapped.
+     * @param flip     Whether the colors are swapped relative to the signature.
+     * @param squares  Scratch space of at least {@link #getPieceCount()} entries.
+     * @return The index.
+     */
+    int index(BitboardPosition position, boolean flip, int[] squares) {
+        int vertical = flip ? 56 : 0;
+        int slot = 2;
+        squares[0] = position.kingSquare(flip ? BLACK : WHITE) ^ vertical;
+        squares[1] = position.kingSquare(flip ? WHITE : BLACK) ^ vertical;
+        while (slot < pieces.length) {
+            int piece = pieces[slot];
+            int actual = flip ? make(color(piece) ^ 1, type(piece)) : piece;
+            long bitboard = position.getPieces(actual);
+            while (bitboard != 0) {
+                squares[slot++] = lsb(bitboard) ^ vertical;
+                bitboard &= bitboard - 1;
+            }
+        }
+
+        return encode(position.getSideToMove() ^ (flip ? 1 : 0), squares);
+    }
+
+    /**
+     * Computes the index of squares in slot order.
+     *
+     * @param sideToMove The side to move in table colors.
+     * @param squares    The square of every slot; mirrored and reordered into the canonical form in place.
+     * @return The index.
+     */
+    int encode(int sideToMove, int[] squares) {
+        int horizontal = file(squares[0]) >= 4 ? 7 : 0;
+        for (int i = 0; i < pieces.length; i++) {
+            squares[i] ^= horizontal;
+        }
+        sortIdentical(squares);
+        int index = sideToMove * 32 + rank(squares[0]) * 4 + file(squares[0]);
+        for (int i = 1; i < pieces.length; i++) {
+            index = index * 64 + squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Decodes an index into squares.
+     *
+     * @param index   The index.
+     * @param squares Receives the square of every slot.
+     * @return The side to move.
+     */
+    int decode(int index, int[] squares) {
+        for (int i = pieces.length - 1; i >= 1; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        int king = index & 31;
+        squares[0] = (king >>> 2) * 8 + (king & 3);
+        return index >>> 5;
+    }
+
+    /**
+     * Checks whether decoded squares are the canonical order of identical pieces.
+     *
+     * @param squares The decoded squares.
+     * @return {@code false} if identical pieces are not in ascending square order.
+     */
+    boolean isCanonical(int[] squares) {
+        for (int i = 3; i < pieces.length; i++) {
+            if (pieces[i] == pieces[i - 1] && squares[i] <= squares[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the DTM entry at an index.
+     *
+     * @param index The index.
+     * @return The encoded distance, see the class documentation.
+     * @throws IllegalStateException for a WDL-only table.
+     */
+    byte dtm(int index) {
+        if (dtm == null) {
+            throw new IllegalStateException("No DTM values for " + signature);
+        }
+        return dtm.get(index);
+    }
+
+    /**
+     * Returns the win/draw/loss value at an index.
+     *
+     * @param index The index.
+     * @return One of the {@code WDL_*} values.
+     */
+    int wdl(int index) {
+        if (dtm != null) {
+            return toWdl(dtm.get(index));
+        }
+        return (wdl.get(index >>> 2) >>> ((index & 3) * 2)) & 3;
+    }
+
+    /**
+     * Converts a DTM entry to a WDL value.
+     *
+     * @param value The DTM entry.
+     * @return The WDL value.
+     */
+    static int toWdl(byte value) {
+        if (value == ILLEGAL) {
+            return WDL_ILLEGAL;
+        }
+        return value == DRAW ? WDL_DRAW : value > 0 ? WDL_WIN : WDL_LOSS;
+    }
+
+    /**
+     * Converts the entry of a successor into the value of the move leading there.
+     *
+     * @param successor The entry of the position after the move, from the opponent's point of view.
+     * @return The value for the side making the move.
+     */
+    static byte fromSuccessor(byte successor) {
+        if (successor == DRAW) {
+            return DRAW;
+        }
+        // The opponent losing in n plies is a win in n + 1, the opponent winning in n a loss in n + 1
+        return (byte) (successor < 0 ? -successor : -successor - 2);
+    }
+
+    /**
+     * Orders entries from the side to move's point of view: quick wins first, then slow wins, draws, slow losses
+     * and quick losses.
+     *
+     * @param value An entry other than {@link #ILLEGAL}.
+     * @return A number that is larger for better values.
+     */
+    static int preference(byte value) {
+        if (value == DRAW) {
+            return 0;
+        }
+        return value > 0 ? 1000 - value : -1000 - value;
+    }
+
+    private void sortIdentical(int[] squares) {
+        for (int i = 3; i < pieces.length; i++) {
+            for (int j = i; j > 2 && pieces[j] == pieces[j - 1] && squares[j] < squares[j - 1]; j--) {
+                int swap = squares[j];
+                squares[j] = squares[j - 1];
+                squares[j - 1] = swap;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return signature + (dtm != null ? " (DTM, " : " (WDL, ") + size + " entries)";
+    }
+}
@@ -0,0 +1,482 @@
+package at.chess.chesssimulator.tablebase;
+
+import at.chess.chesssimulator.board.bitboard.AttackTables;
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Generates endgame tables with up to {@link Tablebases#MAX_PIECES} pieces by retrograde analysis.
+ * <p>
+ * The tables an ending can convert into (captures, promotions and both) are generated first, so every move that
+ * leaves the table can be looked up. An initial pass over all positions marks impossible positions, checkmates and
+ * stalemates, and records for every position what its exits into those smaller tables are worth. Then pass
+ * {@code n} finds the positions decided in exactly {@code n} plies:
+ * </p>
+ * <ul>
+ *     <li>for odd {@code n}, every position with a move into a loss in {@code n - 1} plies is a win in {@code n};
+ *     the candidates are found by taking back moves from the losses of the previous pass;</li>
+ *     <li>for even {@code n}, a position whose moves all lead to wins of the opponent, the slowest one in
+ *     {@code n - 1} plies, is a loss in {@code n}; the candidates are the take-backs from the wins of the previous
+ *     pass, checked by generating all their moves.</li>
+ * </ul>
+ * <p>
+ * When a pass decides nothing and no exit is still pending, the remaining positions are draws. Every pass runs in
+ * parallel over chunks of the table; threads only ever store the value their pass is about, so concurrent writes
+ * to the same entry agree. The tables ignore en-passant captures directly after a double push and the fifty-move
+ * rule, see {@link Tablebases}.
+ * </p>
+ */
+public class TablebaseGenerator {
+
+    protected static final Logger logger = LoggerFactory.getLogger(TablebaseGenerator.class);
+
+    /** Entry of a position that is not decided yet. */
+    private static final byte UNKNOWN = Byte.MAX_VALUE;
+
+    /** Exit marker of a position with a drawing exit, which therefore can never be lost. */
+    private static final byte NO_LOSS = Byte.MIN_VALUE;
+
+    /** Entries per parallel work unit. */
+    private static final int CHUNK = 1 << 14;
+
+    private static final int[] PROMOTIONS = {QUEEN, ROOK, BISHOP, KNIGHT};
+
+    private final Path directory;
+
+    /** The finished tables, read while generating the ones that depend on them. */
+    @Getter
+    private final Tablebases tablebases;
+
+    /**
+     * Creates a generator writing to a directory and reusing the tables already there.
+     *
+     * @param directory The table directory; created if missing.
+     * @throws IOException if the directory cannot be created or read.
+     */
+    public TablebaseGenerator(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.tablebases = Tablebases.open(directory);
+    }
+
+    /**
+     * Generates a table and all tables it depends on, skipping those whose DTM file exists.
+     *
+     * @param signature The signature, e.g. {@code KRvK}; either side may be the stronger one.
+     * @throws IOException              if a table cannot be written.
+     * @throws IllegalArgumentException if the signature is malformed or has too many pieces.
+     */
+    public void generate(String signature) throws IOException {
+        String canonical = Tablebases.canonical(signature);
+        int pieces = Tablebase.parse(canonical).length;
+        if (pieces > Tablebases.MAX_PIECES) {
+            throw new IllegalArgumentException(canonical + " has more than " + Tablebases.MAX_PIECES + " pieces");
+        }
+        if (pieces == 2 || tablebases.getTables().stream()
+                .anyMatch(table -> table.getSignature().equals(canonical) && table.hasDtm())) {
+            return;
+        }
+        for (String subtable : subtables(canonical)) {
+            generate(subtable);
+        }
+
+        long start = System.nanoTime();
+        Tablebase table = new Tablebase(canonical, null, null);
+        byte[] values = solve(table);
+        write(canonical, values);
+        tablebases.add(new Tablebase(canonical, ByteBuffer.wrap(values), null));
+        logStatistics(table, values, System.nanoTime() - start);
+    }
+
+    /**
+     * Lists the tables a signature converts into by a capture, a promotion or a capturing promotion.
+     *
+     * @param signature A canonical signature.
+     * @return The canonical signatures of the subtables, without the bare kings.
+     */
+    static Set<String> subtables(String signature) {
+        int[] pieces = Tablebase.parse(signature);
+        int[] others = new int[pieces.length - 2];
+        System.arraycopy(pieces, 2, others, 0, others.length);
+        Set<String> subtables = new LinkedHashSet<>();
+        for (int i = 0; i < others.length; i++) {
+            if (others.length > 1) {
+                int[] captured = new int[others.length - 1];
+                for (int j = 0, k = 0; j < others.length; j++) {
+                    if (j != i) {
+                        captured[k++] = others[j];
+                    }
+                }
+                subtables.add(Tablebases.canonical(Tablebase.signature(captured, captured.length)));
+            }
+            if (type(others[i]) == PAWN) {
+                for (int promotion : PROMOTIONS) {
+                    int[] promoted = others.clone();
+                    promoted[i] = make(color(others[i]), promotion);
+                    subtables.add(Tablebases.canonical(Tablebase.signature(promoted, promoted.length)));
+                }
+            }
+        }
+        return subtables;
+    }
+
+    private byte[] solve(Tablebase table) {
+        int size = table.getSize();
+        int chunks = size / CHUNK;
+        byte[] values = new byte[size];
+        byte[] exits = new byte[size];
+
+        int maxExit = IntStream.range(0, chunks).parallel()
+                .map(chunk -> initialize(table, values, exits, chunk * CHUNK, (chunk + 1) * CHUNK))
+                .max().orElse(0);
+
+        int quietPasses = 0;
+        for (int n = 1; quietPasses < 2 || n <= maxExit; n++) {
+            if (n == UNKNOWN) {
+                throw new IllegalStateException(table.getSignature() + " has mates beyond " + (n - 1) + " plies");
+            }
+            int pass = n;
+            int decided = IntStream.range(0, chunks).parallel()
+                    .map(chunk -> retrograde(table, values, exits, pass, chunk * CHUNK, (chunk + 1) * CHUNK))
+                    .sum();
+            logger.debug("{} pass {}: {} positions decided", table.getSignature(), n, decided);
+            // A win in n needs a loss in n - 1 and a loss in n a win in n - 1; two empty passes end the chains
+            quietPasses = decided == 0 ? quietPasses + 1 : 0;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (values[i] == UNKNOWN) {
+                values[i] = Tablebase.DRAW;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The initial pass over a range of entries.
+     *
+     * @return The largest pass any exit of the range is pending for.
+     */
+    private int initialize(Tablebase table, byte[] values, byte[] exits, int from, int to) {
+        int count = table.getPieceCount();
+        int[] squares = new int[count];
+        int[] placed = new int[count];
+        int[] scratch = new int[Tablebases.MAX_PIECES];
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Arrays.fill(placed, NO_SQUARE);
+        BitboardPosition position = new BitboardPosition();
+        int maxExit = 0;
+
+        for (int index = from; index < to; index++) {
+            int stm = table.decode(index, squares);
+            if (!isPossible(table, squares)) {
+                values[index] = Tablebase.ILLEGAL;
+                continue;
+            }
+            // Consecutive indices differ in few squares; move only those pieces instead of rebuilding the board
+            for (int slot = 0; slot < count; slot++) {
+                if (placed[slot] != squares[slot] && placed[slot] != NO_SQUARE) {
+                    position.removePiece(placed[slot]);
+                }
+            }
+            for (int slot = 0; slot < count; slot++) {
+                if (placed[slot] != squares[slot]) {
+                    position.putPiece(table.pieceAt(slot), squares[slot]);
+                    placed[slot] = squares[slot];
+                }
+            }
+            position.setSideToMove(stm);
+            if (position.isAttacked(position.kingSquare(stm ^ 1), stm)) {
+                values[index] = Tablebase.ILLEGAL;
+                continue;
+            }
+
+            int legal = MoveGenerator.generateLegal(position, moves);
+            if (legal == 0) {
+                values[index] = position.inCheck() ? (byte) -1 : Tablebase.DRAW;
+                continue;
+            }
+            values[index] = UNKNOWN;
+
+            int fastestWin = Integer.MAX_VALUE;
+            int slowestLoss = 0;
+            boolean drawn = false;
+            for (int i = 0; i < legal; i++) {
+                if (!Moves.isTactical(moves[i])) {
+                    continue;
+                }
+                position.makeMove(moves[i]);
+                byte successor = tablebases.probeDtm(position, scratch);
+                position.unmakeMove();
+                if (successor == Tablebase.ILLEGAL) {
+                    throw new IllegalStateException("Missing subtable of " + table.getSignature());
+                }
+                byte value = Tablebase.fromSuccessor(successor);
+                if (value > 0) {
+                    fastestWin = Math.min(fastestWin, value);
+                } else if (value == Tablebase.DRAW) {
+                    drawn = true;
+                } else {
+                    slowestLoss = Math.max(slowestLoss, -value - 1);
+                }
+            }
+            if (fastestWin != Integer.MAX_VALUE) {
+                exits[index] = (byte) fastestWin;
+            } else if (drawn) {
+                exits[index] = NO_LOSS;
+            } else {
+                exits[index] = (byte) -slowestLoss;
+            }
+            maxExit = Math.max(maxExit, exits[index] == NO_LOSS ? 0 : Math.abs(exits[index]));
+        }
+        return maxExit;
+    }
+
+    private static boolean isPossible(Tablebase table, int[] squares) {
+        long occupied = 0;
+        for (int slot = 0; slot < table.getPieceCount(); slot++) {
+            long square = bit(squares[slot]);
+            if ((occupied & square) != 0
+                    || type(table.pieceAt(slot)) == PAWN && (square & (RANK_1 | RANK_8)) != 0) {
+                return false;
+            }
+            occupied |= square;
+        }
+        return table.isCanonical(squares);
+    }
+
+    /**
+     * Pass {@code n} over a range of entries: expands the positions decided in the previous pass into their
+     * predecessors and settles the positions whose best or slowest exit takes {@code n} plies.
+     *
+     * @return The number of positions decided.
+     */
+    private int retrograde(Tablebase table, byte[] values, byte[] exits, int n, int from, int to) {
+        boolean winPass = (n & 1) == 1;
+        // The entries found in the previous pass: losses in n - 1 before a win pass, wins in n - 1 before a loss pass
+        byte previous = (byte) (winPass ? -n : n - 1);
+        byte exitTrigger = (byte) (winPass ? n : -n);
+        int[] squares = new int[table.getPieceCount()];
+        int[] predecessor = new int[table.getPieceCount()];
+        int[] candidateSquares = new int[table.getPieceCount()];
+        int[] scratch = new int[Tablebases.MAX_PIECES];
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        BitboardPosition position = new BitboardPosition();
+        int decided = 0;
+
+        for (int index = from; index < to; index++) {
+            byte value = values[index];
+            if (value == UNKNOWN && exits[index] == exitTrigger) {
+                decided += decide(table, values, index, n, winPass, position, candidateSquares, scratch, moves);
+            } else if (value == previous) {
+                int stm = table.decode(index, squares);
+                int mover = stm ^ 1;
+                long occupied = 0;
+                for (int slot = 0; slot < squares.length; slot++) {
+                    occupied |= bit(squares[slot]);
+                }
+                for (int slot = 0; slot < squares.length; slot++) {
+                    int piece = table.pieceAt(slot);
+                    if (color(piece) != mover) {
+                        continue;
+                    }
+                    long origins = origins(piece, squares[slot], occupied);
+                    while (origins != 0) {
+                        System.arraycopy(squares, 0, predecessor, 0, squares.length);
+                        predecessor[slot] = lsb(origins);
+                        origins &= origins - 1;
+                        int candidate = table.encode(mover, predecessor);
+                        if (values[candidate] == UNKNOWN) {
+                            decided += decide(table, values, candidate, n, winPass, position, candidateSquares,
+                                    scratch, moves);
+                        }
+                    }
+                }
+            }
+        }
+        return decided;
+    }
+
+    /**
+     * Returns the squares a piece may have come from by a move that is neither a capture nor a promotion.
+     */
+    private static long origins(int piece, int square, long occupied) {
+        int type = type(piece);
+        if (type != PAWN) {
+            return AttackTables.attacks(type, color(piece), square, occupied) & ~occupied;
+        }
+        long origins = 0;
+        int backward = color(piece) == WHITE ? -8 : 8;
+        int start = color(piece) == WHITE ? 1 : 6;
+        int single = square + backward;
+        if (rank(single) != 0 && rank(single) != 7 && !contains(occupied, single)) {
+            origins |= bit(single);
+            int twice = single + backward;
+            if (rank(twice) == start && !contains(occupied, twice)) {
+                origins |= bit(twice);
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * Stores a win in {@code n}, or checks all moves of a loss candidate.
+     *
+     * @return {@code 1} if the position was decided, otherwise {@code 0}.
+     */
+    private int decide(Tablebase table, byte[] values, int index, int n, boolean winPass, BitboardPosition position,
+                       int[] squares, int[] scratch, int[] moves) {
+        if (winPass) {
+            values[index] = (byte) n;
+            return 1;
+        }
+
+        int stm = table.decode(index, squares);
+        position.clear();
+        for (int slot = 0; slot < squares.length; slot++) {
+            position.putPiece(table.pieceAt(slot), squares[slot]);
+        }
+        position.setSideToMove(stm);
+        int legal = MoveGenerator.generateLegal(position, moves);
+        int slowest = 0;
+        for (int i = 0; i < legal; i++) {
+            position.makeMove(moves[i]);
+            byte successor = Moves.isTactical(moves[i])
+                    ? tablebases.probeDtm(position, scratch)
+                    : values[table.index(position, false, scratch)];
+            position.unmakeMove();
+            if (successor <= 0 || successor == UNKNOWN) {
+                return 0;
+            }
+            slowest = Math.max(slowest, successor);
+        }
+        if (slowest + 1 != n) {
+            return 0;
+        }
+        values[index] = (byte) -(n + 1);
+        return 1;
+    }
+
+    private void write(String signature, byte[] values) throws IOException {
+        byte[] wdl = new byte[values.length / 4];
+        for (int i = 0; i < values.length; i++) {
+            wdl[i >>> 2] |= (byte) (Tablebase.toWdl(values[i]) << ((i & 3) * 2));
+        }
+        writeAtomically(directory.resolve(signature + Tablebases.DTM_EXTENSION), values);
+        writeAtomically(directory.resolve(signature + Tablebases.WDL_EXTENSION), wdl);
+    }
+
+    /**
+     * Writes a file under a temporary name first, so an interrupted run never leaves a truncated table behind.
+     */
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, content);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void logStatistics(Tablebase table, byte[] values, long nanos) {
+        long wins = 0;
+        long draws = 0;
+        long losses = 0;
+        int longest = -1;
+        for (int i = 0; i < values.length; i++) {
+            byte value = values[i];
+            if (value == Tablebase.ILLEGAL) {
+                continue;
+            }
+            if (value > 0) {
+                wins++;
+            } else if (value == Tablebase.DRAW) {
+                draws++;
+            } else {
+                losses++;
+                if (longest < 0 || value < values[longest]) {
+                    longest = i;
+                }
+            }
+        }
+
+        String deepest = "-";
+        if (longest >= 0) {
+            int[] squares = new int[table.getPieceCount()];
+            BitboardPosition position = new BitboardPosition();
+            position.setSideToMove(table.decode(longest, squares));
+            for (int slot = 0; slot < squares.length; slot++) {
+                position.putPiece(table.pieceAt(slot), squares[slot]);
+            }
+            deepest = position.toFen() + " (mated in " + (-values[longest] - 1) + " plies)";
+        }
+        logger.info("Generated {} in {} ms: {} wins, {} draws, {} losses, deepest {}", table.getSignature(),
+                nanos / 1_000_000, wins, draws, losses, deepest);
+    }
+
+    /**
+     * Lists all canonical signatures with up to some number of pieces.
+     *
+     * @param pieces The largest piece count including the kings, at most {@link Tablebases#MAX_PIECES}.
+     * @return The signatures, smaller tables first.
+     */
+    public static List<String> allSignatures(int pieces) {
+        int[] types = {QUEEN, ROOK, BISHOP, KNIGHT, PAWN};
+        Set<String> signatures = new LinkedHashSet<>();
+        List<int[]> previous = List.of(new int[0]);
+        for (int count = 1; count <= pieces - 2; count++) {
+            List<int[]> next = new ArrayList<>();
+            for (int[] material : previous) {
+                for (int color = WHITE; color <= BLACK; color++) {
+                    for (int type : types) {
+                        int[] extended = Arrays.copyOf(material, count);
+                        extended[count - 1] = make(color, type);
+                        next.add(extended);
+                        signatures.add(Tablebases.canonical(Tablebase.signature(extended, count)));
+                    }
+                }
+            }
+            previous = next;
+        }
+        return new ArrayList<>(signatures);
+    }
+
+    /**
+     * Generates tables on the command line.
+     *
+     * @param args {@code <directory> <signature>...} or {@code <directory> --all [pieces]}
+     * @throws IOException if a table cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TablebaseGenerator <directory> <signature>... | <directory> --all [pieces]");
+            return;
+        }
+
+        TablebaseGenerator generator = new TablebaseGenerator(Path.of(args[0]));
+        List<String> signatures = args[1].equals("--all")
+                ? allSignatures(args.length > 2 ? Integer.parseInt(args[2]) : Tablebases.MAX_PIECES)
+                : List.of(args).subList(1, args.length);
+        long start = System.nanoTime();
+        for (String signature : signatures) {
+            generator.generate(signature);
+        }
+        System.out.println(generator.getTablebases().getTables().size() + " tables in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,411 @@
+package at.chess.chesssimulator.tablebase;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.engine.Search;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import at.chess.chesssimulator.notation.Notation;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static at.chess.chesssimulator.board.bitboard.Bitboards.*;
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * The endgame tables of a directory and the probing API used by the search and the players.
+ * <p>
+ * Tables are written by {@link TablebaseGenerator}: {@code <signature>.dtm} files with one distance-to-mate byte per
+ * position and {@code <signature>.wdl} files with two win/draw/loss bits per position. When both exist, only the DTM
+ * file is mapped since it holds the WDL values as well. Files are memory-mapped, so opening is instant, the
+ * operating system pages in what is probed and all probes may run concurrently from any number of threads.
+ * </p>
+ * <p>
+ * Positions with castling rights or an en-passant square are never answered: the tables assume neither. Distances
+ * ignore the fifty-move rule, so a won position may in rare cases only be a draw under it; the search still applies
+ * the rule on its own.
+ * </p>
+ */
+public final class Tablebases {
+
+    protected static final Logger logger = LoggerFactory.getLogger(Tablebases.class);
+
+    /** The largest number of pieces, kings included, the generator supports. */
+    public static final int MAX_PIECES = 4;
+
+    /** WDL result: the side to move wins. */
+    public static final int WIN = 1;
+
+    /** WDL result: the position is drawn. */
+    public static final int DRAW = 0;
+
+    /** WDL result: the side to move loses. */
+    public static final int LOSS = -1;
+
+    /** Result of a probe the tables cannot answer. */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /** Search score of a win known from a WDL-only table, below the mate scores so it never claims a mate. */
+    public static final int WIN_SCORE = Search.MATE_BOUND - Search.MAX_PLY;
+
+    /** File extension of distance-to-mate tables. */
+    public static final String DTM_EXTENSION = ".dtm";
+
+    /** File extension of win/draw/loss tables. */
+    public static final String WDL_EXTENSION = ".wdl";
+
+    /** The non-king pieces in material key order. */
+    private static final int[] MATERIAL_PIECES = {
+            make(WHITE, PAWN), make(WHITE, KNIGHT), make(WHITE, BISHOP), make(WHITE, ROOK), make(WHITE, QUEEN),
+            make(BLACK, PAWN), make(BLACK, KNIGHT), make(BLACK, BISHOP), make(BLACK, ROOK), make(BLACK, QUEEN)
+    };
+
+    /** Material keys count every non-king piece from zero to two, in base three. */
+    private static final int MATERIAL_KEYS = 59049;
+
+    /** Pseudo material key of positions with only the two kings, which are always drawn. */
+    private static final int BARE_KINGS = -1;
+
+    /** Pseudo material key of positions no loaded table covers. */
+    private static final int NOT_PROBEABLE = -2;
+
+    private static final int[] PIECE_VALUES = {1, 3, 3, 5, 9, 0};
+
+    /** The table of every material key, or {@code null}. */
+    private final Tablebase[] tables = new Tablebase[MATERIAL_KEYS];
+
+    /** Whether the table of a material key has the colors swapped relative to the position. */
+    private final boolean[] flipped = new boolean[MATERIAL_KEYS];
+
+    private final List<Tablebase> loaded = new ArrayList<>();
+
+    /** The largest piece count of all tables; positions with bare kings are always known. */
+    @Getter
+    private int maxPieces = 2;
+
+    /**
+     * Maps all tables of a directory.
+     *
+     * @param directory The directory holding {@code .dtm} and {@code .wdl} files.
+     * @return The tables.
+     * @throws IOException if a file cannot be mapped or has the wrong size.
+     */
+    public static Tablebases open(Path directory) throws IOException {
+        Tablebases tablebases = new Tablebases();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*{" + DTM_EXTENSION + ","
+                + WDL_EXTENSION + "}")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String signature = name.substring(0, name.length() - DTM_EXTENSION.length());
+                boolean dtm = name.endsWith(DTM_EXTENSION);
+                if (!dtm && Files.exists(directory.resolve(signature + DTM_EXTENSION))) {
+                    continue;
+                }
+                int size = Tablebase.size(Tablebase.parse(signature).length);
+                ByteBuffer buffer = map(file, dtm ? size : size / 4);
+                tablebases.add(dtm ? new Tablebase(signature, buffer, null) : new Tablebase(signature, null, buffer));
+            }
+        }
+        logger.info("Opened {} endgame tables up to {} pieces from {}", tablebases.loaded.size(),
+                tablebases.maxPieces, directory);
+        return tablebases;
+    }
+
+    private static ByteBuffer map(Path file, long expected) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != expected) {
+                throw new IOException("Endgame table " + file + " has " + channel.size() + " bytes, expected "
+                        + expected);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, expected);
+        }
+    }
+
+    /**
+     * Registers a table for both color orientations, replacing a table of the same material.
+     *
+     * @param table The table.
+     */
+    void add(Tablebase table) {
+        int[] pieces = new int[table.getPieceCount() - 2];
+        int[] swapped = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = table.pieceAt(i + 2);
+            swapped[i] = make(color(pieces[i]) ^ 1, type(pieces[i]));
+        }
+        int swappedKey = materialKey(swapped);
+        tables[swappedKey] = table;
+        flipped[swappedKey] = true;
+        int key = materialKey(pieces);
+        tables[key] = table;
+        flipped[key] = false;
+
+        loaded.removeIf(other -> other.getSignature().equals(table.getSignature()));
+        loaded.add(table);
+        maxPieces = Math.max(maxPieces, table.getPieceCount());
+    }
+
+    /**
+     * Returns the loaded tables.
+     *
+     * @return An unmodifiable list.
+     */
+    public List<Tablebase> getTables() {
+        return Collections.unmodifiableList(loaded);
+    }
+
+    /**
+     * Returns the signature with the stronger side as white, the form tables are generated and stored in.
+     *
+     * @param signature A signature such as {@code KvKQ}.
+     * @return The canonical signature, e.g. {@code KQvK}.
+     */
+    public static String canonical(String signature) {
+        int separator = signature.indexOf('v');
+        String white = signature.substring(0, separator);
+        String black = signature.substring(separator + 1);
+        int whiteValue = materialValue(white);
+        int blackValue = materialValue(black);
+        boolean swap = blackValue != whiteValue
+                ? blackValue > whiteValue
+                : black.length() != white.length() ? black.length() > white.length() : black.compareTo(white) > 0;
+        return swap ? black + "v" + white : signature;
+    }
+
+    private static int materialValue(String side) {
+        int value = 0;
+        for (int i = 0; i < side.length(); i++) {
+            value += PIECE_VALUES["PNBRQK".indexOf(side.charAt(i))];
+        }
+        return value;
+    }
+
+    /**
+     * Probes the win/draw/loss value of a position.
+     *
+     * @param position The position; not modified.
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the side to move, or {@link #UNKNOWN}.
+     */
+    public int probeWdl(BitboardPosition position) {
+        int key = probeableKey(position);
+        if (key < 0) {
+            return key == BARE_KINGS ? DRAW : UNKNOWN;
+        }
+        Tablebase table = tables[key];
+        return switch (table.wdl(table.index(position, flipped[key], new int[MAX_PIECES]))) {
+            case Tablebase.WDL_WIN -> WIN;
+            case Tablebase.WDL_DRAW -> DRAW;
+            case Tablebase.WDL_LOSS -> LOSS;
+            default -> UNKNOWN;
+        };
+    }
+
+    /**
+     * Probes a position and returns a score on the scale of {@link Search}.
+     * <p>
+     * With a DTM table, wins and losses become exact mate scores relative to the root; a WDL-only table yields
+     * {@link #WIN_SCORE} minus the ply, which still prefers the shortest path to the won ending.
+     * </p>
+     *
+     * @param position The position; not modified.
+     * @param ply      The distance of the position from the search root.
+     * @return The score for the side to move, or {@link #UNKNOWN}.
+     */
+    public int probeScore(BitboardPosition position, int ply) {
+        int key = probeableKey(position);
+        if (key < 0) {
+            return key == BARE_KINGS ? Search.DRAW : UNKNOWN;
+        }
+        Tablebase table = tables[key];
+        int index = table.index(position, flipped[key], new int[MAX_PIECES]);
+        if (!table.hasDtm()) {
+            return switch (table.wdl(index)) {
+                case Tablebase.WDL_WIN -> WIN_SCORE - ply;
+                case Tablebase.WDL_DRAW -> Search.DRAW;
+                case Tablebase.WDL_LOSS -> -WIN_SCORE + ply;
+                default -> UNKNOWN;
+            };
+        }
+        byte value = table.dtm(index);
+        if (value == Tablebase.ILLEGAL) {
+            return UNKNOWN;
+        }
+        if (value == Tablebase.DRAW) {
+            return Search.DRAW;
+        }
+        return value > 0 ? Search.MATE - ply - value : -Search.MATE + ply - value - 1;
+    }
+
+    /**
+     * Probes the raw DTM entry of a position for the generator.
+     *
+     * @param position The position; not modified.
+     * @param squares  Scratch space of {@link #MAX_PIECES} entries.
+     * @return The entry, or {@link Tablebase#ILLEGAL} if there is no DTM table of the material.
+     */
+    byte probeDtm(BitboardPosition position, int[] squares) {
+        int key = probeableKey(position);
+        if (key < 0) {
+            return key == BARE_KINGS ? Tablebase.DRAW : Tablebase.ILLEGAL;
+        }
+        Tablebase table = tables[key];
+        return table.hasDtm() ? table.dtm(table.index(position, flipped[key], squares)) : Tablebase.ILLEGAL;
+    }
+
+    /**
+     * Returns a move that keeps the game-theoretical value with the best distance to mate: the fastest win, the
+     * longest resistance or any move holding the draw.
+     *
+     * @param position The position; not modified.
+     * @return The move, or {@link Moves#NONE} if the position or one of its successors cannot be probed.
+     */
+    public int bestMove(BitboardPosition position) {
+        int[] squares = new int[MAX_PIECES];
+        if (position.getCastlingRights() != 0 || probeDtm(position, squares) == Tablebase.ILLEGAL
+                && position.getEnPassantSquare() == NO_SQUARE) {
+            return Moves.NONE;
+        }
+
+        BitboardPosition copy = position.copy();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(copy, moves);
+        int best = Moves.NONE;
+        int bestPreference = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            copy.makeMove(moves[i]);
+            byte successor = successorDtm(copy, squares);
+            copy.unmakeMove();
+            if (successor == Tablebase.ILLEGAL) {
+                return Moves.NONE;
+            }
+            int preference = Tablebase.preference(Tablebase.fromSuccessor(successor));
+            if (preference > bestPreference) {
+                bestPreference = preference;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Probes a successor, resolving an en-passant square that the tables do not cover: the value is the better one
+     * of the position without the square and of the en-passant captures.
+     */
+    private byte successorDtm(BitboardPosition successor, int[] squares) {
+        int enPassant = successor.getEnPassantSquare();
+        if (enPassant == NO_SQUARE) {
+            return probeDtm(successor, squares);
+        }
+        successor.setEnPassantSquare(NO_SQUARE);
+        byte best = probeDtm(successor, squares);
+        successor.setEnPassantSquare(enPassant);
+        if (best == Tablebase.ILLEGAL) {
+            return best;
+        }
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(successor, moves);
+        for (int i = 0; i < count; i++) {
+            if (Moves.isEnPassant(moves[i])) {
+                successor.makeMove(moves[i]);
+                byte capture = probeDtm(successor, squares);
+                successor.unmakeMove();
+                if (capture == Tablebase.ILLEGAL) {
+                    return capture;
+                }
+                byte value = Tablebase.fromSuccessor(capture);
+                if (Tablebase.preference(value) > Tablebase.preference(best)) {
+                    best = value;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the material key of a position if a table can answer it, {@link #BARE_KINGS} or
+     * {@link #NOT_PROBEABLE}.
+     */
+    private int probeableKey(BitboardPosition position) {
+        int pieces = count(position.getOccupied());
+        if (pieces > maxPieces || position.getCastlingRights() != 0 || position.getEnPassantSquare() != NO_SQUARE) {
+            return NOT_PROBEABLE;
+        }
+        if (pieces == 2) {
+            return BARE_KINGS;
+        }
+        int key = 0;
+        for (int piece : MATERIAL_PIECES) {
+            int count = count(position.getPieces(piece));
+            if (count > 2) {
+                return NOT_PROBEABLE;
+            }
+            key = key * 3 + count;
+        }
+        return tables[key] != null ? key : NOT_PROBEABLE;
+    }
+
+    private static int materialKey(int[] pieces) {
+        int key = 0;
+        for (int piece : MATERIAL_PIECES) {
+            int count = 0;
+            for (int other : pieces) {
+                if (other == piece) {
+                    count++;
+                }
+            }
+            key = key * 3 + count;
+        }
+        return key;
+    }
+
+    /**
+     * Prints the loaded tables and, for a position, its value and the line of best moves to the end.
+     *
+     * @param args {@code <directory> [fen]}
+     * @throws IOException if the tables cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: Tablebases <directory> [fen]");
+            return;
+        }
+
+        Tablebases tablebases = open(Path.of(args[0]));
+        for (Tablebase table : tablebases.getTables()) {
+            System.out.println(table);
+        }
+        if (args.length < 2) {
+            return;
+        }
+
+        BitboardPosition position = new BitboardPosition(args[1]);
+        int score = tablebases.probeScore(position, 0);
+        if (score == UNKNOWN) {
+            System.out.println("Not in the tables: " + position.toFen());
+            return;
+        }
+        System.out.println("wdl " + tablebases.probeWdl(position) + ", score " + score);
+        StringBuilder line = new StringBuilder();
+        for (int move = tablebases.bestMove(position); move != Moves.NONE;
+             move = tablebases.bestMove(position)) {
+            line.append(Notation.toSan(position, move)).append(' ');
+            position.makeMove(move);
+            if (position.getHalfmoveClock() >= 100 || line.length() > 1000) {
+                break;
+            }
+        }
+        System.out.println(line.toString().trim());
+    }
+}
@@ -0,0 +1,130 @@
+package at.chess.chesssimulator.tournament;
+
+import at.chess.chesssimulator.engine.ClassicalEvaluator;
+import at.chess.chesssimulator.engine.Evaluator;
+import at.chess.chesssimulator.engine.MaterialEvaluator;
+import at.chess.chesssimulator.engine.PieceSquareEvaluator;
+import at.chess.chesssimulator.engine.Search;
+import at.chess.chesssimulator.engine.TranspositionTable;
+import at.chess.chesssimulator.engine.nnue.Network;
+import at.chess.chesssimulator.engine.nnue.NnueEvaluator;
+import at.chess.chesssimulator.tablebase.Tablebases;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * One engine of a {@link Tournament}: an evaluation, a hash size and optional endgame tables.
+ * <p>
+ * A configuration is immutable and shared by all worker threads; every worker creates its own {@link Search}
+ * from it, since searches and evaluators keep per-thread state. The network and the tables are loaded once and
+ * shared, both are read-only.
+ * </p>
+ */
+@Getter
+public final class EngineConfig {
+
+    /** The name written to the PGN and the results. */
+    private final String name;
+
+    /** The transposition table size of every instance in megabytes. */
+    private final int hashMegabytes;
+
+    /** The endgame tables the engine probes, or {@code null}. */
+    private final Tablebases tablebases;
+
+    private final Supplier<Evaluator> evaluators;
+
+    /**
+     * Creates a configuration.
+     *
+     * @param name          The engine name.
+     * @param evaluators    Creates a fresh evaluator for every instance.
+     * @param hashMegabytes The transposition table size.
+     * @param tablebases    The endgame tables, or {@code null}.
+     */
+    public EngineConfig(String name, Supplier<Evaluator> evaluators, int hashMegabytes, Tablebases tablebases) {
+        this.name = name;
+        this.evaluators = evaluators;
+        this.hashMegabytes = hashMegabytes;
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Parses a configuration from comma-separated options.
+     *
+     * @param spec {@code name=x,eval=classical|material|pst|nnue,nnue=file,hash=mb,tb=directory}; every option is
+     *             optional, {@code nnue=file} implies the NNUE evaluation.
+     * @return The configuration.
+     * @throws IOException              if the network or the tables cannot be loaded.
+     * @throws IllegalArgumentException if an option is unknown.
+     */
+    public static EngineConfig parse(String spec) throws IOException {
+        String name = null;
+        String eval = "classical";
+        Path networkFile = null;
+        int hash = Search.DEFAULT_HASH_MB;
+        Tablebases tablebases = null;
+        for (String option : spec.split(",")) {
+            int separator = option.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Engine option without value: " + option);
+            }
+            String value = option.substring(separator + 1);
+            switch (option.substring(0, separator)) {
+                case "name" -> name = value;
+                case "eval" -> eval = value;
+                case "nnue" -> {
+                    networkFile = Path.of(value);
+                    eval = "nnue";
+                }
+                case "hash" -> hash = Integer.parseInt(value);
+                case "tb" -> tablebases = Tablebases.open(Path.of(value));
+                default -> throw new IllegalArgumentException("Unknown engine option: " + option);
+            }
+        }
+
+        Supplier<Evaluator> evaluators = switch (eval) {
+            case "classical" -> ClassicalEvaluator::new;
+            case "material" -> MaterialEvaluator::new;
+            case "pst" -> PieceSquareEvaluator::new;
+            case "nnue" -> {
+                if (networkFile == null) {
+                    throw new IllegalArgumentException("The NNUE evaluation needs nnue=file");
+                }
+                Network network = Network.load(networkFile);
+                yield () -> new NnueEvaluator(network);
+            }
+            default -> throw new IllegalArgumentException("Unknown evaluation: " + eval);
+        };
+        return new EngineConfig(name != null ? name : eval, evaluators, hash, tablebases);
+    }
+
+    /**
+     * Creates a transposition table of the configured size for an instance.
+     *
+     * @return The table.
+     */
+    public TranspositionTable createTable() {
+        return new TranspositionTable(hashMegabytes);
+    }
+
+    /**
+     * Creates a single-threaded instance of the engine.
+     *
+     * @param table The instance's own table, see {@link #createTable()}.
+     * @return The search.
+     */
+    public Search createSearch(TranspositionTable table) {
+        Search search = new Search(evaluators.get(), table);
+        search.setTablebases(tablebases);
+        return search;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,131 @@
+package at.chess.chesssimulator.tournament;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.engine.Search;
+import at.chess.chesssimulator.engine.SearchResult;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.movegen.Moves;
+import at.chess.chesssimulator.notation.Notation;
+import at.chess.chesssimulator.rules.DrawDetector;
+import at.chess.chesssimulator.rules.DrawReason;
+import at.chess.chesssimulator.tablebase.Tablebases;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static at.chess.chesssimulator.board.bitboard.Pieces.*;
+
+/**
+ * Plays a single game between two engine instances on a board of its own.
+ * <p>
+ * The game ends by the rules (checkmate or one of the {@linkplain DrawDetector draw rules}), when a side oversteps
+ * its clock, or by adjudication: after a ply limit as a draw, or with the value of the endgame tables once few
+ * enough pieces are left.
+ * </p>
+ */
+final class Game {
+
+    private final int round;
+
+    private final String fen;
+
+    /** The players by color. */
+    private final EngineConfig[] players;
+
+    /** The searches of the players by color, owned by the calling thread. */
+    private final Search[] searches;
+
+    private final TimeControl timeControl;
+
+    private final int maxPlies;
+
+    private final Tablebases adjudication;
+
+    /**
+     * Prepares a game.
+     *
+     * @param round        The game number.
+     * @param fen          The start position.
+     * @param white        The white player.
+     * @param whiteSearch  The white player's search, with an emptied table.
+     * @param black        The black player.
+     * @param blackSearch  The black player's search, with an emptied table.
+     * @param timeControl  The time control.
+     * @param maxPlies     The plies after which the game is adjudicated a draw, or {@code 0} for no limit.
+     * @param adjudication The tables to adjudicate endgames with, or {@code null}.
+     */
+    Game(int round, String fen, EngineConfig white, Search whiteSearch, EngineConfig black, Search blackSearch,
+         TimeControl timeControl, int maxPlies, Tablebases adjudication) {
+        this.round = round;
+        this.fen = fen;
+        this.players = new EngineConfig[]{white, black};
+        this.searches = new Search[]{whiteSearch, blackSearch};
+        this.timeControl = timeControl;
+        this.maxPlies = maxPlies;
+        this.adjudication = adjudication;
+    }
+
+    /**
+     * Plays the game to the end.
+     *
+     * @param stopped Checked before every move; the game is abandoned once it returns {@code true}.
+     * @return The finished game, or {@code null} if it was abandoned.
+     */
+    GameRecord play(BooleanSupplier stopped) {
+        long start = System.nanoTime();
+        BitboardPosition position = new BitboardPosition(fen);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        long[] clocks = {timeControl.getBaseMillis(), timeControl.getBaseMillis()};
+        List<String> san = new ArrayList<>();
+
+        while (!stopped.getAsBoolean()) {
+            int side = position.getSideToMove();
+            DrawReason draw = DrawDetector.check(position, moves);
+            if (draw != null) {
+                return finish(san, GameRecord.DRAWN, "normal", draw.getDescription(), start);
+            }
+            if (!MoveGenerator.hasLegalMove(position, moves)) {
+                return finish(san, GameRecord.winner(side ^ 1), "normal", "checkmate", start);
+            }
+            if (maxPlies > 0 && san.size() >= maxPlies) {
+                return finish(san, GameRecord.DRAWN, "adjudication", "ply limit", start);
+            }
+            int value = adjudication != null ? adjudication.probeWdl(position) : Tablebases.UNKNOWN;
+            if (value != Tablebases.UNKNOWN) {
+                String result = switch (value) {
+                    case Tablebases.WIN -> GameRecord.winner(side);
+                    case Tablebases.LOSS -> GameRecord.winner(side ^ 1);
+                    default -> GameRecord.DRAWN;
+                };
+                return finish(san, result, "adjudication", "tablebase", start);
+            }
+
+            long searchStart = System.nanoTime();
+            SearchResult result = searches[side].search(position, timeControl.limits(clocks[side]));
+            long elapsed = (System.nanoTime() - searchStart) / 1_000_000;
+            int move = result.getBestMove();
+            if (move == Moves.NONE) {
+                throw new IllegalStateException(players[side] + " returned no move in " + position.toFen());
+            }
+            san.add(Notation.toSan(position, move));
+            position.makeMove(move);
+
+            if (timeControl.hasClock()) {
+                clocks[side] -= elapsed;
+                if (clocks[side] < 0) {
+                    return finish(san, GameRecord.winner(side ^ 1), "time forfeit",
+                            (side == WHITE ? "white" : "black") + " lost on time", start);
+                }
+                clocks[side] += timeControl.getIncrementMillis();
+            }
+        }
+        return null;
+    }
+
+    private GameRecord finish(List<String> san, String result, String termination, String reason, long start) {
+        return new GameRecord(round, players[WHITE].getName(), players[BLACK].getName(), fen, san, result,
+                termination, reason, LocalDate.now(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,158 @@
+package at.chess.chesssimulator.tournament;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * A finished game of a {@link Tournament}: players, opening, moves, result and how the game ended.
+ */
+@Getter
+public final class GameRecord {
+
+    /** PGN result of a white win. */
+    public static final String WHITE_WINS = "1-0";
+
+    /** PGN result of a black win. */
+    public static final String BLACK_WINS = "0-1";
+
+    /** PGN result of a draw. */
+    public static final String DRAWN = "1/2-1/2";
+
+    private static final DateTimeFormatter PGN_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    private static final int LINE_LENGTH = 80;
+
+    /** The game number within the tournament, starting at 1. */
+    private final int round;
+
+    private final String white;
+
+    private final String black;
+
+    /** The start position. */
+    private final String fen;
+
+    /** The moves in SAN. */
+    private final List<String> moves;
+
+    /** {@link #WHITE_WINS}, {@link #BLACK_WINS} or {@link #DRAWN}. */
+    private final String result;
+
+    /** The value of the PGN {@code Termination} tag: {@code normal}, {@code adjudication} or {@code time forfeit}. */
+    private final String termination;
+
+    /** Why the game ended, e.g. {@code checkmate} or {@code threefold repetition}. */
+    private final String reason;
+
+    private final LocalDate date;
+
+    /** The wall-clock duration of the game in nanoseconds. */
+    private final long nanos;
+
+    GameRecord(int round, String white, String black, String fen, List<String> moves, String result,
+               String termination, String reason, LocalDate date, long nanos) {
+        this.round = round;
+        this.white = white;
+        this.black = black;
+        this.fen = fen;
+        this.moves = moves;
+        this.result = result;
+        this.termination = termination;
+        this.reason = reason;
+        this.date = date;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the PGN result of a win of one side.
+     *
+     * @param color The winning color.
+     * @return {@link #WHITE_WINS} or {@link #BLACK_WINS}.
+     */
+    static String winner(int color) {
+        return color == Pieces.WHITE ? WHITE_WINS : BLACK_WINS;
+    }
+
+    /**
+     * Returns the points of white in half points.
+     *
+     * @return {@code 2} for a white win, {@code 1} for a draw and {@code 0} for a black win.
+     */
+    public int whiteHalfPoints() {
+        return switch (result) {
+            case WHITE_WINS -> 2;
+            case BLACK_WINS -> 0;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Renders the game in PGN.
+     *
+     * @param event       The value of the {@code Event} tag.
+     * @param timeControl The time control of the game.
+     * @return The tags and the movetext, ending with an empty line.
+     */
+    public String toPgn(String event, TimeControl timeControl) {
+        StringBuilder pgn = new StringBuilder();
+        tag(pgn, "Event", event);
+        tag(pgn, "Site", "?");
+        tag(pgn, "Date", date.format(PGN_DATE));
+        tag(pgn, "Round", Integer.toString(round));
+        tag(pgn, "White", white);
+        tag(pgn, "Black", black);
+        tag(pgn, "Result", result);
+        if (!fen.equals(BitboardPosition.START_FEN)) {
+            tag(pgn, "SetUp", "1");
+            tag(pgn, "FEN", fen);
+        }
+        tag(pgn, "PlyCount", Integer.toString(moves.size()));
+        tag(pgn, "TimeControl", timeControl.toPgn());
+        tag(pgn, "Termination", termination);
+        pgn.append('\n');
+
+        BitboardPosition start = new BitboardPosition(fen);
+        int moveNumber = start.getFullmoveNumber();
+        int color = start.getSideToMove();
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < moves.size(); i++) {
+            String token = moves.get(i);
+            if (color == Pieces.WHITE) {
+                token = moveNumber + ". " + token;
+            } else if (i == 0) {
+                token = moveNumber + "... " + token;
+            }
+            append(pgn, line, token);
+            if (color == Pieces.BLACK) {
+                moveNumber++;
+            }
+            color ^= 1;
+        }
+        append(pgn, line, "{" + reason + "}");
+        append(pgn, line, result);
+        return pgn.append(line).append("\n\n").toString();
+    }
+
+    private static void tag(StringBuilder pgn, String name, String value) {
+        pgn.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\"]\n");
+    }
+
+    /** Appends a token to the current movetext line, moving the line to the output once it is full. */
+    private static void append(StringBuilder pgn, StringBuilder line, String token) {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > LINE_LENGTH) {
+            pgn.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+}
@@ -0,0 +1,212 @@
+package at.chess.chesssimulator.tournament;
+
+import lombok.Getter;
+
+/**
+ * Sequential probability ratio test of a match result, deciding between two Elo hypotheses with as few games as
+ * the results allow.
+ * <p>
+ * The null hypothesis is that the first engine is {@code elo0} stronger than the second, the alternative that it is
+ * {@code elo1} stronger. After every game the log-likelihood ratio of the two is computed from the wins, draws and
+ * losses; the test accepts the alternative once the ratio rises above {@code ln((1 - beta) / alpha)} and the null
+ * hypothesis once it falls below {@code ln(beta / (1 - alpha))}, so a false positive happens with probability
+ * {@code alpha} and a false negative with probability {@code beta}. A clear improvement is usually resolved within a
+ * few hundred games, where a fixed-length match would need thousands.
+ * </p>
+ * <p>
+ * The ratio uses the generalized SPRT on the trinomial model: the per-game score is treated as normally
+ * distributed with the variance observed so far, which makes draws count as the half points they are without
+ * assuming a draw model. An outcome that did not occur yet counts as half a game, so a one-sided start such as
+ * only wins still has a variance and can be decided.
+ * </p>
+ */
+@Getter
+public final class Sprt {
+
+    /** The outcome of the test after a number of games. */
+    public enum Decision {
+
+        /** Neither bound was crossed yet. */
+        CONTINUE,
+
+        /** The ratio fell below the lower bound: the results favor {@code elo0} over {@code elo1}. */
+        ACCEPT_H0,
+
+        /** The ratio rose above the upper bound: the results favor {@code elo1} over {@code elo0}. */
+        ACCEPT_H1
+    }
+
+    /** Two-sided 95% quantile of the normal distribution, for the error bars. */
+    private static final double Z_95 = 1.959964;
+
+    private final double elo0;
+
+    private final double elo1;
+
+    private final double alpha;
+
+    private final double beta;
+
+    /** The bound below which the null hypothesis is accepted. */
+    private final double lowerBound;
+
+    /** The bound above which the alternative is accepted. */
+    private final double upperBound;
+
+    /**
+     * Creates a test.
+     *
+     * @param elo0  The Elo difference of the null hypothesis.
+     * @param elo1  The Elo difference of the alternative; larger than {@code elo0}.
+     * @param alpha The probability of accepting the alternative although the null hypothesis holds.
+     * @param beta  The probability of accepting the null hypothesis although the alternative holds.
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be larger than elo0: " + elo0 + ", " + elo1);
+        }
+        if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("alpha and beta must be between 0 and 1: " + alpha + ", " + beta);
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Computes the log-likelihood ratio of the alternative against the null hypothesis.
+     *
+     * @param wins   Games the first engine won.
+     * @param draws  Drawn games.
+     * @param losses Games the first engine lost.
+     * @return The ratio, {@code 0} before the first game.
+     */
+    public double llr(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        double w = regularize(wins);
+        double d = regularize(draws);
+        double l = regularize(losses);
+        double score = score(w, d, l);
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance(w, d, l));
+    }
+
+    /**
+     * Decides the test.
+     *
+     * @param wins   Games the first engine won.
+     * @param draws  Drawn games.
+     * @param losses Games the first engine lost.
+     * @return Whether a hypothesis was accepted.
+     */
+    public Decision decide(int wins, int draws, int losses) {
+        double llr = llr(wins, draws, losses);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        return llr <= lowerBound ? Decision.ACCEPT_H0 : Decision.CONTINUE;
+    }
+
+    /**
+     * Estimates the Elo difference of a match result.
+     *
+     * @param wins   Games the first engine won.
+     * @param draws  Drawn games.
+     * @param losses Games the first engine lost.
+     * @return The difference in favor of the first engine; infinite if it won or lost every game.
+     */
+    public static double elo(int wins, int draws, int losses) {
+        return wins + draws + losses == 0 ? 0 : toElo(score(wins, draws, losses));
+    }
+
+    /**
+     * Estimates the half width of the 95% confidence interval of {@link #elo(int, int, int)}.
+     *
+     * @param wins   Games the first engine won.
+     * @param draws  Drawn games.
+     * @param losses Games the first engine lost.
+     * @return The error bar in Elo; infinite while the score is at or near the extremes.
+     */
+    public static double eloError(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = score(wins, draws, losses);
+        if (score <= 0 || score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = Z_95 * Math.sqrt(variance(wins, draws, losses) / games);
+        return (toElo(score + margin) - toElo(score - margin)) / 2;
+    }
+
+    /**
+     * Formats the state of the test for a progress line.
+     *
+     * @param wins   Games the first engine won.
+     * @param draws  Drawn games.
+     * @param losses Games the first engine lost.
+     * @return E.g. {@code LLR 1.23 [-2.94, 2.94] (elo0 0, elo1 5)}.
+     */
+    public String format(int wins, int draws, int losses) {
+        return String.format("LLR %.2f [%.2f, %.2f] (elo0 %s, elo1 %s)", llr(wins, draws, losses), lowerBound,
+                upperBound, formatElo(elo0), formatElo(elo1));
+    }
+
+    /**
+     * Formats an Elo estimate with its error bar.
+     *
+     * @param wins   Games the first engine won.
+     * @param draws  Drawn games.
+     * @param losses Games the first engine lost.
+     * @return E.g. {@code Elo 12.3 +/- 20.1}.
+     */
+    public static String formatEstimate(int wins, int draws, int losses) {
+        // Adding zero turns the -0.0 of an even score into 0.0
+        return String.format("Elo %.1f +/- %.1f", elo(wins, draws, losses) + 0.0, eloError(wins, draws, losses));
+    }
+
+    private static double score(double wins, double draws, double losses) {
+        return (wins + draws / 2) / (wins + draws + losses);
+    }
+
+    /** The variance of the score of a single game, as observed in the results. */
+    private static double variance(double wins, double draws, double losses) {
+        double games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        double score = score(wins, draws, losses);
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+
+    private static double regularize(int count) {
+        return count == 0 ? 0.5 : count;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double toElo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static String formatElo(double elo) {
+        return elo == Math.rint(elo) ? Long.toString((long) elo) : Double.toString(elo);
+    }
+}
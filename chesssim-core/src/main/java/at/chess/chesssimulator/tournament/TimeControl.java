@@ -0,0 +1,99 @@
+package at.chess.chesssimulator.tournament;
+
+import at.chess.chesssimulator.engine.SearchLimits;
+import lombok.Getter;
+
+/**
+ * The time control of the games of a {@link Tournament}.
+ * <p>
+ * A game is either played on a clock with a base time and an increment per move, in which case the engines manage
+ * their own time and lose on overstepping it, or every move is limited by a fixed move time, depth or node count.
+ * </p>
+ */
+@Getter
+public final class TimeControl {
+
+    /** The clock at the start of the game in milliseconds, or {@code 0} without a clock. */
+    private final long baseMillis;
+
+    /** The time added after every move in milliseconds. */
+    private final long incrementMillis;
+
+    /** The limits of every move if the game is played without a clock. */
+    private final SearchLimits moveLimits;
+
+    private final String text;
+
+    private TimeControl(long baseMillis, long incrementMillis, SearchLimits moveLimits, String text) {
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.moveLimits = moveLimits;
+        this.text = text;
+    }
+
+    /**
+     * Parses a time control.
+     *
+     * @param text {@code base+inc} in seconds as in PGN (e.g. {@code 10+0.1}), {@code movetime=ms},
+     *             {@code depth=plies} or {@code nodes=n}.
+     * @return The time control.
+     * @throws IllegalArgumentException if the text is malformed.
+     */
+    public static TimeControl parse(String text) {
+        try {
+            int separator = text.indexOf('=');
+            if (separator >= 0) {
+                long value = Long.parseLong(text.substring(separator + 1));
+                SearchLimits limits = switch (text.substring(0, separator)) {
+                    case "movetime" -> SearchLimits.moveTime(value);
+                    case "depth" -> SearchLimits.depth((int) value);
+                    case "nodes" -> new SearchLimits(Integer.MAX_VALUE, SearchLimits.UNLIMITED, value);
+                    default -> throw new IllegalArgumentException("Unknown time control: " + text);
+                };
+                return new TimeControl(0, 0, limits, text);
+            }
+            int plus = text.indexOf('+');
+            double base = Double.parseDouble(plus < 0 ? text : text.substring(0, plus));
+            double increment = plus < 0 ? 0 : Double.parseDouble(text.substring(plus + 1));
+            if (base <= 0 || increment < 0) {
+                throw new IllegalArgumentException("Invalid time control: " + text);
+            }
+            return new TimeControl(Math.round(base * 1000), Math.round(increment * 1000), null, text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time control: " + text, e);
+        }
+    }
+
+    /**
+     * Checks whether the games are played on a clock.
+     *
+     * @return {@code true} for a {@code base+inc} time control.
+     */
+    public boolean hasClock() {
+        return moveLimits == null;
+    }
+
+    /**
+     * Returns the limits of the next search of a side.
+     *
+     * @param remainingMillis The time left on the side's clock; ignored without a clock.
+     * @return The limits.
+     */
+    public SearchLimits limits(long remainingMillis) {
+        return hasClock() ? SearchLimits.clock(remainingMillis, incrementMillis, 0) : moveLimits;
+    }
+
+    /**
+     * Returns the value of the PGN {@code TimeControl} tag.
+     *
+     * @return {@code base+inc} in seconds, or {@code -} for games without a clock.
+     */
+    public String toPgn() {
+        return hasClock() ? text : "-";
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
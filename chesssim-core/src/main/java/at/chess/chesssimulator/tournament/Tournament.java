@@ -0,0 +1,423 @@
+package at.chess.chesssimulator.tournament;
+
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.engine.Search;
+import at.chess.chesssimulator.engine.TranspositionTable;
+import at.chess.chesssimulator.tablebase.Tablebases;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plays a headless match between two engines with many games running in parallel.
+ * <p>
+ * Every worker thread owns one single-threaded {@link Search} per engine, each with its own transposition table
+ * that is emptied before every game, so games never share state and the pool keeps one game per core busy. The
+ * games start from the positions of an EPD file; every opening is played twice with the colors swapped, which
+ * cancels out the bias of unbalanced openings.
+ * </p>
+ * <p>
+ * Finished games are handled on the calling thread in the order they complete: each is appended to the PGN and
+ * results files right away and flushed, so an interrupted run loses at most the games still in progress. After
+ * every game the score, the Elo estimate and the throughput in games per hour are printed.
+ * </p>
+ * <p>
+ * With an {@link Sprt} the match stops as soon as the test accepts one of its hypotheses; the number of games is
+ * then only an upper bound.
+ * </p>
+ */
+public class Tournament {
+
+    protected static final Logger logger = LoggerFactory.getLogger(Tournament.class);
+
+    /** Games of a run by default. */
+    public static final int DEFAULT_GAMES = 100;
+
+    /** Games of a run with an SPRT by default; the test normally ends it much earlier. */
+    public static final int SPRT_MAX_GAMES = 100_000;
+
+    /** The error probabilities alpha and beta of an SPRT by default. */
+    public static final double DEFAULT_SPRT_ERROR = 0.05;
+
+    /** Time control of a run by default: ten seconds plus a tenth per move. */
+    public static final String DEFAULT_TIME_CONTROL = "10+0.1";
+
+    private static final String RESULTS_HEADER = "round\twhite\tblack\tresult\ttermination\treason\tplies\tseconds\tfen";
+
+    private final EngineConfig first;
+
+    private final EngineConfig second;
+
+    private final TimeControl timeControl;
+
+    /** The number of games to play. */
+    @Setter
+    private int games = DEFAULT_GAMES;
+
+    /** The number of games played at the same time. */
+    @Setter
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+
+    /** The start positions, used in order and repeated if there are fewer than half the games. */
+    @Setter
+    private List<String> openings = List.of(BitboardPosition.START_FEN);
+
+    /** The plies after which a game is adjudicated a draw, or {@code 0} for no limit. */
+    @Setter
+    private int maxPlies;
+
+    /** The tables to adjudicate endgames with, or {@code null}. */
+    @Setter
+    private Tablebases adjudication;
+
+    /** The PGN file the games are appended to, or {@code null}. */
+    @Setter
+    private Path pgnFile;
+
+    /** The tab-separated file a line per game is appended to, or {@code null}. */
+    @Setter
+    private Path resultsFile;
+
+    /** The value of the PGN {@code Event} tag. */
+    @Setter
+    private String event = "ChessSim tournament";
+
+    /** The test that ends the match early, or {@code null} to play all games. */
+    @Setter
+    private Sprt sprt;
+
+    /** Receives the progress lines. */
+    @Setter
+    private PrintStream out = System.out;
+
+    /** Games the first engine won. */
+    @Getter
+    private int wins;
+
+    /** Games the first engine lost. */
+    @Getter
+    private int losses;
+
+    @Getter
+    private int draws;
+
+    /** The outcome of the {@link #setSprt(Sprt) test} so far. */
+    @Getter
+    private Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+    private volatile boolean stopped;
+
+    private long startNanos;
+
+    private final ThreadLocal<Search[]> searches = new ThreadLocal<>();
+
+    private final ThreadLocal<TranspositionTable[]> tables = new ThreadLocal<>();
+
+    /**
+     * Creates a match.
+     *
+     * @param first       The engine whose results are counted as wins, draws and losses.
+     * @param second      The opponent; may be the same configuration for self-play.
+     * @param timeControl The time control of every game.
+     */
+    public Tournament(EngineConfig first, EngineConfig second, TimeControl timeControl) {
+        this.first = first;
+        this.second = second;
+        this.timeControl = timeControl;
+    }
+
+    /**
+     * Reads start positions from an EPD file.
+     * <p>
+     * Only the four position fields of every line are used; operations such as {@code bm} or {@code id} are
+     * ignored. Empty lines and lines starting with {@code #} are skipped.
+     * </p>
+     *
+     * @param file The EPD file.
+     * @return The positions as FEN with the move counters reset.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if a line is not a valid position.
+     */
+    public static List<String> readEpd(Path file) throws IOException {
+        List<String> positions = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length < 4) {
+                throw new IllegalArgumentException("Invalid EPD line: " + line);
+            }
+            String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3]) + " 0 1";
+            // Rejects malformed positions before the first game starts
+            new BitboardPosition(fen);
+            positions.add(fen);
+        }
+        return positions;
+    }
+
+    /**
+     * Plays the match until all games are finished or {@link #stop()} is called.
+     *
+     * @throws IOException          if the PGN or results file cannot be written.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for games.
+     */
+    public void run() throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "tournament-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<GameRecord> completed = new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < games; i++) {
+            int round = i + 1;
+            String fen = openings.get(i / 2 % openings.size());
+            completed.submit(() -> playGame(round, fen));
+        }
+
+        logger.info("Playing {} games of {} vs {} at {} on {} threads", games, first, second, timeControl,
+                concurrency);
+        startNanos = System.nanoTime();
+        try (BufferedWriter pgn = open(pgnFile, null);
+             BufferedWriter results = open(resultsFile, RESULTS_HEADER)) {
+            for (int i = 0; i < games && !stopped; i++) {
+                GameRecord game;
+                try {
+                    game = completed.take().get();
+                } catch (ExecutionException e) {
+                    logger.error("Game failed", e.getCause());
+                    continue;
+                }
+                if (game != null) {
+                    record(game, pgn, results);
+                }
+            }
+        } finally {
+            stopped = true;
+            pool.shutdownNow();
+        }
+        out.printf("Finished %d games in %.0f s: %s%n", getGamesPlayed(), elapsedNanos() / 1e9, score());
+        if (sprt != null) {
+            out.printf("SPRT: %s, %s%n", sprt.format(wins, draws, losses), switch (decision) {
+                case ACCEPT_H1 -> "H1 accepted";
+                case ACCEPT_H0 -> "H0 accepted";
+                case CONTINUE -> "inconclusive";
+            });
+        }
+    }
+
+    /**
+     * Stops the match: games in progress are abandoned at their next move and not recorded.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Returns the number of games recorded so far.
+     *
+     * @return Wins, draws and losses together.
+     */
+    public int getGamesPlayed() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Returns the throughput of the run so far.
+     *
+     * @return Recorded games per hour of wall-clock time.
+     */
+    public double getGamesPerHour() {
+        long elapsed = elapsedNanos();
+        return elapsed == 0 ? 0 : getGamesPlayed() * 3600e9 / elapsed;
+    }
+
+    /**
+     * Called on the thread of {@link #run()} for every finished game, after the score was updated and the game was
+     * written. Prints a progress line and stops the match once the SPRT is decided; subclasses may add statistics
+     * or call {@link #stop()}.
+     *
+     * @param game The game.
+     */
+    protected void gameFinished(GameRecord game) {
+        out.printf("Game %d/%d: %s - %s %s {%s}  %s%n", game.getRound(), games, game.getWhite(), game.getBlack(),
+                game.getResult(), game.getReason(), score());
+        if (sprt != null) {
+            out.println("  " + sprt.format(wins, draws, losses));
+            decision = sprt.decide(wins, draws, losses);
+            if (decision != Sprt.Decision.CONTINUE) {
+                stop();
+            }
+        }
+    }
+
+    private GameRecord playGame(int round, String fen) {
+        if (stopped) {
+            return null;
+        }
+        Search[] engines = searches.get();
+        TranspositionTable[] engineTables = tables.get();
+        if (engines == null) {
+            engineTables = new TranspositionTable[]{first.createTable(), second.createTable()};
+            engines = new Search[]{first.createSearch(engineTables[0]), second.createSearch(engineTables[1])};
+            searches.set(engines);
+            tables.set(engineTables);
+        }
+        for (TranspositionTable table : engineTables) {
+            table.clear();
+        }
+        Game game = isFirstWhite(round)
+                ? new Game(round, fen, first, engines[0], second, engines[1], timeControl, maxPlies, adjudication)
+                : new Game(round, fen, second, engines[1], first, engines[0], timeControl, maxPlies, adjudication);
+        return game.play(() -> stopped);
+    }
+
+    private void record(GameRecord game, BufferedWriter pgn, BufferedWriter results) throws IOException {
+        int points = isFirstWhite(game.getRound()) ? game.whiteHalfPoints() : 2 - game.whiteHalfPoints();
+        switch (points) {
+            case 2 -> wins++;
+            case 1 -> draws++;
+            default -> losses++;
+        }
+
+        if (pgn != null) {
+            pgn.write(game.toPgn(event, timeControl));
+            pgn.flush();
+        }
+        if (results != null) {
+            results.write(String.join("\t", Integer.toString(game.getRound()), game.getWhite(), game.getBlack(),
+                    game.getResult(), game.getTermination(), game.getReason(),
+                    Integer.toString(game.getMoves().size()), String.format("%.1f", game.getNanos() / 1e9),
+                    game.getFen()));
+            results.newLine();
+            results.flush();
+        }
+        gameFinished(game);
+    }
+
+    /** Odd rounds give the first engine white, the following even round replays the opening with colors swapped. */
+    private static boolean isFirstWhite(int round) {
+        return round % 2 == 1;
+    }
+
+    private String score() {
+        int played = getGamesPlayed();
+        double percent = played == 0 ? 0 : (wins + draws / 2.0) * 100 / played;
+        return String.format("%s +%d -%d =%d (%.1f%%), %s, %.0f games/h", first, wins, losses, draws, percent,
+                Sprt.formatEstimate(wins, draws, losses), getGamesPerHour());
+    }
+
+    private long elapsedNanos() {
+        return startNanos == 0 ? 0 : System.nanoTime() - startNanos;
+    }
+
+    private static BufferedWriter open(Path file, String header) throws IOException {
+        if (file == null) {
+            return null;
+        }
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        if (header != null && !exists) {
+            writer.write(header);
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    /**
+     * Runs a match on the command line.
+     *
+     * @param args {@code --engine spec [--engine spec] [--tc control] [--games n] [--concurrency n]
+     *             [--openings file.epd] [--seed n] [--max-plies n] [--tb directory] [--pgn file] [--results file]
+     *             [--event name] [--sprt elo0 elo1] [--alpha a] [--beta b]}; see {@link EngineConfig#parse(String)}
+     *             and {@link TimeControl#parse(String)}. With one engine it plays itself; with {@code --sprt} the
+     *             games default to {@link #SPRT_MAX_GAMES}.
+     * @throws IOException          if a file cannot be read or written.
+     * @throws InterruptedException if the run is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<EngineConfig> engines = new ArrayList<>();
+        String timeControl = DEFAULT_TIME_CONTROL;
+        int games = 0;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        Path openingsFile = null;
+        long seed = System.nanoTime();
+        int maxPlies = 0;
+        Tablebases adjudication = null;
+        Path pgnFile = null;
+        Path resultsFile = null;
+        String event = null;
+        double[] elo = null;
+        double alpha = DEFAULT_SPRT_ERROR;
+        double beta = DEFAULT_SPRT_ERROR;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--engine" -> engines.add(EngineConfig.parse(args[++i]));
+                case "--tc" -> timeControl = args[++i];
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--openings" -> openingsFile = Path.of(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--max-plies" -> maxPlies = Integer.parseInt(args[++i]);
+                case "--tb" -> adjudication = Tablebases.open(Path.of(args[++i]));
+                case "--pgn" -> pgnFile = Path.of(args[++i]);
+                case "--results" -> resultsFile = Path.of(args[++i]);
+                case "--event" -> event = args[++i];
+                case "--sprt" -> elo = new double[]{Double.parseDouble(args[++i]), Double.parseDouble(args[++i])};
+                case "--alpha" -> alpha = Double.parseDouble(args[++i]);
+                case "--beta" -> beta = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (engines.isEmpty() || engines.size() > 2) {
+            System.out.println("Usage: Tournament --engine spec [--engine spec] [--tc base+inc|movetime=ms|depth=n]"
+                    + " [--games n] [--concurrency n] [--openings file.epd] [--seed n] [--max-plies n]"
+                    + " [--tb directory] [--pgn file] [--results file] [--event name] [--sprt elo0 elo1]"
+                    + " [--alpha a] [--beta b]");
+            return;
+        }
+
+        EngineConfig first = engines.get(0);
+        Tournament tournament = new Tournament(first, engines.get(engines.size() - 1),
+                TimeControl.parse(timeControl));
+        if (elo != null) {
+            tournament.setSprt(new Sprt(elo[0], elo[1], alpha, beta));
+        }
+        tournament.setGames(games > 0 ? games : elo != null ? SPRT_MAX_GAMES : DEFAULT_GAMES);
+        tournament.setConcurrency(concurrency);
+        tournament.setMaxPlies(maxPlies);
+        tournament.setAdjudication(adjudication);
+        tournament.setPgnFile(pgnFile);
+        tournament.setResultsFile(resultsFile);
+        if (event != null) {
+            tournament.setEvent(event);
+        }
+        if (openingsFile != null) {
+            List<String> openings = new ArrayList<>(readEpd(openingsFile));
+            Collections.shuffle(openings, new Random(seed));
+            tournament.setOpenings(openings);
+            System.out.println(openings.size() + " openings, seed " + seed);
+        }
+        tournament.run();
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Headless chess rules shared by the client and the server: bitboard position, move generation, notation and the
+ * search engine.
+ * <p>
+ * The module deliberately has no JavaFX dependency so that servers and tools can load the rules without a UI toolkit.
+ * </p>
+ */
+module at.chess.chesssimulator.core {
+    requires org.slf4j;
+    requires static lombok;
+    requires static jdk.incubator.vector;
+
+    exports at.chess.chesssimulator.board.bitboard;
+    exports at.chess.chesssimulator.book;
+    exports at.chess.chesssimulator.engine;
+    exports at.chess.chesssimulator.engine.nnue;
+    exports at.chess.chesssimulator.movegen;
+    exports at.chess.chesssimulator.notation;
+    exports at.chess.chesssimulator.rules;
+    exports at.chess.chesssimulator.tablebase;
+    exports at.chess.chesssimulator.tournament;
+}
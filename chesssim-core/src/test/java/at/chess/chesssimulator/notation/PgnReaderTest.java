@@ -0,0 +1,67 @@
+package at.chess.chesssimulator.notation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgnReaderTest {
+
+    private static PgnReader read(String pgn) throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        assertTrue(reader.next());
+        return reader;
+    }
+
+    @Test
+    void skipsVariationEndingDirectlyOnMove() throws IOException {
+        PgnReader reader = read("1. e4 e5 (1... c5 2. Nf3) 2. Nf3 Nc6 1-0");
+
+        assertEquals(List.of("e4", "e5", "Nf3", "Nc6"), reader.getMoves());
+        assertEquals("1-0", reader.getResult());
+    }
+
+    @Test
+    void keepsMainLineMoveDirectlyBeforeVariation() throws IOException {
+        PgnReader reader = read("1. e4 e5(1... c5) 2. Nf3 Nc6 0-1");
+
+        assertEquals(List.of("e4", "e5", "Nf3", "Nc6"), reader.getMoves());
+        assertEquals("0-1", reader.getResult());
+    }
+
+    @Test
+    void handlesNestedVariationsAndGluedComments() throws IOException {
+        PgnReader reader = read("1.e4{best by test}e5 (1...c5(1...e6)2.Nf3) 2.Nf3;line comment\nNc6 $1 1/2-1/2");
+
+        assertEquals(List.of("e4", "e5", "Nf3", "Nc6"), reader.getMoves());
+        assertEquals("1/2-1/2", reader.getResult());
+    }
+
+    @Test
+    void readsTagsAndConsecutiveGames() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader("""
+                [Event "First"]
+                [White "A \\"quoted\\" name"]
+
+                1. d4 d5 *
+
+                [Event "Second"]
+
+                1. c4 (1. Nf3) 1... e5
+                """));
+
+        assertTrue(reader.next());
+        assertEquals("First", reader.getTags().get("Event"));
+        assertEquals("A \"quoted\" name", reader.getTags().get("White"));
+        assertEquals(List.of("d4", "d5"), reader.getMoves());
+        assertEquals(PgnReader.UNKNOWN_RESULT, reader.getResult());
+
+        assertTrue(reader.next());
+        assertEquals("Second", reader.getTags().get("Event"));
+        assertEquals(List.of("c4", "e5"), reader.getMoves());
+        assertFalse(reader.next());
+    }
+}
@@ -104,6 +104,13 @@ public class ClientHandler implements Runnable {
                             out.println("GAME_START WHITE");
                             gameManager.sendCommand(gameManager.getGameRoomForPlayer(player), player, new Command(CommandType.GAME_START, "GAME_START BLACK"));
                         }
+                    } else if (commandIssued.getCommandType() == CommandType.MAKE_MOVE) {
+                        GameRoom gameRoom = gameManager.getGameRoomForPlayer(player);
+                        if (gameRoom != null && gameRoom.applyMove(player, commandIssued.getMessage())) {
+                            gameManager.sendCommand(gameRoom, player, new Command(CommandType.MAKE_MOVE, line));
+                        } else {
+                            out.println(CommandType.RECEIVE_MOVE_RESULT.getCommand() + " INVALID");
+                        }
                     } else {
                         GameRoom gameRoom = gameManager.getGameRoomForPlayer(player);
                         gameManager.sendCommand(gameRoom, player, commandIssued);
@@ -1,7 +1,14 @@
 package managament;
 
+import at.chess.chesssimulator.board.bitboard.BitboardPosition;
+import at.chess.chesssimulator.board.bitboard.Pieces;
+import at.chess.chesssimulator.movegen.MoveGenerator;
+import at.chess.chesssimulator.notation.Notation;
+import at.chess.chesssimulator.rules.DrawDetector;
+import at.chess.chesssimulator.rules.DrawReason;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,7 +17,13 @@ import java.util.List;
  * The {@code GameRoom} class represents a game room in which players can join and participate in a game.
  * It holds the room name and a list of players who are part of the room.
  * Players can be added to or removed from the game room as the game progresses.
+ * <p>
+ * The room also keeps the authoritative position of its game, so moves sent by the clients can be validated
+ * with the shared chess rules before they are forwarded to the opponent. Once the game is drawn by stalemate,
+ * repetition, the fifty-move rule or insufficient material, further moves are rejected.
+ * </p>
  */
+@Slf4j
 @Getter
 @Setter
 public class GameRoom {
@@ -21,6 +34,12 @@ public class GameRoom {
     /** The list of players in the game room. */
     private List<Player> players;
 
+    /** The current position of the game played in this room. */
+    private final BitboardPosition position;
+
+    /** Why the game ended in a draw, or {@code null} while it goes on. */
+    private DrawReason drawReason;
+
     /**
      * Constructs a new {@code GameRoom} with the specified room name.
      * Initializes an empty list of players.
@@ -30,6 +49,7 @@ public class GameRoom {
     public GameRoom(String roomName) {
         this.roomName = roomName;
         this.players = new ArrayList<>();
+        this.position = new BitboardPosition(BitboardPosition.START_FEN);
     }
 
     /**
@@ -49,4 +69,44 @@ public class GameRoom {
     public void removePlayer(Player player) {
         players.remove(player);
     }
+
+    /**
+     * Validates a move sent by a player and plays it on the room's position if it is legal.
+     *
+     * @param player the player who sent the move
+     * @param uci    the move in UCI notation, e.g. {@code e2e4}
+     * @return {@code true} if the move was legal and has been played, {@code false} otherwise
+     */
+    public synchronized boolean applyMove(Player player, String uci) {
+        if (drawReason != null) {
+            log.info("Rejected move {} in {}: the game was drawn by {}", uci, roomName, drawReason.getDescription());
+            return false;
+        }
+        if (getColor(player) != position.getSideToMove()) {
+            log.info("Rejected move {} in {}: it is not {}'s turn", uci, roomName, player.getName());
+            return false;
+        }
+        try {
+            position.makeMove(Notation.parseUci(position, uci));
+            log.info("Played move {} in {}, position is now {}", uci, roomName, position.toFen());
+            drawReason = DrawDetector.check(position, new int[MoveGenerator.MAX_MOVES]);
+            if (drawReason != null) {
+                log.info("Game in {} drawn by {}", roomName, drawReason.getDescription());
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.info("Rejected move {} in {}: {}", uci, roomName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the color a player plays with. The player who joins second is sent {@code GAME_START WHITE}.
+     *
+     * @param player the player
+     * @return {@link Pieces#WHITE} or {@link Pieces#BLACK}
+     */
+    public int getColor(Player player) {
+        return players.indexOf(player) == 1 ? Pieces.WHITE : Pieces.BLACK;
+    }
 }